@@ -0,0 +1,359 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * The state of the running build which can be read by other threads (for example to serve it via http) at any time.
+ * Only concurrent collections and atomic values are used, so reading the state never blocks the builder threads.
+ */
+class BuildProgress
+{
+    /**
+     * The time window for the download throughput.
+     */
+    static final int THROUGHPUT_SECONDS = 10;
+
+    private volatile long sessionStartTime;
+
+    private volatile int threadCount = 1;
+
+    private volatile List<String> reactorProjects = Collections.emptyList();
+
+    /**
+     * Key: thread name, value: the innermost mojo executed by the thread.
+     */
+    private final ConcurrentMap<String, RunningMojo> runningMojos;
+
+    /**
+     * Key: project id, value: start time.
+     */
+    private final ConcurrentMap<String, Long> runningProjects;
+
+    /**
+     * Key: project id, value: elapsed time in ms.
+     */
+    private final ConcurrentMap<String, Long> completedProjects;
+
+    private final ConcurrentMap<String, AtomicLong> phaseTimes;
+
+    private final AtomicLong eventsProcessed;
+
+    private final AtomicLong bytesDownloaded;
+
+    private final AtomicLong bytesInstalled;
+
+    /**
+     * The downloaded bytes per second of the last {@link #THROUGHPUT_SECONDS} seconds as a ring buffer.
+     */
+    private final AtomicLongArray downloadBuckets;
+
+    private final AtomicLongArray downloadBucketSeconds;
+
+    public BuildProgress()
+    {
+        this.runningMojos = new ConcurrentHashMap<>();
+        this.runningProjects = new ConcurrentHashMap<>();
+        this.completedProjects = new ConcurrentHashMap<>();
+        this.phaseTimes = new ConcurrentHashMap<>();
+        this.eventsProcessed = new AtomicLong();
+        this.bytesDownloaded = new AtomicLong();
+        this.bytesInstalled = new AtomicLong();
+        this.downloadBuckets = new AtomicLongArray( THROUGHPUT_SECONDS );
+        this.downloadBucketSeconds = new AtomicLongArray( THROUGHPUT_SECONDS );
+    }
+
+    /**
+     * The id does not contain the version, so it stays the same over releases.
+     */
+    static String getProjectId( MavenProject project )
+    {
+        return project.getGroupId() + ":" + project.getArtifactId();
+    }
+
+    static String getMojoId( MojoExecution mojo )
+    {
+        return mojo.getGroupId() + ":" + mojo.getArtifactId() + ":" + mojo.getVersion() + ":" + mojo.getGoal() + " ("
+            + mojo.getExecutionId() + ")";
+    }
+
+    /**
+     * @return The number of threads given by {@code -T} which can be something like {@code 4} or {@code 1.5C}.
+     */
+    static int getThreadCount( MavenExecutionRequest request )
+    {
+        String threadCount = request.getThreadCount();
+        if ( threadCount == null || threadCount.trim().isEmpty() )
+        {
+            return 1;
+        }
+        threadCount = threadCount.trim();
+        try
+        {
+            if ( threadCount.endsWith( "C" ) || request.isPerCoreThreadCount() )
+            {
+                String perCore = threadCount.endsWith( "C" ) ? threadCount.substring( 0, threadCount.length() - 1 )
+                                : threadCount;
+                return Math.max( 1, (int) ( Float.parseFloat( perCore )
+                    * Runtime.getRuntime().availableProcessors() ) );
+            }
+            return Math.max( 1, Integer.parseInt( threadCount ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            return 1;
+        }
+    }
+
+    public void sessionStart( MavenSession session )
+    {
+        List<String> projects = new ArrayList<>();
+        for ( MavenProject project : session.getProjects() )
+        {
+            projects.add( getProjectId( project ) );
+        }
+        this.reactorProjects = Collections.unmodifiableList( projects );
+        this.threadCount = getThreadCount( session.getRequest() );
+        this.sessionStartTime = System.currentTimeMillis();
+    }
+
+    public void projectStart( ExecutionEvent event )
+    {
+        runningProjects.put( getProjectId( event.getProject() ), System.currentTimeMillis() );
+    }
+
+    public void projectStop( ExecutionEvent event, long timeInMillis )
+    {
+        String projectId = getProjectId( event.getProject() );
+        completedProjects.put( projectId, timeInMillis );
+        runningProjects.remove( projectId );
+    }
+
+    public void mojoStart( ExecutionEvent event )
+    {
+        String thread = Thread.currentThread().getName();
+        MojoExecution mojo = event.getMojoExecution();
+        runningMojos.put( thread, new RunningMojo( thread, getProjectId( event.getProject() ), getMojoId( mojo ),
+                                                   mojo.getLifecyclePhase(), System.currentTimeMillis(),
+                                                   runningMojos.get( thread ) ) );
+    }
+
+    public void mojoStop( ExecutionEvent event, long timeInMillis )
+    {
+        String thread = Thread.currentThread().getName();
+        RunningMojo current = runningMojos.get( thread );
+        if ( current != null )
+        {
+            // Only the thread itself changes its entry, so there is no race here.
+            if ( current.getPrevious() == null )
+            {
+                runningMojos.remove( thread );
+            }
+            else
+            {
+                runningMojos.put( thread, current.getPrevious() );
+            }
+        }
+
+        String phase = event.getMojoExecution().getLifecyclePhase();
+        if ( phase != null )
+        {
+            AtomicLong phaseTime = phaseTimes.get( phase );
+            if ( phaseTime == null )
+            {
+                phaseTimes.putIfAbsent( phase, new AtomicLong() );
+                phaseTime = phaseTimes.get( phase );
+            }
+            phaseTime.addAndGet( timeInMillis );
+        }
+    }
+
+    public void eventProcessed()
+    {
+        eventsProcessed.incrementAndGet();
+    }
+
+    public void artifactDownloaded( long size, long now )
+    {
+        bytesDownloaded.addAndGet( size );
+
+        long second = now / 1000;
+        int index = (int) ( second % THROUGHPUT_SECONDS );
+        long bucketSecond = downloadBucketSeconds.get( index );
+        if ( bucketSecond != second && downloadBucketSeconds.compareAndSet( index, bucketSecond, second ) )
+        {
+            // A concurrent download which has been added in between is lost. That's acceptable for a throughput.
+            downloadBuckets.set( index, 0 );
+        }
+        downloadBuckets.addAndGet( index, size );
+    }
+
+    public void artifactInstalled( long size )
+    {
+        bytesInstalled.addAndGet( size );
+    }
+
+    public long getEventsProcessed()
+    {
+        return eventsProcessed.get();
+    }
+
+    public long getBytesDownloaded()
+    {
+        return bytesDownloaded.get();
+    }
+
+    public long getBytesInstalled()
+    {
+        return bytesInstalled.get();
+    }
+
+    /**
+     * @param now The current time in ms.
+     * @return The downloaded bytes per second over the last {@link #THROUGHPUT_SECONDS} seconds.
+     */
+    public double getDownloadThroughput( long now )
+    {
+        long second = now / 1000;
+        long bytes = 0;
+        for ( int index = 0; index < THROUGHPUT_SECONDS; index++ )
+        {
+            if ( second - downloadBucketSeconds.get( index ) < THROUGHPUT_SECONDS )
+            {
+                bytes += downloadBuckets.get( index );
+            }
+        }
+        return (double) bytes / THROUGHPUT_SECONDS;
+    }
+
+    public long getSessionStartTime()
+    {
+        return sessionStartTime;
+    }
+
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    public List<String> getReactorProjects()
+    {
+        return reactorProjects;
+    }
+
+    public Map<String, RunningMojo> getRunningMojos()
+    {
+        return Collections.unmodifiableMap( runningMojos );
+    }
+
+    public Map<String, Long> getRunningProjects()
+    {
+        return Collections.unmodifiableMap( runningProjects );
+    }
+
+    public Map<String, Long> getCompletedProjects()
+    {
+        return Collections.unmodifiableMap( completedProjects );
+    }
+
+    public Map<String, AtomicLong> getPhaseTimes()
+    {
+        return Collections.unmodifiableMap( phaseTimes );
+    }
+
+    /**
+     * Estimates the remaining time based on the durations of the projects in previous builds. Projects which have
+     * never been built before are estimated with the average duration of the projects finished so far. The remaining
+     * work is distributed over the available threads.
+     *
+     * @param history The durations of previous builds.
+     * @param now The current time in ms.
+     * @return The estimated remaining time in ms or {@code -1} if no estimation is possible.
+     */
+    public long getEstimatedRemainingTime( ProjectDurationHistory history, long now )
+    {
+        long fallback = getAverageCompletedDuration();
+        if ( fallback < 0 )
+        {
+            fallback = history.getAverageDuration();
+        }
+
+        long remainingWork = 0;
+        int remainingProjects = 0;
+        for ( String projectId : reactorProjects )
+        {
+            if ( completedProjects.containsKey( projectId ) )
+            {
+                continue;
+            }
+            long expected = history.getDuration( projectId );
+            if ( expected < 0 )
+            {
+                expected = fallback;
+            }
+            if ( expected < 0 )
+            {
+                return -1;
+            }
+            Long started = runningProjects.get( projectId );
+            if ( started != null )
+            {
+                expected = Math.max( 0, expected - ( now - started ) );
+            }
+            remainingWork += expected;
+            remainingProjects++;
+        }
+        if ( remainingProjects == 0 )
+        {
+            return 0;
+        }
+        return remainingWork / Math.min( threadCount, remainingProjects );
+    }
+
+    private long getAverageCompletedDuration()
+    {
+        if ( completedProjects.isEmpty() )
+        {
+            return -1;
+        }
+        long sum = 0;
+        int count = 0;
+        for ( Long duration : completedProjects.values() )
+        {
+            sum += duration;
+            count++;
+        }
+        return sum / count;
+    }
+}
@@ -0,0 +1,304 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The compact summary of a build which is kept in the {@link HistoryStore}: the durations per phase, per plugin goal
+ * and per project. A record is written as lines of tab separated values, the first line describes the build:
+ *
+ * <pre>
+ * B  timestamp  commit  host  result     wall time
+ * P  phase      time
+ * G  plugin     time    version
+ * M  project    start   wall time  version
+ * T  direction  time    bytes
+ * </pre>
+ *
+ * All times are in milliseconds, timestamp and start are milliseconds since the epoch. A plugin is recorded as
+ * {@code groupId:artifactId:goal} and a project as {@code groupId:artifactId}, so the records of different versions
+ * can be compared. An unknown value is written as {@code -}.
+ */
+class BuildRecord
+{
+    private static final String NONE = "-";
+
+    private final long timestamp;
+
+    private final String commit;
+
+    private final String host;
+
+    private final String result;
+
+    private final long wallTime;
+
+    private final Map<String, Long> phases;
+
+    private final Map<String, Long> plugins;
+
+    private final Map<String, String> pluginVersions;
+
+    /**
+     * Key: project id, value: index 0 the start (milliseconds since the epoch), index 1 the wall time.
+     */
+    private final Map<String, long[]> projects;
+
+    private final Map<String, String> projectVersions;
+
+    /**
+     * Key: direction (download, install, deploy), value: index 0 the time, index 1 the bytes.
+     */
+    private final Map<String, long[]> transfers;
+
+    BuildRecord( long timestamp, String commit, String host, String result, long wallTime )
+    {
+        this.timestamp = timestamp;
+        this.commit = commit;
+        this.host = host;
+        this.result = result;
+        this.wallTime = wallTime;
+        this.phases = new LinkedHashMap<>();
+        this.plugins = new LinkedHashMap<>();
+        this.pluginVersions = new LinkedHashMap<>();
+        this.projects = new LinkedHashMap<>();
+        this.projectVersions = new LinkedHashMap<>();
+        this.transfers = new LinkedHashMap<>();
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * @return The git commit of the project root or {@code null} if it is not known.
+     */
+    public String getCommit()
+    {
+        return commit;
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    public String getResult()
+    {
+        return result;
+    }
+
+    public long getWallTime()
+    {
+        return wallTime;
+    }
+
+    public void addPhase( String phase, long time )
+    {
+        phases.put( phase, time );
+    }
+
+    public void addPlugin( String plugin, long time )
+    {
+        addPlugin( plugin, null, time );
+    }
+
+    /**
+     * @param plugin The plugin goal ({@code groupId:artifactId:goal}).
+     * @param version The version of the plugin or {@code null} if it is not known.
+     */
+    public void addPlugin( String plugin, String version, long time )
+    {
+        Long previous = plugins.get( plugin );
+        plugins.put( plugin, previous == null ? time : previous + time );
+        if ( version != null )
+        {
+            pluginVersions.put( plugin, version );
+        }
+    }
+
+    public void addProject( String project, long start, long time )
+    {
+        addProject( project, null, start, time );
+    }
+
+    /**
+     * @param project The project ({@code groupId:artifactId}).
+     * @param version The version of the project or {@code null} if it is not known.
+     */
+    public void addProject( String project, String version, long start, long time )
+    {
+        projects.put( project, new long[] { start, time } );
+        if ( version != null )
+        {
+            projectVersions.put( project, version );
+        }
+    }
+
+    public void addTransfer( String direction, long time, long bytes )
+    {
+        long[] previous = transfers.get( direction );
+        transfers.put( direction, previous == null ? new long[] { time, bytes }
+                        : new long[] { previous[0] + time, previous[1] + bytes } );
+    }
+
+    public Map<String, long[]> getTransfers()
+    {
+        return transfers;
+    }
+
+    public Map<String, Long> getPhases()
+    {
+        return phases;
+    }
+
+    public Map<String, Long> getPlugins()
+    {
+        return plugins;
+    }
+
+    public Map<String, long[]> getProjects()
+    {
+        return projects;
+    }
+
+    /**
+     * @return The version of the plugin or {@code null} if it is not known.
+     */
+    public String getPluginVersion( String plugin )
+    {
+        return pluginVersions.get( plugin );
+    }
+
+    /**
+     * @return The version of the project or {@code null} if it is not known.
+     */
+    public String getProjectVersion( String project )
+    {
+        return projectVersions.get( project );
+    }
+
+    /**
+     * @return The wall time of the project or {@code -1} if it has not been built.
+     */
+    public long getProjectTime( String project )
+    {
+        long[] time = projects.get( project );
+        return time == null ? -1 : time[1];
+    }
+
+    private static String clean( String value )
+    {
+        return value == null || value.isEmpty() ? NONE : value.replace( '\t', ' ' ).replace( '\n', ' ' );
+    }
+
+    public String write()
+    {
+        StringBuilder out = new StringBuilder();
+        out.append( "B\t" ).append( timestamp ).append( '\t' ).append( clean( commit ) ).append( '\t' );
+        out.append( clean( host ) ).append( '\t' ).append( clean( result ) ).append( '\t' ).append( wallTime );
+        out.append( '\n' );
+        for ( Entry<String, Long> phase : phases.entrySet() )
+        {
+            out.append( "P\t" ).append( clean( phase.getKey() ) ).append( '\t' ).append( phase.getValue() );
+            out.append( '\n' );
+        }
+        for ( Entry<String, Long> plugin : plugins.entrySet() )
+        {
+            out.append( "G\t" ).append( clean( plugin.getKey() ) ).append( '\t' ).append( plugin.getValue() );
+            out.append( '\t' ).append( clean( pluginVersions.get( plugin.getKey() ) ) ).append( '\n' );
+        }
+        for ( Entry<String, long[]> project : projects.entrySet() )
+        {
+            out.append( "M\t" ).append( clean( project.getKey() ) ).append( '\t' ).append( project.getValue()[0] );
+            out.append( '\t' ).append( project.getValue()[1] ).append( '\t' );
+            out.append( clean( projectVersions.get( project.getKey() ) ) ).append( '\n' );
+        }
+        for ( Entry<String, long[]> transfer : transfers.entrySet() )
+        {
+            out.append( "T\t" ).append( clean( transfer.getKey() ) ).append( '\t' ).append( transfer.getValue()[0] );
+            out.append( '\t' ).append( transfer.getValue()[1] ).append( '\n' );
+        }
+        return out.toString();
+    }
+
+    private static String value( String value )
+    {
+        return NONE.equals( value ) ? null : value;
+    }
+
+    /**
+     * @return The value or {@code null} if it is unknown or has not been written by an older version.
+     */
+    private static String optional( String[] fields, int index )
+    {
+        return index < fields.length ? value( fields[index] ) : null;
+    }
+
+    /**
+     * @param lines The lines of a record as written by {@link #write()}.
+     */
+    public static BuildRecord parse( List<String> lines )
+    {
+        if ( lines.isEmpty() || !lines.get( 0 ).startsWith( "B\t" ) )
+        {
+            throw new IllegalArgumentException( "Invalid build record (" + lines + ")" );
+        }
+        try
+        {
+            String[] build = lines.get( 0 ).split( "\t" );
+            BuildRecord result = new BuildRecord( Long.parseLong( build[1] ), value( build[2] ), value( build[3] ),
+                                                  value( build[4] ), Long.parseLong( build[5] ) );
+            for ( String line : lines.subList( 1, lines.size() ) )
+            {
+                String[] fields = line.split( "\t" );
+                switch ( fields[0] )
+                {
+                    case "P":
+                        result.addPhase( fields[1], Long.parseLong( fields[2] ) );
+                        break;
+                    case "G":
+                        result.addPlugin( fields[1], optional( fields, 3 ), Long.parseLong( fields[2] ) );
+                        break;
+                    case "M":
+                        result.addProject( fields[1], optional( fields, 4 ), Long.parseLong( fields[2] ),
+                                           Long.parseLong( fields[3] ) );
+                        break;
+                    case "T":
+                        result.addTransfer( fields[1], Long.parseLong( fields[2] ), Long.parseLong( fields[3] ) );
+                        break;
+                    default:
+                        // Written by a newer version.
+                        break;
+                }
+            }
+            return result;
+        }
+        catch ( NumberFormatException | ArrayIndexOutOfBoundsException e )
+        {
+            throw new IllegalArgumentException( "Invalid build record (" + lines.get( 0 ) + ")", e );
+        }
+    }
+}
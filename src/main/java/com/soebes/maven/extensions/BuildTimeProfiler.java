@@ -19,12 +19,18 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -32,6 +38,8 @@ import org.apache.maven.execution.ExecutionEvent;
 import org.apache.maven.execution.ExecutionEvent.Type;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.lifecycle.DefaultLifecycles;
 import org.apache.maven.project.DependencyResolutionRequest;
 import org.apache.maven.project.DependencyResolutionResult;
 import org.apache.maven.project.MavenProject;
@@ -46,6 +54,9 @@ import com.soebes.maven.extensions.artifact.InstallTimer;
 import com.soebes.maven.extensions.metadata.MetadataDeploymentTimer;
 import com.soebes.maven.extensions.metadata.MetadataDownloadTimer;
 import com.soebes.maven.extensions.metadata.MetadataInstallTimer;
+import com.soebes.maven.extensions.span.OffHeapSpanStore;
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
 
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
@@ -57,7 +68,9 @@ public class BuildTimeProfiler
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    final List<String> lifeCyclePhases;
+    final PhaseRegistry lifeCyclePhases;
+
+    private final SpanTree spanTree;
 
     private final DiscoveryTimer discoveryTimer;
 
@@ -75,6 +88,8 @@ public class BuildTimeProfiler
 
     private final DownloadTimer downloadTimer;
 
+    private final DownloadAttribution downloadAttribution;
+
     private final MetadataDownloadTimer metadataDownloadTimer;
 
     private final MetadataDeploymentTimer metadataDeploymentTimer;
@@ -85,24 +100,68 @@ public class BuildTimeProfiler
 
     private final ProjectTimer forkProject;
 
+    private final DefaultLifecycles defaultLifecycles;
+
+    private ProfilerConfiguration configuration;
+
+    private StreamingReporter streamingReporter;
+
+    private BuildProgress buildProgress;
+
+    private ProjectDurationHistory projectDurationHistory;
+
+    private ProgressHttpServer progressHttpServer;
+
+    private BuildTimeProfilerMetrics metrics;
+
+    private PrometheusExporter prometheusExporter;
+
+    private OtlpExporter otlpExporter;
+
+    private ProjectDependencyGraph projectDependencyGraph;
+
+    private NoOpMojoDetector noOpMojoDetector;
+
+    /**
+     * Whether the events of a collector are recorded, see {@link ProfilerConfiguration#COLLECTORS}. They are only
+     * read once, so a disabled collector costs a single check per event.
+     */
+    private boolean repositoryCollector = true;
+
+    private boolean forkCollector = true;
+
+    private boolean goalCollector = true;
+
     public BuildTimeProfiler()
+    {
+        this( null );
+    }
+
+    /**
+     * @param defaultLifecycles The lifecycles known to Maven which define the order of the phases in the report.
+     */
+    @Inject
+    public BuildTimeProfiler( DefaultLifecycles defaultLifecycles )
     {
         LOGGER.debug( "LifeCycleProfiler ctor called." );
-        this.lifeCyclePhases = Collections.<String>synchronizedList( new LinkedList<String>() );
+        this.defaultLifecycles = defaultLifecycles;
+        this.lifeCyclePhases = new PhaseRegistry();
+        this.spanTree = new SpanTree();
         this.discoveryTimer = new DiscoveryTimer();
-        this.goalTimer = new GoalTimer();
-        this.mojoTimer = new MojoTimer();
-        this.projectTimer = new ProjectTimer();
-        this.sessionTimer = new SessionTimer();
-        this.installTimer = new InstallTimer();
-        this.deployTimer = new DeployTimer();
-        this.downloadTimer = new DownloadTimer();
-
-        this.metadataDownloadTimer = new MetadataDownloadTimer();
-        this.metadataDeploymentTimer = new MetadataDeploymentTimer();
-        this.metadataInstallTimer = new MetadataInstallTimer();
-        this.forkTimer = new ForkTimer();
-        this.forkProject = new ProjectTimer();
+        this.goalTimer = new GoalTimer( spanTree );
+        this.mojoTimer = new MojoTimer( spanTree );
+        this.projectTimer = new ProjectTimer( spanTree, SpanKind.PROJECT );
+        this.sessionTimer = new SessionTimer( spanTree );
+        this.installTimer = new InstallTimer( spanTree );
+        this.deployTimer = new DeployTimer( spanTree );
+        this.downloadTimer = new DownloadTimer( spanTree );
+        this.downloadAttribution = new DownloadAttribution( spanTree );
+
+        this.metadataDownloadTimer = new MetadataDownloadTimer( spanTree );
+        this.metadataDeploymentTimer = new MetadataDeploymentTimer( spanTree );
+        this.metadataInstallTimer = new MetadataInstallTimer( spanTree );
+        this.forkTimer = new ForkTimer( spanTree );
+        this.forkProject = new ProjectTimer( spanTree, SpanKind.FORKED_PROJECT );
 
     }
 
@@ -120,6 +179,59 @@ public class BuildTimeProfiler
         String multiModuleProjectDirectory = (String) context.getData().get( "multiModuleProjectDirectory" );
         LOGGER.debug( "MBTP: multiModuleProjectDirectory: " + multiModuleProjectDirectory );
 
+        this.configuration = ProfilerConfiguration.fromContext( context.getData() );
+        this.repositoryCollector = configuration.isCollector( "repository" );
+        this.forkCollector = configuration.isCollector( "fork" );
+        this.goalCollector = configuration.isCollector( "goal" );
+        if ( "direct".equals( configuration.getStore() ) )
+        {
+            spanTree.setStore( OffHeapSpanStore.direct( SpanTree.COLUMNS ) );
+        }
+        else if ( "mapped".equals( configuration.getStore() ) )
+        {
+            spanTree.setStore( OffHeapSpanStore.mapped( SpanTree.COLUMNS, configuration.getStoreFile(),
+                                                        new SpanKeyCodec() ) );
+            LOGGER.info( "MBTP: Recording spans to {}", configuration.getStoreFile() );
+        }
+        if ( configuration.isStreaming() )
+        {
+            this.streamingReporter = new StreamingReporter( configuration.getStreamFile() );
+            LOGGER.info( "MBTP: Streaming project summaries to {}", streamingReporter.getFile() );
+        }
+        if ( configuration.getHttpPort() >= 0 || configuration.isJmx() )
+        {
+            this.buildProgress = new BuildProgress();
+        }
+        if ( configuration.isJmx() )
+        {
+            this.metrics = new BuildTimeProfilerMetrics( buildProgress );
+        }
+        if ( configuration.getHttpPort() >= 0 )
+        {
+            this.projectDurationHistory = new ProjectDurationHistory( createHistoryStore() ).load();
+            this.progressHttpServer =
+                new ProgressHttpServer( buildProgress, projectDurationHistory, configuration.getHttpPort() );
+            progressHttpServer.start();
+        }
+        if ( configuration.isNoOpDetection() )
+        {
+            this.noOpMojoDetector = new NoOpMojoDetector();
+        }
+        if ( configuration.getPrometheusFile() != null )
+        {
+            this.prometheusExporter = new PrometheusExporter( configuration.getPrometheusFile(),
+                                                              configuration.getPrometheusMaxLabelValues() );
+        }
+        if ( configuration.getOtlpFile() != null || configuration.getOtlpEndpoint() != null )
+        {
+            this.otlpExporter = new OtlpExporter( configuration.getOtlpFile(), configuration.getOtlpEndpoint(),
+                                                  configuration.getOtlpBatchSize() );
+            otlpExporter.start();
+            OtlpSpanListener listener = new OtlpSpanListener( otlpExporter );
+            spanTree.addListener( listener );
+            LOGGER.info( "MBTP: Exporting spans of trace {}", listener.getTraceId() );
+        }
+
         // Properties systemProperties = (Properties) context.getData().get( "systemProperties" );
         // for ( String propName : systemProperties.stringPropertyNames() )
         // {
@@ -147,13 +259,20 @@ public class BuildTimeProfiler
     {
         try
         {
+            if ( buildProgress != null )
+            {
+                buildProgress.eventProcessed();
+            }
             if ( event instanceof ExecutionEvent )
             {
                 executionEventHandler( (ExecutionEvent) event );
             }
             else if ( event instanceof org.eclipse.aether.RepositoryEvent )
             {
-                repositoryEventHandler( (RepositoryEvent) event );
+                if ( repositoryCollector )
+                {
+                    repositoryEventHandler( (RepositoryEvent) event );
+                }
             }
             else if ( event instanceof MavenExecutionRequest )
             {
@@ -219,6 +338,22 @@ public class BuildTimeProfiler
     @Override
     public void close()
     {
+        if ( progressHttpServer != null )
+        {
+            progressHttpServer.stop();
+        }
+        if ( otlpExporter != null )
+        {
+            otlpExporter.close();
+        }
+        try
+        {
+            spanTree.close();
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not close the span store", e );
+        }
         LOGGER.debug( "MBTP: done." );
     }
 
@@ -235,15 +370,24 @@ public class BuildTimeProfiler
     private void repositoryEventHandler( org.eclipse.aether.RepositoryEvent repositoryEvent )
     {
         EventType type = repositoryEvent.getType();
+        if ( discoveryTimer.isRunning() )
+        {
+            discoveryTimer.repositoryEvent( repositoryEvent );
+        }
         switch ( type )
         {
             case ARTIFACT_DOWNLOADING:
                 LOGGER.debug( "MBTP: repositoryEventHandler {}", type );
-                downloadTimer.start( repositoryEvent );
+                downloadAttribution.downloadStarted( downloadTimer.start( repositoryEvent ),
+                                                     repositoryEvent.getTrace() );
                 break;
             case ARTIFACT_DOWNLOADED:
                 LOGGER.debug( "MBTP: repositoryEventHandler {}", type );
-                downloadTimer.stop( repositoryEvent );
+                int downloaded = downloadTimer.stop( repositoryEvent );
+                if ( buildProgress != null )
+                {
+                    buildProgress.artifactDownloaded( spanTree.getBytes( downloaded ), System.currentTimeMillis() );
+                }
                 break;
 
             case ARTIFACT_DEPLOYING:
@@ -257,7 +401,11 @@ public class BuildTimeProfiler
                 installTimer.start( repositoryEvent );
                 break;
             case ARTIFACT_INSTALLED:
-                installTimer.stop( repositoryEvent );
+                int installed = installTimer.stop( repositoryEvent );
+                if ( buildProgress != null )
+                {
+                    buildProgress.artifactInstalled( spanTree.getBytes( installed ) );
+                }
                 break;
 
             case METADATA_DEPLOYING:
@@ -301,7 +449,7 @@ public class BuildTimeProfiler
         }
     }
 
-    private void executionEventHandler( ExecutionEvent executionEvent )
+    void executionEventHandler( ExecutionEvent executionEvent )
     {
         LOGGER.debug( "executionEventHandler: {}", executionEvent.getType() );
         Type type = executionEvent.getType();
@@ -315,30 +463,74 @@ public class BuildTimeProfiler
                 // Reading of pom files done and structure now there.
                 discoveryTimer.discoveryStop();
                 sessionTimer.sessionStart();
+                // The custom lifecycles of build extensions are known after reading the poms.
+                addLifecycles( defaultLifecycles );
+                if ( executionEvent.getSession() != null )
+                {
+                    projectDependencyGraph = executionEvent.getSession().getProjectDependencyGraph();
+                }
+                if ( streamingReporter != null )
+                {
+                    streamingReporter.sessionStart();
+                }
+                if ( buildProgress != null )
+                {
+                    buildProgress.sessionStart( executionEvent.getSession() );
+                }
+                if ( metrics != null )
+                {
+                    metrics.register();
+                }
                 break;
             case SessionEnded:
                 // Everything is done.
-                sessionTimer.sessionStop();
+                sessionTimer.sessionStop( executionEvent.getSession() != null
+                    && executionEvent.getSession().getResult().hasExceptions() );
+                if ( metrics != null )
+                {
+                    metrics.unregister();
+                }
                 break;
 
             case ForkStarted:
-                forkTimer.start();
+                if ( forkCollector )
+                {
+                    forkTimer.start( executionEvent );
+                }
                 break;
             case ForkFailed:
             case ForkSucceeded:
-                forkTimer.stop();
+                if ( forkCollector )
+                {
+                    forkTimer.stop( executionEvent );
+                }
                 break;
 
             case ForkedProjectStarted:
-                forkProject.projectStart( executionEvent );
+                if ( forkCollector )
+                {
+                    forkProject.projectStart( executionEvent );
+                }
                 break;
             case ForkedProjectFailed:
             case ForkedProjectSucceeded:
-                forkProject.projectStop( executionEvent );
+                if ( forkCollector )
+                {
+                    forkProject.projectStop( executionEvent );
+                }
                 break;
 
             case MojoStarted:
                 String phaseStart = executionEvent.getMojoExecution().getLifecyclePhase();
+                if ( phaseStart == null && !goalCollector )
+                {
+                    break;
+                }
+                if ( noOpMojoDetector != null )
+                {
+                    // Before the span is started, so the snapshot does not add to the time of the mojo.
+                    noOpMojoDetector.mojoStart( executionEvent );
+                }
                 // Key: phase, project, mojo
                 if ( phaseStart == null )
                 {
@@ -349,30 +541,64 @@ public class BuildTimeProfiler
                     collectAllLifeCylcePhases( phaseStart );
                     mojoTimer.mojoStart( executionEvent );
                 }
+                if ( buildProgress != null )
+                {
+                    buildProgress.mojoStart( executionEvent );
+                }
                 break;
 
             case MojoFailed:
             case MojoSucceeded:
             case MojoSkipped:
                 String phaseStop = executionEvent.getMojoExecution().getLifecyclePhase();
+                if ( phaseStop == null && !goalCollector )
+                {
+                    break;
+                }
+                int mojoSpan;
                 if ( phaseStop == null )
                 {
-                    goalTimer.mojoStop( executionEvent );
+                    mojoSpan = goalTimer.mojoStop( executionEvent );
                 }
                 else
                 {
-                    mojoTimer.mojoStop( executionEvent );
+                    mojoSpan = mojoTimer.mojoStop( executionEvent );
+                }
+                if ( streamingReporter != null )
+                {
+                    streamingReporter.mojoStop( executionEvent, spanTree.getElapsedTime( mojoSpan ) );
+                }
+                if ( buildProgress != null )
+                {
+                    buildProgress.mojoStop( executionEvent, spanTree.getElapsedTime( mojoSpan ) );
+                }
+                // The span has been stopped, so the snapshot after the mojo does not add to its time either.
+                if ( noOpMojoDetector != null && type == Type.MojoSucceeded )
+                {
+                    noOpMojoDetector.mojoSucceeded( executionEvent, spanTree.getElapsedTime( mojoSpan ) );
+                }
+                else if ( noOpMojoDetector != null )
+                {
+                    noOpMojoDetector.mojoStop( executionEvent );
                 }
                 break;
 
             case ProjectStarted:
                 projectTimer.projectStart( executionEvent );
+                if ( buildProgress != null )
+                {
+                    buildProgress.projectStart( executionEvent );
+                }
                 break;
 
             case ProjectFailed:
             case ProjectSucceeded:
+                projectStop( executionEvent, spanTree.getElapsedTime( projectTimer.projectStop( executionEvent ) ) );
+                break;
+
             case ProjectSkipped:
-                projectTimer.projectStop( executionEvent );
+                // A skipped project has never been started, so it has no span.
+                projectStop( executionEvent, 0 );
                 break;
 
             default:
@@ -392,34 +618,311 @@ public class BuildTimeProfiler
 
     private void executionResultEventHandler( MavenExecutionResult event )
     {
+        List<String> lifeCyclePhases = this.lifeCyclePhases.getPhases();
         orderLifeCycleOnPreparedOrder( lifeCyclePhases );
 
         LOGGER.debug( "MBTP: executionResultEventHandler: {}", event.getProject() );
 
+        if ( configuration.isConsoleReport() )
+        {
+            reportToConsole( event, lifeCyclePhases );
+        }
+        if ( streamingReporter != null )
+        {
+            streamingReporter.sessionStop( lifeCyclePhases );
+        }
+        if ( prometheusExporter != null )
+        {
+            exportPrometheusMetrics( event, lifeCyclePhases );
+        }
+        if ( configuration.getJsonFile() != null )
+        {
+            writeJsonSummary( configuration.getJsonFile(), event, lifeCyclePhases );
+        }
+        if ( configuration.getCsvFile() != null || configuration.getColumnarFile() != null )
+        {
+            exportSpans( configuration.getCsvFile(), configuration.getColumnarFile() );
+        }
+        if ( configuration.getHtmlFile() != null )
+        {
+            writeHtmlReport( configuration.getHtmlFile() );
+        }
+        if ( configuration.isHistory() || configuration.getHistoryTrend() > 0 || projectDurationHistory != null )
+        {
+            recordHistory( event, lifeCyclePhases );
+        }
+        if ( configuration.getProfileFile() != null || !configuration.getMergeFiles().isEmpty() )
+        {
+            writeAndMergeProfiles( createBuildRecord( event, lifeCyclePhases ) );
+        }
+    }
+
+    private void projectStop( ExecutionEvent executionEvent, long projectTime )
+    {
+        if ( streamingReporter != null )
+        {
+            streamingReporter.projectStop( executionEvent, projectTime );
+        }
+        if ( buildProgress != null )
+        {
+            buildProgress.projectStop( executionEvent, projectTime );
+        }
+    }
+
+    private void reportToConsole( MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
         LOGGER.info( "--             Maven Build Time Profiler Summary                      --" );
         LOGGER.info( "------------------------------------------------------------------------" );
 
-        discoveryTimer.report();
+        discoveryTimer.report( event.getTopologicallySortedProjects() );
+
+        if ( configuration.isCompactReport() )
+        {
+            new HotSpotReport( spanTree, configuration.getReportTop() ).report();
+        }
+        else
+        {
+            reportDetails( event, lifeCyclePhases );
+        }
+        if ( noOpMojoDetector != null )
+        {
+            noOpMojoDetector.report();
+        }
+        if ( ( configuration.isSimulation() || configuration.isRecommendations() ) && projectDependencyGraph != null )
+        {
+            List<MavenProject> projects = event.getTopologicallySortedProjects();
+            List<ModuleTime> moduleTimes = projectTimer.getModuleTimes( projects, projectDependencyGraph );
+            SchedulerSimulation simulation = SchedulerSimulation.of( projects, moduleTimes, projectDependencyGraph );
+            if ( configuration.isSimulation() )
+            {
+                simulation.report();
+            }
+            if ( configuration.isRecommendations() )
+            {
+                new ModuleRecommendations( simulation, moduleTimes ).report();
+            }
+        }
+    }
+
+    private void writeJsonSummary( File file, MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
+        try
+        {
+            new JsonSummary( spanTree, discoveryTimer.getElapsedTime() ).write( file,
+                                                                                event.getTopologicallySortedProjects(),
+                                                                                lifeCyclePhases );
+            LOGGER.info( "MBTP: JSON summary written to {}", file );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not write the JSON summary to {}: {}", file, e.getMessage() );
+        }
+    }
+
+    private void exportSpans( File csvFile, File columnarFile )
+    {
+        SpanExport export = new SpanExport( spanTree );
+        try
+        {
+            if ( csvFile != null )
+            {
+                export.writeCsv( csvFile );
+                LOGGER.info( "MBTP: Spans written to {}", csvFile );
+            }
+            if ( columnarFile != null )
+            {
+                export.writeColumnar( columnarFile );
+                LOGGER.info( "MBTP: Spans written to {}", columnarFile );
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not export the spans: {}", e.getMessage() );
+        }
+    }
+
+    private void writeHtmlReport( File file )
+    {
+        try
+        {
+            new HtmlReport( spanTree ).write( file );
+            LOGGER.info( "MBTP: HTML report written to {}", file );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not write the HTML report to {}: {}", file, e.getMessage() );
+        }
+    }
+
+    private void writeAndMergeProfiles( BuildRecord record )
+    {
+        File profileFile = configuration.getProfileFile();
+        try
+        {
+            if ( profileFile != null )
+            {
+                profileFile.getAbsoluteFile().getParentFile().mkdirs();
+                Files.write( profileFile.toPath(), record.write().getBytes( StandardCharsets.UTF_8 ) );
+                LOGGER.info( "MBTP: Profile written to {}", profileFile );
+            }
+            if ( configuration.getMergeFiles().isEmpty() )
+            {
+                return;
+            }
+            ProfileMerger merger = new ProfileMerger();
+            for ( File file : configuration.getMergeFiles() )
+            {
+                if ( !file.equals( profileFile ) )
+                {
+                    merger.add( file );
+                }
+            }
+            merger.add( record.getHost() == null ? "this build" : record.getHost(), record );
+            for ( String line : merger.report() )
+            {
+                LOGGER.info( "{}", line );
+            }
+            if ( configuration.getMergeTraceFile() != null )
+            {
+                merger.writeTrace( configuration.getMergeTraceFile() );
+                LOGGER.info( "MBTP: Merged trace written to {}", configuration.getMergeTraceFile() );
+            }
+        }
+        catch ( IOException | IllegalArgumentException e )
+        {
+            LOGGER.warn( "MBTP: Could not merge the profiles", e );
+        }
+    }
+
+    private HistoryStore createHistoryStore()
+    {
+        return new HistoryStore( configuration.getHistoryDirectory(), configuration.getBaseDirectory() );
+    }
+
+    private void recordHistory( MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
+        HistoryStore store = createHistoryStore();
+        try
+        {
+            // The durations of the projects for the estimation of the next build are read from the history.
+            if ( configuration.isHistory() || projectDurationHistory != null )
+            {
+                store.append( createBuildRecord( event, lifeCyclePhases ) );
+                LOGGER.info( "MBTP: Build recorded in {}", store.getDirectory() );
+            }
+            if ( configuration.getHistoryTrend() > 0 )
+            {
+                new HistoryTrend( store.readLast( configuration.getHistoryTrend() ) ).report();
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not access the history in {}", store.getDirectory(), e );
+        }
+    }
+
+    private BuildRecord createBuildRecord( MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
+        BuildRecord record =
+            new BuildRecord( System.currentTimeMillis(), GitCommit.read( configuration.getBaseDirectory() ),
+                             getHostName(), event.hasExceptions() ? "failure" : "success",
+                             sessionTimer.getElapsedTime() );
+        Map<String, Long> timePerPhase = mojoTimer.getTimePerPhase();
+        for ( String phase : lifeCyclePhases )
+        {
+            record.addPhase( phase, getTime( timePerPhase, phase ) );
+        }
+        // The plugins and projects are recorded without their version, so an upgrade keeps its history.
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            MojoKey mojo = ( (ProjectMojo) spanTree.getKey( span ) ).getMojo();
+            record.addPlugin( mojo.getGroupId() + ":" + mojo.getArtifactId() + ":" + mojo.getGoal(),
+                              mojo.getVersion(), spanTree.getElapsedTime( span ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
+        {
+            GoalKey goal = ( (ProjectGoal) spanTree.getKey( span ) ).getMojo();
+            record.addPlugin( goal.getGroupId() + ":" + goal.getArtifactId() + ":" + goal.getGoal(),
+                              goal.getVersion(), spanTree.getElapsedTime( span ) );
+        }
+        Map<String, MavenProject> projects = new HashMap<>();
+        for ( MavenProject project : event.getTopologicallySortedProjects() )
+        {
+            projects.put( project.getId(), project );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.PROJECT ) )
+        {
+            MavenProject project = projects.get( spanTree.getKey( span ) );
+            if ( project != null )
+            {
+                record.addProject( BuildProgress.getProjectId( project ), project.getVersion(),
+                                   spanTree.getStartTime( span ) / 1000000L, spanTree.getElapsedTime( span ) );
+            }
+        }
+        addTransfers( record, "download", SpanKind.DOWNLOAD );
+        addTransfers( record, "install", SpanKind.INSTALL );
+        addTransfers( record, "deploy", SpanKind.DEPLOY );
+        return record;
+    }
 
+    private void addTransfers( BuildRecord record, String direction, SpanKind kind )
+    {
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            record.addTransfer( direction, spanTree.getElapsedTime( span ), spanTree.getBytes( span ) );
+        }
+    }
+
+    private static String getHostName()
+    {
+        try
+        {
+            return InetAddress.getLocalHost().getHostName();
+        }
+        catch ( UnknownHostException e )
+        {
+            return System.getenv( "HOSTNAME" );
+        }
+    }
+
+    private void reportDetails( MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
         if ( mojoTimer.hasEvents() )
         {
+            // Calculated once instead of once per project and phase, not at all if already aggregated while streaming.
+            Map<ProjectKey, Map<String, Long>> timePerProjectAndPhase =
+                streamingReporter != null ? null : mojoTimer.getTimePerProjectAndPhase();
+            Map<String, Long> timePerPhase = streamingReporter != null ? null : mojoTimer.getTimePerPhase();
             LOGGER.info( "Project Build Time (reactor order):" );
             LOGGER.info( "" );
             for ( MavenProject mavenProject : event.getTopologicallySortedProjects() )
             {
                 LOGGER.info( "{}:", mavenProject.getName() );
+                ProjectKey projectKey = mavenProjectToProjectKey( mavenProject );
 
                 for ( String phase : lifeCyclePhases )
                 {
-                    ProjectKey projectKey = mavenProjectToProjectKey( mavenProject );
 
-                    if ( !mojoTimer.hasTimeForProjectAndPhase( projectKey, phase ) )
+                    long timeForPhaseAndProjectInMillis;
+                    if ( streamingReporter != null )
                     {
-                        continue;
+                        // Already aggregated while the project has been built.
+                        ProjectSummary summary = streamingReporter.getSummary( projectKey );
+                        if ( summary == null || !summary.hasPhase( phase ) )
+                        {
+                            continue;
+                        }
+                        timeForPhaseAndProjectInMillis = summary.getTimeForPhase( phase );
+                    }
+                    else
+                    {
+                        Map<String, Long> timeForProject = timePerProjectAndPhase.get( projectKey );
+                        if ( timeForProject == null || !timeForProject.containsKey( phase ) )
+                        {
+                            continue;
+                        }
+                        timeForPhaseAndProjectInMillis = timeForProject.get( phase );
                     }
-
-                    long timeForPhaseAndProjectInMillis =
-                        mojoTimer.getTimeForProjectAndPhaseInMillis( projectKey, phase );
                     LOGGER.info( "    {} ms : {}", String.format( "%8d", timeForPhaseAndProjectInMillis ), phase );
 
                 }
@@ -430,7 +933,9 @@ public class BuildTimeProfiler
             LOGGER.info( "" );
             for ( String phase : lifeCyclePhases )
             {
-                long timeForPhaseInMillis = mojoTimer.getTimeForPhaseInMillis( phase );
+                long timeForPhaseInMillis = streamingReporter != null
+                                ? streamingReporter.getTimeForPhaseInMillis( phase )
+                                : getTime( timePerPhase, phase );
                 LOGGER.info( "{} ms : {}", String.format( "%8d", timeForPhaseInMillis ), phase );
             }
 
@@ -438,13 +943,24 @@ public class BuildTimeProfiler
             LOGGER.info( "------------------------------------------------------------------------" );
             LOGGER.info( "Plugins in lifecycle Phases:" );
             LOGGER.info( "" );
+            Map<String, Map<ProjectMojo, Long>> pluginsPerPhase =
+                streamingReporter != null ? null : mojoTimer.getPluginsPerPhase();
             for ( String phase : lifeCyclePhases )
             {
                 LOGGER.info( "{}:", phase );
-                Map<ProjectMojo, SystemTime> plugisInPhase = mojoTimer.getPluginsInPhase( phase );
-                for ( Entry<ProjectMojo, SystemTime> pluginInPhase : plugisInPhase.entrySet() )
+                if ( streamingReporter != null )
+                {
+                    reportStreamedPluginsInPhase( event.getTopologicallySortedProjects(), phase );
+                    continue;
+                }
+                Map<ProjectMojo, Long> plugisInPhase = pluginsPerPhase.get( phase );
+                if ( plugisInPhase == null )
+                {
+                    continue;
+                }
+                for ( Entry<ProjectMojo, Long> pluginInPhase : plugisInPhase.entrySet() )
                 {
-                    LOGGER.info( "{} ms: {}", String.format( "%8d", pluginInPhase.getValue().getElapsedTime() ),
+                    LOGGER.info( "{} ms: {}", String.format( "%8d", pluginInPhase.getValue() ),
                                  pluginInPhase.getKey().getMojo().getFullId() );
                 }
 
@@ -452,6 +968,10 @@ public class BuildTimeProfiler
             LOGGER.info( "------------------------------------------------------------------------" );
         }
 
+        new PluginAggregation( spanTree ).report();
+
+        projectTimer.reportModules( event.getTopologicallySortedProjects(), projectDependencyGraph );
+
         if ( goalTimer.hasEvents() )
         {
             LOGGER.info( "Plugins directly called via goals:" );
@@ -462,6 +982,7 @@ public class BuildTimeProfiler
 
         installTimer.report();
         downloadTimer.report();
+        downloadAttribution.report();
         deployTimer.report();
         metadataInstallTimer.report();
         metadataDownloadTimer.report();
@@ -471,6 +992,68 @@ public class BuildTimeProfiler
         forkProject.report();
     }
 
+    private void reportStreamedPluginsInPhase( List<MavenProject> projects, String phase )
+    {
+        for ( MavenProject mavenProject : projects )
+        {
+            ProjectSummary summary = streamingReporter.getSummary( mavenProjectToProjectKey( mavenProject ) );
+            Map<String, Long> mojosInPhase = summary == null ? null : summary.getMojosInPhase( phase );
+            if ( mojosInPhase == null )
+            {
+                continue;
+            }
+            for ( Entry<String, Long> mojoInPhase : mojosInPhase.entrySet() )
+            {
+                LOGGER.info( "{} ms: {}", String.format( "%8d", mojoInPhase.getValue() ), mojoInPhase.getKey() );
+            }
+        }
+    }
+
+    private void exportPrometheusMetrics( MavenExecutionResult event, List<String> lifeCyclePhases )
+    {
+        Map<String, Long> timePerPhase = mojoTimer.getTimePerPhase();
+        for ( String phase : lifeCyclePhases )
+        {
+            prometheusExporter.phase( phase, getTime( timePerPhase, phase ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            MojoKey mojo = ( (ProjectMojo) spanTree.getKey( span ) ).getMojo();
+            prometheusExporter.mojo( mojo.getArtifactId(), mojo.getGoal(), spanTree.getElapsedTime( span ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
+        {
+            GoalKey goal = ( (ProjectGoal) spanTree.getKey( span ) ).getMojo();
+            prometheusExporter.mojo( goal.getArtifactId(), goal.getGoal(), spanTree.getElapsedTime( span ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.PROJECT ) )
+        {
+            prometheusExporter.module( (String) spanTree.getKey( span ), spanTree.getElapsedTime( span ) );
+        }
+        exportTransfers( "download", SpanKind.DOWNLOAD );
+        exportTransfers( "install", SpanKind.INSTALL );
+        exportTransfers( "deploy", SpanKind.DEPLOY );
+
+        String project = event.getProject() == null ? "unknown" : BuildProgress.getProjectId( event.getProject() );
+        prometheusExporter.export( project, event.hasExceptions() ? "failure" : "success",
+                                   sessionTimer.getElapsedTime() );
+        LOGGER.info( "MBTP: Prometheus metrics written to {}", prometheusExporter.getFile() );
+    }
+
+    private void exportTransfers( String direction, SpanKind kind )
+    {
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            prometheusExporter.transfer( direction, spanTree.getRepository( span ), spanTree.getBytes( span ) );
+        }
+    }
+
+    private static long getTime( Map<String, Long> timePerPhase, String phase )
+    {
+        Long result = timePerPhase.get( phase );
+        return result == null ? 0 : result;
+    }
+
     private ProjectKey mavenProjectToProjectKey( MavenProject project )
     {
         return new ProjectKey( project.getGroupId(), project.getArtifactId(), project.getVersion() );
@@ -485,9 +1068,10 @@ public class BuildTimeProfiler
             return;
         }
         LOGGER.debug( "collectAllLifeCyclePhases({})", phase );
-        if ( !lifeCyclePhases.contains( phase ) )
+        if ( lifeCyclePhases.add( phase ) )
         {
-            lifeCyclePhases.add( phase );
+            // Phases without a lifecycle are ordered by their first occurrence.
+            rank( phase );
         }
     }
 
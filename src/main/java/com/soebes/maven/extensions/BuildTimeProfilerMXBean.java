@@ -0,0 +1,62 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Map;
+
+/**
+ * The live metrics of the profiler which are available via JMX while the session is running (activated by
+ * {@code -Dmbtp.jmx=true}).
+ */
+public interface BuildTimeProfilerMXBean
+{
+    /**
+     * @return The number of events which have been received by the profiler.
+     */
+    long getEventsProcessed();
+
+    /**
+     * @return The number of mojos which are currently executed.
+     */
+    int getActiveMojos();
+
+    int getTotalProjects();
+
+    int getCompletedProjects();
+
+    long getBytesDownloaded();
+
+    long getBytesInstalled();
+
+    /**
+     * @return The downloaded bytes per second over the last ten seconds.
+     */
+    double getDownloadThroughput();
+
+    /**
+     * @return The cumulative time in ms per lifecycle phase.
+     */
+    Map<String, Long> getPhaseTimes();
+
+    /**
+     * @return The time in ms since the session has been started.
+     */
+    long getElapsedTime();
+}
@@ -0,0 +1,165 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exposes the {@link BuildProgress} as {@link BuildTimeProfilerMXBean}. Everything is read from atomic counters and
+ * concurrent maps, so polling via JMX never contends with the event handling.
+ */
+class BuildTimeProfilerMetrics
+    implements BuildTimeProfilerMXBean
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final String OBJECT_NAME = "com.soebes.maven.extensions:type=BuildTimeProfiler";
+
+    private final BuildProgress progress;
+
+    private final MBeanServer server;
+
+    private ObjectName objectName;
+
+    public BuildTimeProfilerMetrics( BuildProgress progress )
+    {
+        this( progress, ManagementFactory.getPlatformMBeanServer() );
+    }
+
+    BuildTimeProfilerMetrics( BuildProgress progress, MBeanServer server )
+    {
+        this.progress = progress;
+        this.server = server;
+    }
+
+    public void register()
+    {
+        try
+        {
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            StandardMBean mbean = new StandardMBean( this, BuildTimeProfilerMXBean.class, true );
+            try
+            {
+                server.registerMBean( mbean, name );
+            }
+            catch ( InstanceAlreadyExistsException e )
+            {
+                // Left over from a previous session in the same JVM.
+                server.unregisterMBean( name );
+                server.registerMBean( mbean, name );
+            }
+            this.objectName = name;
+        }
+        catch ( JMException e )
+        {
+            LOGGER.warn( "MBTP: Could not register MBean {}", OBJECT_NAME, e );
+        }
+    }
+
+    public void unregister()
+    {
+        if ( objectName == null )
+        {
+            return;
+        }
+        try
+        {
+            server.unregisterMBean( objectName );
+        }
+        catch ( JMException e )
+        {
+            LOGGER.warn( "MBTP: Could not unregister MBean {}", OBJECT_NAME, e );
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getEventsProcessed()
+    {
+        return progress.getEventsProcessed();
+    }
+
+    @Override
+    public int getActiveMojos()
+    {
+        return progress.getRunningMojos().size();
+    }
+
+    @Override
+    public int getTotalProjects()
+    {
+        return progress.getReactorProjects().size();
+    }
+
+    @Override
+    public int getCompletedProjects()
+    {
+        return progress.getCompletedProjects().size();
+    }
+
+    @Override
+    public long getBytesDownloaded()
+    {
+        return progress.getBytesDownloaded();
+    }
+
+    @Override
+    public long getBytesInstalled()
+    {
+        return progress.getBytesInstalled();
+    }
+
+    @Override
+    public double getDownloadThroughput()
+    {
+        return progress.getDownloadThroughput( System.currentTimeMillis() );
+    }
+
+    @Override
+    public Map<String, Long> getPhaseTimes()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        for ( Entry<String, AtomicLong> phase : progress.getPhaseTimes().entrySet() )
+        {
+            result.put( phase.getKey(), phase.getValue().get() );
+        }
+        return result;
+    }
+
+    @Override
+    public long getElapsedTime()
+    {
+        long sessionStartTime = progress.getSessionStartTime();
+        return sessionStartTime == 0 ? 0 : System.currentTimeMillis() - sessionStartTime;
+    }
+}
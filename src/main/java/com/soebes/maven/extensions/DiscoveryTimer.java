@@ -19,37 +19,342 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Measures the project discovery (reading of the pom files) and breaks it down per pom file. Maven does not emit
+ * events for profile activation or interpolation, so the breakdown is limited to the resolution and download of
+ * parent and import scoped (BOM) poms which are visible as repository events during discovery.
+ *
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
 class DiscoveryTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
+    private static final int SLOWEST_POMS = 10;
+
     private SystemTime time;
 
+    private volatile boolean running;
+
+    /**
+     * Key: the pom file which has been read, value: the poms resolved for it (GAV) with their resolution time.
+     */
+    private final ConcurrentMap<String, Map<String, Long>> resolutionsPerPom;
+
+    private final Map<String, SystemTime> pendingResolutions;
+
+    private final Map<String, TimePlusSize> downloads;
+
+    /**
+     * Key: the pom which has been resolved (GAV), value: its file.
+     */
+    private final Map<String, File> resolvedPoms;
+
     public DiscoveryTimer()
     {
         this.time = new SystemTime();
+        this.resolutionsPerPom = new ConcurrentHashMap<>();
+        this.pendingResolutions = new ConcurrentHashMap<>();
+        this.downloads = new ConcurrentHashMap<>();
+        this.resolvedPoms = new ConcurrentHashMap<>();
     }
 
     public void discoveryStart()
     {
         time.start();
+        running = true;
     }
 
     public void discoveryStop()
     {
+        running = false;
         time.stop();
     }
 
-    public void report()
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    public long getElapsedTime()
+    {
+        return time.getElapsedTime();
+    }
+
+    /**
+     * Records the repository events which belong to reading the pom files. Those are the resolution of parents and
+     * imported poms issued by the model builder. Everything else (build extensions etc.) is ignored.
+     *
+     * @param event The repository event which occurred during discovery.
+     */
+    public void repositoryEvent( RepositoryEvent event )
+    {
+        Artifact artifact = event.getArtifact();
+        if ( artifact == null || !"pom".equals( artifact.getExtension() ) )
+        {
+            return;
+        }
+        String requestingPom = getRequestingPom( event.getTrace() );
+        if ( requestingPom == null )
+        {
+            return;
+        }
+
+        String pomId = getPomId( artifact );
+        switch ( event.getType() )
+        {
+            case ARTIFACT_RESOLVING:
+                pendingResolutions.put( pomId, new SystemTime().start() );
+                break;
+            case ARTIFACT_RESOLVED:
+                SystemTime resolution = pendingResolutions.remove( pomId );
+                if ( resolution == null )
+                {
+                    LOGGER.debug( "MBTP: Ignoring the resolution of {} which has not been started", pomId );
+                    break;
+                }
+                resolution.stop();
+                getResolutions( requestingPom ).put( pomId, resolution.getElapsedTime() );
+                if ( artifact.getFile() != null )
+                {
+                    resolvedPoms.put( pomId, artifact.getFile() );
+                }
+                break;
+            case ARTIFACT_DOWNLOADING:
+                TimePlusSize download = new TimePlusSize();
+                download.start();
+                downloads.put( pomId, download );
+                break;
+            case ARTIFACT_DOWNLOADED:
+                TimePlusSize downloaded = downloads.get( pomId );
+                if ( downloaded == null )
+                {
+                    LOGGER.debug( "MBTP: Ignoring the download of {} which has not been started", pomId );
+                    break;
+                }
+                downloaded.stop();
+                // This could happen if a pom could not be downloaded.
+                if ( artifact.getFile() != null )
+                {
+                    downloaded.setSize( artifact.getFile().length() );
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Map<String, Long> getResolutions( String requestingPom )
+    {
+        Map<String, Long> result = resolutionsPerPom.get( requestingPom );
+        if ( result == null )
+        {
+            resolutionsPerPom.putIfAbsent( requestingPom, new ConcurrentHashMap<String, Long>() );
+            result = resolutionsPerPom.get( requestingPom );
+        }
+        return result;
+    }
+
+    Map<String, Long> getResolutionsForPom( String pom )
+    {
+        return resolutionsPerPom.get( pom );
+    }
+
+    /**
+     * The model builder of Maven core puts its {@link ModelBuildingRequest} into the request trace which makes it
+     * possible to identify the pom file which caused the resolution.
+     *
+     * @return The path of the pom file being read or {@code null} if the event has not been caused by reading a pom.
+     */
+    String getRequestingPom( RequestTrace trace )
+    {
+        String result = null;
+        for ( RequestTrace item = trace; item != null; item = item.getParent() )
+        {
+            if ( item.getData() instanceof ArtifactDescriptorRequest )
+            {
+                // Dependency resolution (for example of build extensions) which reads poms as well.
+                return null;
+            }
+            if ( result == null && item.getData() instanceof ModelBuildingRequest )
+            {
+                File pomFile = ( (ModelBuildingRequest) item.getData() ).getPomFile();
+                result = pomFile == null ? "(unknown)" : pomFile.getPath();
+            }
+        }
+        return result;
+    }
+
+    String getPomId( Artifact artifact )
+    {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion();
+    }
+
+    /**
+     * The imported poms are taken from all models which have been read during the discovery: the original models of
+     * the reactor projects and the poms resolved by the model builder (parents from a repository and imported poms,
+     * which may import further poms). Each other pom which has been resolved is a parent. The resolved poms are only
+     * read for the report, so the discovery is not slowed down. The versions of the imports are not interpolated in
+     * the original model so only groupId and artifactId are compared.
+     */
+    Set<String> getImportedPoms( List<MavenProject> projects )
+    {
+        Set<String> result = new HashSet<>();
+        for ( MavenProject project : projects )
+        {
+            addImports( project.getOriginalModel(), result );
+        }
+        MavenXpp3Reader reader = new MavenXpp3Reader();
+        for ( Entry<String, File> pom : resolvedPoms.entrySet() )
+        {
+            try ( InputStream in = new FileInputStream( pom.getValue() ) )
+            {
+                addImports( reader.read( in, false ), result );
+            }
+            catch ( IOException | XmlPullParserException e )
+            {
+                LOGGER.debug( "MBTP: Could not read the imports of {}", pom.getKey(), e );
+            }
+        }
+        return result;
+    }
+
+    private void addImports( Model model, Set<String> importedPoms )
+    {
+        if ( model == null || model.getDependencyManagement() == null )
+        {
+            return;
+        }
+        for ( Dependency dependency : model.getDependencyManagement().getDependencies() )
+        {
+            if ( "import".equals( dependency.getScope() ) )
+            {
+                importedPoms.add( dependency.getGroupId() + ":" + dependency.getArtifactId() );
+            }
+        }
+    }
+
+    private boolean isImport( Set<String> importedPoms, String pomId )
+    {
+        return importedPoms.contains( pomId.substring( 0, pomId.lastIndexOf( ':' ) ) );
+    }
+
+    public void report( List<MavenProject> projects )
     {
         LOGGER.info( "Project discovery time: {} ms", String.format( "%8d", time.getElapsedTime() ) );
+
+        if ( !resolutionsPerPom.isEmpty() || !downloads.isEmpty() )
+        {
+            reportBreakdown( getImportedPoms( projects ) );
+        }
         LOGGER.info( "------------------------------------------------------------------------" );
     }
 
+    private void reportBreakdown( Set<String> importedPoms )
+    {
+        Set<String> parents = new HashSet<>();
+        Set<String> imports = new HashSet<>();
+        long parentTime = 0;
+        long importTime = 0;
+
+        final Map<String, long[]> timePerPom = new HashMap<>();
+        for ( Entry<String, Map<String, Long>> pom : resolutionsPerPom.entrySet() )
+        {
+            // index 0: parents, index 1: imports
+            long[] pomTime = new long[2];
+            for ( Entry<String, Long> resolution : pom.getValue().entrySet() )
+            {
+                if ( isImport( importedPoms, resolution.getKey() ) )
+                {
+                    imports.add( resolution.getKey() );
+                    importTime += resolution.getValue();
+                    pomTime[1] += resolution.getValue();
+                }
+                else
+                {
+                    parents.add( resolution.getKey() );
+                    parentTime += resolution.getValue();
+                    pomTime[0] += resolution.getValue();
+                }
+            }
+            timePerPom.put( pom.getKey(), pomTime );
+        }
+
+        long parentDownloadTime = 0;
+        long parentDownloadSize = 0;
+        long importDownloadTime = 0;
+        long importDownloadSize = 0;
+        for ( Entry<String, TimePlusSize> download : downloads.entrySet() )
+        {
+            if ( isImport( importedPoms, download.getKey() ) )
+            {
+                importDownloadTime += download.getValue().getElapsedTime();
+                importDownloadSize += download.getValue().getSize();
+            }
+            else
+            {
+                parentDownloadTime += download.getValue().getElapsedTime();
+                parentDownloadSize += download.getValue().getSize();
+            }
+        }
+
+        LOGGER.info( "  Parent pom resolution: {} ms ({} poms, downloaded {} bytes in {} ms)",
+                     String.format( "%8d", parentTime ), parents.size(),
+                     NumberFormat.getIntegerInstance().format( parentDownloadSize ),
+                     NumberFormat.getIntegerInstance().format( parentDownloadTime ) );
+        LOGGER.info( "  Import pom resolution: {} ms ({} poms, downloaded {} bytes in {} ms)",
+                     String.format( "%8d", importTime ), imports.size(),
+                     NumberFormat.getIntegerInstance().format( importDownloadSize ),
+                     NumberFormat.getIntegerInstance().format( importDownloadTime ) );
+
+        List<String> slowest = new ArrayList<>( timePerPom.keySet() );
+        Collections.sort( slowest, new Comparator<String>()
+        {
+            public int compare( String left, String right )
+            {
+                long[] l = timePerPom.get( left );
+                long[] r = timePerPom.get( right );
+                return Long.compare( r[0] + r[1], l[0] + l[1] );
+            }
+        } );
+
+        LOGGER.info( "Slowest poms during discovery:" );
+        for ( String pom : slowest.subList( 0, Math.min( SLOWEST_POMS, slowest.size() ) ) )
+        {
+            long[] pomTime = timePerPom.get( pom );
+            LOGGER.info( "{} ms : {} (parents: {} ms, imports: {} ms)", String.format( "%8d", pomTime[0] + pomTime[1] ),
+                         pom, pomTime[0], pomTime[1] );
+        }
+    }
+
 }
@@ -0,0 +1,216 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.eclipse.aether.RequestTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Attributes the artifact downloads to the project and the mojo which caused them. A download which happens while a
+ * mojo is running is a child of that mojo in the {@link SpanTree}. Maven resolves the dependencies of a project (and
+ * the plugins) before the mojo which needs them is started, so for those downloads the request trace tells why they
+ * have been made.
+ */
+class DownloadAttribution
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final String DEPENDENCY_RESOLUTION = "(dependency resolution)";
+
+    static final String PLUGIN_RESOLUTION = "(plugin resolution)";
+
+    static final String OTHER = "(other)";
+
+    static final String NO_PROJECT = "(no project)";
+
+    private final SpanTree spanTree;
+
+    DownloadAttribution( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
+    }
+
+    /**
+     * Records the reason of a download which has not been made by a running mojo.
+     *
+     * @param span The span of the download.
+     * @param trace The trace of the repository event.
+     */
+    public void downloadStarted( int span, RequestTrace trace )
+    {
+        if ( getMojoSpan( span ) == SpanTree.NO_SPAN )
+        {
+            spanTree.setDetail( span, getResolutionContext( trace ) );
+        }
+    }
+
+    static String getResolutionContext( RequestTrace trace )
+    {
+        for ( RequestTrace item = trace; item != null; item = item.getParent() )
+        {
+            if ( item.getData() instanceof DependencyResolutionRequest )
+            {
+                return DEPENDENCY_RESOLUTION;
+            }
+            if ( item.getData() instanceof Plugin )
+            {
+                return PLUGIN_RESOLUTION;
+            }
+        }
+        return OTHER;
+    }
+
+    private int getMojoSpan( int span )
+    {
+        int mojo = spanTree.getAncestor( span, SpanKind.MOJO );
+        int goal = spanTree.getAncestor( span, SpanKind.GOAL );
+        // The innermost one if a goal has been called within a forked lifecycle or vice versa.
+        return Math.max( mojo, goal );
+    }
+
+    String getProject( int span )
+    {
+        int project = spanTree.getAncestor( span, SpanKind.PROJECT );
+        return project == SpanTree.NO_SPAN ? NO_PROJECT : (String) spanTree.getKey( project );
+    }
+
+    String getMojo( int span )
+    {
+        int mojo = getMojoSpan( span );
+        if ( mojo == SpanTree.NO_SPAN )
+        {
+            String detail = spanTree.getDetail( span );
+            return detail == null ? OTHER : detail;
+        }
+        Object key = spanTree.getKey( mojo );
+        if ( key instanceof ProjectMojo )
+        {
+            MojoKey mojoKey = ( (ProjectMojo) key ).getMojo();
+            return mojoKey.getArtifactId() + ":" + mojoKey.getGoal() + " (" + mojoKey.getExecutionId() + ")";
+        }
+        GoalKey goalKey = ( (ProjectGoal) key ).getMojo();
+        return goalKey.getArtifactId() + ":" + goalKey.getGoal() + " (" + goalKey.getExecutionId() + ")";
+    }
+
+    /**
+     * @return Key: project, value: key mojo, value: index 0 bytes, index 1 time in milliseconds, index 2 number of
+     *         artifacts.
+     */
+    Map<String, Map<String, long[]>> getDownloadsPerProjectAndMojo()
+    {
+        Map<String, Map<String, long[]>> result = new LinkedHashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.DOWNLOAD ) )
+        {
+            if ( spanTree.isOpen( span ) )
+            {
+                continue;
+            }
+            String project = getProject( span );
+            Map<String, long[]> mojos = result.get( project );
+            if ( mojos == null )
+            {
+                mojos = new LinkedHashMap<>();
+                result.put( project, mojos );
+            }
+            String mojo = getMojo( span );
+            long[] download = mojos.get( mojo );
+            if ( download == null )
+            {
+                download = new long[3];
+                mojos.put( mojo, download );
+            }
+            download[0] += spanTree.getBytes( span );
+            download[1] += spanTree.getElapsedTime( span );
+            download[2]++;
+        }
+        return result;
+    }
+
+    public void report()
+    {
+        Map<String, Map<String, long[]>> downloads = getDownloadsPerProjectAndMojo();
+        if ( downloads.isEmpty() )
+        {
+            return;
+        }
+        final Map<String, long[]> perProject = new LinkedHashMap<>();
+        for ( Entry<String, Map<String, long[]>> project : downloads.entrySet() )
+        {
+            perProject.put( project.getKey(), sum( project.getValue().values() ) );
+        }
+
+        LOGGER.info( "Artifact downloads per project and mojo:" );
+        for ( String project : sortByBytes( perProject ) )
+        {
+            long[] total = perProject.get( project );
+            LOGGER.info( "{} ms : {} ({} bytes, {} artifacts)", String.format( "%8d", total[1] ), project,
+                         NumberFormat.getIntegerInstance().format( total[0] ), total[2] );
+            Map<String, long[]> mojos = downloads.get( project );
+            for ( String mojo : sortByBytes( mojos ) )
+            {
+                long[] download = mojos.get( mojo );
+                LOGGER.info( "    {} ms : {} ({} bytes, {} artifacts)", String.format( "%8d", download[1] ), mojo,
+                             NumberFormat.getIntegerInstance().format( download[0] ), download[2] );
+            }
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+
+    private long[] sum( Iterable<long[]> values )
+    {
+        long[] result = new long[3];
+        for ( long[] value : values )
+        {
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[i] += value[i];
+            }
+        }
+        return result;
+    }
+
+    private List<String> sortByBytes( final Map<String, long[]> values )
+    {
+        List<String> result = new ArrayList<>( values.keySet() );
+        Collections.sort( result, new Comparator<String>()
+        {
+            public int compare( String left, String right )
+            {
+                return Long.compare( values.get( right )[0], values.get( left )[0] );
+            }
+        } );
+        return result;
+    }
+}
@@ -19,9 +19,14 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
@@ -29,28 +34,48 @@ class ForkTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private SystemTime time;
+    private final SpanTree spanTree;
+
+    public ForkTimer( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
+    }
 
-    public ForkTimer()
+    /**
+     * A fork is identified by the mojo which needs it.
+     */
+    private String getForkId( ExecutionEvent event )
     {
-        this.time = new SystemTime();
+        MojoExecution mojo = event.getMojoExecution();
+        return event.getProject().getId() + " " + mojo.getGroupId() + ":" + mojo.getArtifactId() + ":"
+            + mojo.getGoal() + " (" + mojo.getExecutionId() + ")";
     }
 
-    public ForkTimer start()
+    public ForkTimer start( ExecutionEvent event )
     {
-        this.time.start();
+        spanTree.start( SpanKind.FORK, getForkId( event ) );
         return this;
     }
 
-    public ForkTimer stop()
+    public ForkTimer stop( ExecutionEvent event )
     {
-        this.time.stop();
+        String forkId = getForkId( event );
+        if ( spanTree.stop( SpanKind.FORK, forkId, event.getType() == ExecutionEvent.Type.ForkFailed )
+            == SpanTree.NO_SPAN )
+        {
+            throw new IllegalArgumentException( "Unknown forkId (" + forkId + ")" );
+        }
         return this;
     }
 
     public void report()
     {
-        LOGGER.info( "ForkTime: {}", this.time.getElapsedTime() );
+        long result = 0;
+        for ( int span : spanTree.getSpans( SpanKind.FORK ) )
+        {
+            result += spanTree.getElapsedTime( span );
+        }
+        LOGGER.info( "ForkTime: {}", result );
     }
 
 }
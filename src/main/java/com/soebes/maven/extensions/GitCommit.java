@@ -0,0 +1,121 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Reads the commit which is checked out in a git working tree without running git.
+ */
+final class GitCommit
+{
+    private GitCommit()
+    {
+        // Only static methods.
+    }
+
+    /**
+     * @param directory A directory of the working tree.
+     * @return The id of the commit of {@code HEAD} or {@code null} if it can not be determined.
+     */
+    static String read( File directory )
+    {
+        try
+        {
+            File gitDirectory = findGitDirectory( directory.getAbsoluteFile() );
+            if ( gitDirectory == null )
+            {
+                return null;
+            }
+            String head = readFirstLine( new File( gitDirectory, "HEAD" ) );
+            if ( head == null || !head.startsWith( "ref: " ) )
+            {
+                return head;
+            }
+            String ref = head.substring( "ref: ".length() );
+            File refFile = new File( gitDirectory, ref );
+            if ( refFile.isFile() )
+            {
+                return readFirstLine( refFile );
+            }
+            return readPackedRef( new File( gitDirectory, "packed-refs" ), ref );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private static File findGitDirectory( File directory )
+        throws IOException
+    {
+        for ( File current = directory; current != null; current = current.getParentFile() )
+        {
+            File git = new File( current, ".git" );
+            if ( git.isDirectory() )
+            {
+                return git;
+            }
+            if ( git.isFile() )
+            {
+                // A worktree or submodule: "gitdir: <path>"
+                String line = readFirstLine( git );
+                if ( line != null && line.startsWith( "gitdir: " ) )
+                {
+                    File gitDirectory = new File( line.substring( "gitdir: ".length() ) );
+                    return gitDirectory.isAbsolute() ? gitDirectory : new File( current, gitDirectory.getPath() );
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String readPackedRef( File packedRefs, String ref )
+        throws IOException
+    {
+        if ( !packedRefs.isFile() )
+        {
+            return null;
+        }
+        for ( String line : Files.readAllLines( packedRefs.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            if ( line.endsWith( " " + ref ) )
+            {
+                return line.substring( 0, line.indexOf( ' ' ) );
+            }
+        }
+        return null;
+    }
+
+    private static String readFirstLine( File file )
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+        List<String> lines = Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 );
+        return lines.isEmpty() ? null : lines.get( 0 ).trim();
+    }
+}
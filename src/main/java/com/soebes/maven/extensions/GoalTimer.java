@@ -1,15 +1,14 @@
 package com.soebes.maven.extensions;
 
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.apache.maven.execution.ExecutionEvent;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
@@ -17,16 +16,21 @@ class GoalTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private Map<ProjectGoal, SystemTime> timerEvents;
+    private final SpanTree spanTree;
 
     public GoalTimer()
     {
-        this.timerEvents = new ConcurrentHashMap<>();
+        this( new SpanTree() );
+    }
+
+    public GoalTimer( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
     }
 
     public boolean hasEvents()
     {
-        return !timerEvents.isEmpty();
+        return spanTree.hasSpans( SpanKind.GOAL );
     }
 
     private ProjectKey createProjectKey( MavenProject project )
@@ -44,26 +48,30 @@ class GoalTimer
     {
         ProjectGoal pm =
             new ProjectGoal( createProjectKey( event.getProject() ), createGoalKey( event.getMojoExecution() ) );
-        timerEvents.put( pm, new SystemTime().start() );
+        spanTree.start( SpanKind.GOAL, pm );
     }
 
-    public void mojoStop( ExecutionEvent event )
+    /**
+     * @return The span of the goal execution.
+     */
+    public int mojoStop( ExecutionEvent event )
     {
         ProjectGoal pm =
             new ProjectGoal( createProjectKey( event.getProject() ), createGoalKey( event.getMojoExecution() ) );
-        if ( !timerEvents.containsKey( pm ) )
+        int span = spanTree.stop( SpanKind.GOAL, pm, event.getType() == ExecutionEvent.Type.MojoFailed );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown mojoId (" + pm.getId() + ")" );
         }
-        timerEvents.get( pm ).stop();
+        return span;
     }
 
     public void report()
     {
-        for ( Entry<ProjectGoal, SystemTime> item : this.timerEvents.entrySet() )
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
         {
-            LOGGER.info( "{} ms : {}", String.format( "%8d", item.getValue().getElapsedTime() ),
-                         item.getKey().getId() );
+            LOGGER.info( "{} ms : {}", String.format( "%8d", spanTree.getElapsedTime( span ) ),
+                         ( (ProjectGoal) spanTree.getKey( span ) ).getId() );
         }
     }
 }
@@ -0,0 +1,206 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An append only store of the {@link BuildRecord}s of a project root. Each project root has a directory of its own
+ * (named by a hash of its path) with two files:
+ * <ul>
+ * <li>{@code builds.log} contains the records one after another.</li>
+ * <li>{@code builds.idx} contains an entry of {@value #ENTRY_SIZE} bytes per record: its offset and length in the log
+ * and its timestamp. A record is found by its number without reading the log and a time range by a binary search.</li>
+ * </ul>
+ * The index entry is written after the record, so a build which dies while writing leaves at most unreferenced bytes
+ * in the log. Concurrent builds are serialized by a lock on the index.
+ */
+class HistoryStore
+{
+    static final int ENTRY_SIZE = 20;
+
+    private final File directory;
+
+    private final File log;
+
+    private final File index;
+
+    /**
+     * @param historyDirectory The directory of the history of all projects.
+     * @param projectRoot The root directory of the project.
+     */
+    HistoryStore( File historyDirectory, File projectRoot )
+    {
+        this.directory = new File( historyDirectory, "builds-" + hash( projectRoot.getAbsolutePath() ) );
+        this.log = new File( directory, "builds.log" );
+        this.index = new File( directory, "builds.idx" );
+    }
+
+    private static String hash( String value )
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( value.getBytes( StandardCharsets.UTF_8 ) );
+            StringBuilder result = new StringBuilder();
+            for ( int i = 0; i < 8; i++ )
+            {
+                result.append( String.format( "%02x", digest[i] ) );
+            }
+            return result.toString();
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-1 is not available", e );
+        }
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    public void append( BuildRecord record )
+        throws IOException
+    {
+        if ( !directory.isDirectory() && !directory.mkdirs() )
+        {
+            throw new IOException( "Could not create directory " + directory );
+        }
+        byte[] bytes = record.write().getBytes( StandardCharsets.UTF_8 );
+        try ( RandomAccessFile indexFile = new RandomAccessFile( index, "rw" );
+                        FileLock lock = indexFile.getChannel().lock();
+                        RandomAccessFile logFile = new RandomAccessFile( log, "rw" ) )
+        {
+            long offset = logFile.length();
+            logFile.seek( offset );
+            logFile.write( bytes );
+
+            ByteBuffer entry = ByteBuffer.allocate( ENTRY_SIZE );
+            entry.putLong( offset ).putInt( bytes.length ).putLong( record.getTimestamp() );
+            entry.flip();
+            FileChannel channel = indexFile.getChannel();
+            channel.write( entry, size( indexFile ) * (long) ENTRY_SIZE );
+        }
+    }
+
+    private static int size( RandomAccessFile indexFile )
+        throws IOException
+    {
+        // An incomplete entry of an aborted build is overwritten.
+        return (int) ( indexFile.length() / ENTRY_SIZE );
+    }
+
+    /**
+     * @return The number of builds in the store.
+     */
+    public int size()
+    {
+        return (int) ( index.length() / ENTRY_SIZE );
+    }
+
+    /**
+     * @param from The number of the first record, {@code 0} is the oldest build.
+     * @param to The number of the record after the last one.
+     * @return The records in the order they have been added.
+     */
+    public List<BuildRecord> read( int from, int to )
+        throws IOException
+    {
+        List<BuildRecord> result = new ArrayList<>();
+        if ( from >= to )
+        {
+            return result;
+        }
+        try ( RandomAccessFile indexFile = new RandomAccessFile( index, "r" );
+                        RandomAccessFile logFile = new RandomAccessFile( log, "r" ) )
+        {
+            ByteBuffer entries = ByteBuffer.allocate( ( to - from ) * ENTRY_SIZE );
+            indexFile.getChannel().read( entries, from * (long) ENTRY_SIZE );
+            entries.flip();
+            for ( int i = from; i < to; i++ )
+            {
+                long offset = entries.getLong();
+                byte[] bytes = new byte[entries.getInt()];
+                entries.getLong();
+                logFile.seek( offset );
+                logFile.readFully( bytes );
+                String text = new String( bytes, StandardCharsets.UTF_8 );
+                result.add( BuildRecord.parse( Arrays.asList( text.split( "\n" ) ) ) );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The last {@code count} builds, the oldest first.
+     */
+    public List<BuildRecord> readLast( int count )
+        throws IOException
+    {
+        int size = size();
+        return read( Math.max( 0, size - count ), size );
+    }
+
+    /**
+     * @param timestamp Milliseconds since the epoch.
+     * @return The number of the first build which has been recorded at or after the timestamp.
+     */
+    public int find( long timestamp )
+        throws IOException
+    {
+        int low = 0;
+        int high = size();
+        if ( high == 0 )
+        {
+            return 0;
+        }
+        try ( RandomAccessFile indexFile = new RandomAccessFile( index, "r" ) )
+        {
+            ByteBuffer value = ByteBuffer.allocate( 8 );
+            while ( low < high )
+            {
+                int middle = ( low + high ) >>> 1;
+                value.clear();
+                indexFile.getChannel().read( value, middle * (long) ENTRY_SIZE + 12 );
+                value.flip();
+                if ( value.getLong() < timestamp )
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,176 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queries over the builds of the {@link HistoryStore}: the durations of a project over time with their moving median
+ * and percentiles.
+ */
+class HistoryTrend
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    /**
+     * The number of builds of the moving median.
+     */
+    static final int WINDOW = 5;
+
+    private final List<BuildRecord> builds;
+
+    /**
+     * @param builds The builds, the oldest first.
+     */
+    HistoryTrend( List<BuildRecord> builds )
+    {
+        this.builds = builds;
+    }
+
+    /**
+     * @return All projects which have been built in any of the builds.
+     */
+    public Set<String> getProjects()
+    {
+        Set<String> result = new LinkedHashSet<>();
+        for ( BuildRecord build : builds )
+        {
+            result.addAll( build.getProjects().keySet() );
+        }
+        return result;
+    }
+
+    /**
+     * @return The wall times of the project in the builds it has been built in, the oldest first.
+     */
+    public long[] getProjectTimes( String project )
+    {
+        long[] result = new long[builds.size()];
+        int size = 0;
+        for ( BuildRecord build : builds )
+        {
+            long time = build.getProjectTime( project );
+            if ( time >= 0 )
+            {
+                result[size++] = time;
+            }
+        }
+        return Arrays.copyOf( result, size );
+    }
+
+    public long[] getWallTimes()
+    {
+        long[] result = new long[builds.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = builds.get( i ).getWallTime();
+        }
+        return result;
+    }
+
+    /**
+     * @return The median of the last {@code window} values at each position.
+     */
+    static long[] movingMedian( long[] values, int window )
+    {
+        long[] result = new long[values.length];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            result[i] = percentile( Arrays.copyOfRange( values, Math.max( 0, i - window + 1 ), i + 1 ), 50 );
+        }
+        return result;
+    }
+
+    /**
+     * @param percentile The percentile between {@code 0} and {@code 100}.
+     * @return The value at the percentile (nearest rank) or {@code 0} if there are no values.
+     */
+    static long percentile( long[] values, double percentile )
+    {
+        if ( values.length == 0 )
+        {
+            return 0;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort( sorted );
+        int rank = (int) Math.ceil( percentile / 100.0 * sorted.length );
+        return sorted[Math.max( 0, rank - 1 )];
+    }
+
+    public void report()
+    {
+        if ( builds.isEmpty() )
+        {
+            return;
+        }
+        long[] wallTimes = getWallTimes();
+        LOGGER.info( "Build time trend of the last {} builds:", builds.size() );
+        LOGGER.info( "{} ms : build (median {} ms, p95 {} ms)", String.format( "%8d", wallTimes[wallTimes.length - 1] ),
+                     movingMedian( wallTimes, WINDOW )[wallTimes.length - 1], percentile( wallTimes, 95 ) );
+        LOGGER.info( "" );
+
+        final List<String> projects = new ArrayList<>( getProjects() );
+        final List<long[]> times = new ArrayList<>();
+        for ( String project : projects )
+        {
+            times.add( getProjectTimes( project ) );
+        }
+        List<Integer> order = new ArrayList<>();
+        for ( int i = 0; i < projects.size(); i++ )
+        {
+            order.add( i );
+        }
+        Collections.sort( order, new Comparator<Integer>()
+        {
+            public int compare( Integer left, Integer right )
+            {
+                return Long.compare( percentile( times.get( right ), 50 ), percentile( times.get( left ), 50 ) );
+            }
+        } );
+        for ( int project : order )
+        {
+            long[] values = times.get( project );
+            long last = values[values.length - 1];
+            long median = movingMedian( values, WINDOW )[values.length - 1];
+            LOGGER.info( "{} ms : {} (moving median {} ms, p95 {} ms, {} builds, {})", String.format( "%8d", last ),
+                         projects.get( project ), median, percentile( values, 95 ), values.length,
+                         trend( last, median ) );
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+
+    static String trend( long last, long median )
+    {
+        if ( median == 0 )
+        {
+            return "new";
+        }
+        return String.format( "%+d%%", Math.round( ( last - median ) * 100.0 / median ) );
+    }
+}
@@ -0,0 +1,189 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * The compact summary of a build which only lists the top {@code N} hot spots of each dimension: mojo executions,
+ * projects, plugins (summed up over all projects), phases, downloads and deploys. The percentage is the share of the
+ * total of the dimension.
+ */
+class HotSpotReport
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    private final SpanTree spanTree;
+
+    private final int size;
+
+    HotSpotReport( SpanTree spanTree, int size )
+    {
+        this.spanTree = spanTree;
+        this.size = size;
+    }
+
+    /**
+     * @return The slowest mojo executions including the goals called directly.
+     */
+    TopN<String> getSlowestExecutions()
+    {
+        TopN<String> result = new TopN<>( size );
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            ProjectMojo mojo = (ProjectMojo) spanTree.getKey( span );
+            result.add( mojo.getProject().getId() + " " + mojo.getMojo().getFullId(),
+                        spanTree.getElapsedTime( span ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
+        {
+            ProjectGoal goal = (ProjectGoal) spanTree.getKey( span );
+            result.add( goal.getProject().getId() + " " + goal.getMojo().getFullId(),
+                        spanTree.getElapsedTime( span ) );
+        }
+        return result;
+    }
+
+    TopN<String> getSlowestProjects()
+    {
+        TopN<String> result = new TopN<>( size );
+        for ( int span : spanTree.getSpans( SpanKind.PROJECT ) )
+        {
+            result.add( (String) spanTree.getKey( span ), spanTree.getElapsedTime( span ) );
+        }
+        return result;
+    }
+
+    /**
+     * @return The plugin goals with the largest time summed up over all projects.
+     */
+    TopN<String> getSlowestPlugins()
+    {
+        TopN<String> result = new TopN<>( size );
+        for ( Entry<String, PluginStatistics> plugin : new PluginAggregation( spanTree ).getPlugins().entrySet() )
+        {
+            result.add( plugin.getKey(), plugin.getValue().getTotal() );
+        }
+        return result;
+    }
+
+    TopN<String> getSlowestPhases()
+    {
+        Map<String, Long> time = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            String phase = ( (ProjectMojo) spanTree.getKey( span ) ).getMojo().getPhase();
+            if ( phase != null )
+            {
+                add( time, phase, spanTree.getElapsedTime( span ) );
+            }
+        }
+        return select( time );
+    }
+
+    /**
+     * @param kind The kind of the transfer, for example {@link SpanKind#DOWNLOAD}.
+     * @return The spans of the slowest transfers of artifacts, they are only described for the report.
+     */
+    TopN<Integer> getSlowestTransfers( SpanKind kind )
+    {
+        TopN<Integer> result = new TopN<>( size );
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            result.add( span, spanTree.getElapsedTime( span ) );
+        }
+        return result;
+    }
+
+    private void add( Map<String, Long> time, String key, long value )
+    {
+        Long current = time.get( key );
+        time.put( key, current == null ? value : current + value );
+    }
+
+    private TopN<String> select( Map<String, Long> time )
+    {
+        TopN<String> result = new TopN<>( size );
+        for ( Entry<String, Long> entry : time.entrySet() )
+        {
+            result.add( entry.getKey(), entry.getValue() );
+        }
+        return result;
+    }
+
+    public void report()
+    {
+        report( "mojo executions", getSlowestExecutions() );
+        report( "projects", getSlowestProjects() );
+        report( "plugins", getSlowestPlugins() );
+        report( "phases", getSlowestPhases() );
+        reportTransfers( "downloads", getSlowestTransfers( SpanKind.DOWNLOAD ) );
+        reportTransfers( "deploys", getSlowestTransfers( SpanKind.DEPLOY ) );
+    }
+
+    private void reportTransfers( String dimension, TopN<Integer> top )
+    {
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        List<TopN.Entry<String>> entries = new ArrayList<>();
+        for ( TopN.Entry<Integer> entry : top.getEntries() )
+        {
+            int span = entry.getKey();
+            entries.add( new TopN.Entry<>( spanTree.getKey( span ) + " ("
+                + format.format( spanTree.getBytes( span ) ) + " bytes)", entry.getValue() ) );
+        }
+        report( dimension, entries, top.getTotal() );
+    }
+
+    private void report( String dimension, TopN<String> top )
+    {
+        report( dimension, top.getEntries(), top.getTotal() );
+    }
+
+    private void report( String dimension, List<TopN.Entry<String>> entries, long total )
+    {
+        if ( entries.isEmpty() )
+        {
+            return;
+        }
+        LOGGER.info( "Top {} {}:", size, dimension );
+        for ( TopN.Entry<String> entry : entries )
+        {
+            LOGGER.info( "{} ms {} : {}", String.format( "%8d", entry.getValue() ),
+                         String.format( "%5.1f%%", percentage( entry.getValue(), total ) ), entry.getKey() );
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+
+    static double percentage( long value, long total )
+    {
+        return total == 0 ? 0 : value * 100.0 / total;
+    }
+}
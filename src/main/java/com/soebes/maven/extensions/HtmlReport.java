@@ -0,0 +1,326 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Writes the recorded spans as a single static HTML file which does not need any external resources: a zoomable
+ * timeline per thread, sortable tables of the mojo executions, projects and plugins and a chart of the transfers.
+ * <p>
+ * The data is embedded as one array per column (strings are written once and referenced by their index) instead of
+ * one object per span, which keeps the file small enough for builds with thousands of modules. Each column is
+ * written directly from the span tree into the file, so the data is never held in memory as a whole.
+ */
+class HtmlReport
+{
+    static final String TEMPLATE = "buildtime-profiler.html";
+
+    static final String DATA = "/*DATA*/";
+
+    private static final String[] COLUMNS =
+        { "kind", "name", "project", "thread", "start", "time", "bytes", "repository", "failed" };
+
+    private final SpanTree spanTree;
+
+    HtmlReport( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
+    }
+
+    /**
+     * The strings of the embedded data, each is written once and referenced by its index.
+     */
+    private static final class Names
+    {
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final List<String> names = new ArrayList<>();
+
+        /**
+         * @return The index of the name or {@code -1} for {@code null}.
+         */
+        int index( String name )
+        {
+            if ( name == null )
+            {
+                return -1;
+            }
+            Integer result = indexes.get( name );
+            if ( result == null )
+            {
+                result = names.size();
+                indexes.put( name, result );
+                names.add( name );
+            }
+            return result;
+        }
+
+        List<String> getNames()
+        {
+            return names;
+        }
+    }
+
+    /**
+     * Escapes {@code </} as {@code <\/}, otherwise a name containing {@code </script>} would end the embedded script.
+     */
+    static final class ScriptWriter
+        extends FilterWriter
+    {
+        private boolean afterLessThan;
+
+        ScriptWriter( Writer out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( int c )
+            throws IOException
+        {
+            if ( c == '/' && afterLessThan )
+            {
+                out.write( '\\' );
+            }
+            out.write( c );
+            afterLessThan = c == '<';
+        }
+
+        @Override
+        public void write( char[] buffer, int offset, int length )
+            throws IOException
+        {
+            write( new String( buffer, offset, length ), 0, length );
+        }
+
+        @Override
+        public void write( String text, int offset, int length )
+            throws IOException
+        {
+            int from = offset;
+            int end = offset + length;
+            for ( int i = offset; i < end; i++ )
+            {
+                char c = text.charAt( i );
+                if ( c == '/' && ( i > offset ? text.charAt( i - 1 ) == '<' : afterLessThan ) )
+                {
+                    out.write( text, from, i - from );
+                    out.write( '\\' );
+                    from = i;
+                }
+            }
+            out.write( text, from, end - from );
+            if ( length > 0 )
+            {
+                afterLessThan = text.charAt( end - 1 ) == '<';
+            }
+        }
+    }
+
+    public void write( File file )
+        throws IOException
+    {
+        String template = readTemplate();
+        int data = template.indexOf( DATA );
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try ( Writer writer = new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( file.toPath() ),
+                                                                          StandardCharsets.UTF_8 ) ) )
+        {
+            writer.write( template, 0, data );
+            Writer script = new ScriptWriter( writer );
+            writeData( script );
+            script.flush();
+            writer.write( template, data + DATA.length(), template.length() - data - DATA.length() );
+        }
+    }
+
+    private String readTemplate()
+        throws IOException
+    {
+        try ( InputStream input = getClass().getResourceAsStream( TEMPLATE );
+                        Scanner scanner = new Scanner( input, "UTF-8" ) )
+        {
+            return scanner.useDelimiter( "\\A" ).next();
+        }
+    }
+
+    void writeData( Writer writer )
+        throws IOException
+    {
+        int count = spanTree.getSpanCount();
+        int session = spanTree.getSession();
+        long origin = session == SpanTree.NO_SPAN ? 0 : spanTree.getStartTime( session );
+        Names names = new Names();
+        Map<Long, Integer> threads = new HashMap<>();
+
+        JsonWriter json = new JsonWriter( writer );
+        json.beginObject();
+        json.name( "version" ).value( BuildTimeProfilerVersion.getVersion() );
+        json.name( "start" ).value( origin / 1000000L );
+        json.name( "wall" ).value( session == SpanTree.NO_SPAN ? 0
+                        : ( spanTree.getEndTime( session ) - origin ) / 1000000L );
+        json.name( "kinds" ).beginArray();
+        for ( SpanKind kind : SpanKind.values() )
+        {
+            json.value( kind.name() );
+        }
+        json.endArray();
+        json.name( "spans" ).beginObject();
+        for ( int column = 0; column < COLUMNS.length; column++ )
+        {
+            json.name( COLUMNS[column] ).beginArray();
+            for ( int span = 0; span < count; span++ )
+            {
+                if ( spanTree.getKind( span ) != SpanKind.SESSION )
+                {
+                    json.value( getValue( column, span, origin, names, threads ) );
+                }
+            }
+            json.endArray();
+        }
+        json.endObject();
+        // The threads are numbered while the spans are written.
+        json.name( "threads" ).value( threads.size() );
+        writePlugins( json, names );
+        json.name( "names" ).beginArray();
+        for ( String name : names.getNames() )
+        {
+            json.value( name );
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    private long getValue( int column, int span, long origin, Names names, Map<Long, Integer> threads )
+    {
+        switch ( column )
+        {
+            case 0:
+                return spanTree.getKind( span ).ordinal();
+            case 1:
+                return names.index( getName( span ) );
+            case 2:
+                return names.index( getProject( span ) );
+            case 3:
+                Integer thread = threads.get( spanTree.getThreadId( span ) );
+                if ( thread == null )
+                {
+                    thread = threads.size();
+                    threads.put( spanTree.getThreadId( span ), thread );
+                }
+                return thread;
+            case 4:
+                return ( spanTree.getStartTime( span ) - origin ) / 1000000L;
+            case 5:
+                return ( spanTree.getEndTime( span ) - spanTree.getStartTime( span ) ) / 1000000L;
+            case 6:
+                return spanTree.getBytes( span );
+            case 7:
+                return names.index( spanTree.getRepository( span ) );
+            default:
+                return spanTree.isFailed( span ) ? 1 : 0;
+        }
+    }
+
+    private String getName( int span )
+    {
+        Object key = spanTree.getKey( span );
+        if ( key instanceof ProjectMojo )
+        {
+            return ( (ProjectMojo) key ).getMojo().getFullId();
+        }
+        if ( key instanceof ProjectGoal )
+        {
+            return ( (ProjectGoal) key ).getMojo().getFullId();
+        }
+        return String.valueOf( key );
+    }
+
+    private String getProject( int span )
+    {
+        Object key = spanTree.getKey( span );
+        if ( key instanceof ProjectMojo )
+        {
+            return ( (ProjectMojo) key ).getProject().getId();
+        }
+        if ( key instanceof ProjectGoal )
+        {
+            return ( (ProjectGoal) key ).getProject().getId();
+        }
+        int projectSpan = spanTree.getAncestor( span, SpanKind.PROJECT );
+        return projectSpan == SpanTree.NO_SPAN ? null : (String) spanTree.getKey( projectSpan );
+    }
+
+    private void writePlugins( JsonWriter json, Names names )
+        throws IOException
+    {
+        Map<String, PluginStatistics> plugins = new PluginAggregation( spanTree ).getPlugins();
+        json.name( "plugins" ).beginObject();
+        json.name( "name" ).beginArray();
+        for ( String plugin : plugins.keySet() )
+        {
+            json.value( names.index( plugin ) );
+        }
+        json.endArray();
+        json.name( "count" ).beginArray();
+        for ( PluginStatistics plugin : plugins.values() )
+        {
+            json.value( plugin.getCount() );
+        }
+        json.endArray();
+        json.name( "total" ).beginArray();
+        for ( PluginStatistics plugin : plugins.values() )
+        {
+            json.value( plugin.getTotal() );
+        }
+        json.endArray();
+        json.name( "max" ).beginArray();
+        for ( PluginStatistics plugin : plugins.values() )
+        {
+            json.value( plugin.getMax() );
+        }
+        json.endArray();
+        json.name( "slowest" ).beginArray();
+        for ( PluginStatistics plugin : plugins.values() )
+        {
+            json.value( names.index( plugin.getSlowestProject() ) );
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
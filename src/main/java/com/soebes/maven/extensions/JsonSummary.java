@@ -0,0 +1,322 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.maven.project.MavenProject;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Writes the summary of the build as JSON, so it can be processed without parsing the log. It contains the same
+ * sections as the summary in the log. All times are in milliseconds, sizes in bytes. The schema (version
+ * {@value #SCHEMA_VERSION}) is:
+ *
+ * <pre>
+ * {
+ *   "schemaVersion": 1,
+ *   "profilerVersion": "...",
+ *   "discovery": { "time": 0 },
+ *   "projects": [ { "id": "groupId:artifactId:version", "name": "...", "time": 0,
+ *                   "phases": [ { "phase": "compile", "time": 0 } ] } ],
+ *   "phases": [ { "phase": "compile", "time": 0 } ],
+ *   "pluginsInPhases": [ { "phase": "compile", "mojos": [ { "project": "...", "mojo": "...", "time": 0 } ] } ],
+ *   "plugins": [ { "plugin": "groupId:artifactId:version:goal", "executions": 0, "total": 0, "mean": 0.0,
+ *                  "max": 0, "slowestProject": "..." } ],
+ *   "goals": [ { "project": "...", "goal": "...", "time": 0 } ],
+ *   "install": TRANSFERS, "download": TRANSFERS, "deploy": TRANSFERS,
+ *   "metadata": { "install": TRANSFERS, "download": TRANSFERS, "deploy": TRANSFERS },
+ *   "fork": { "time": 0, "projects": [ { "project": "...", "time": 0 } ] }
+ * }
+ *
+ * TRANSFERS: { "count": 0, "bytes": 0, "time": 0,
+ *              "items": [ { "id": "...", "repository": "...", "time": 0, "bytes": 0, "failed": false } ] }
+ * </pre>
+ *
+ * New fields may be added without changing the version, the version is only increased if fields are removed or
+ * their meaning changes.
+ */
+class JsonSummary
+{
+    static final int SCHEMA_VERSION = 1;
+
+    private final SpanTree spanTree;
+
+    private final long discoveryTime;
+
+    JsonSummary( SpanTree spanTree, long discoveryTime )
+    {
+        this.spanTree = spanTree;
+        this.discoveryTime = discoveryTime;
+    }
+
+    public void write( File file, List<MavenProject> projects, List<String> phases )
+        throws IOException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try ( Writer writer = new OutputStreamWriter( Files.newOutputStream( file.toPath() ),
+                                                      StandardCharsets.UTF_8 ) )
+        {
+            write( writer, projects, phases );
+        }
+    }
+
+    void write( Writer writer, List<MavenProject> projects, List<String> phases )
+        throws IOException
+    {
+        JsonWriter json = new JsonWriter( writer );
+        json.beginObject();
+        json.name( "schemaVersion" ).value( SCHEMA_VERSION );
+        json.name( "profilerVersion" ).value( BuildTimeProfilerVersion.getVersion() );
+        json.name( "discovery" ).beginObject().name( "time" ).value( discoveryTime ).endObject();
+        Map<String, Map<String, Long>> timePerProjectAndPhase = getTimePerProjectAndPhase();
+        writeProjects( json, projects, phases, timePerProjectAndPhase );
+        writePhases( json, phases, timePerProjectAndPhase );
+        writePlugins( json );
+        writeGoals( json );
+        json.name( "install" );
+        writeTransfers( json, SpanKind.INSTALL );
+        json.name( "download" );
+        writeTransfers( json, SpanKind.DOWNLOAD );
+        json.name( "deploy" );
+        writeTransfers( json, SpanKind.DEPLOY );
+        json.name( "metadata" ).beginObject();
+        json.name( "install" );
+        writeTransfers( json, SpanKind.METADATA_INSTALL );
+        json.name( "download" );
+        writeTransfers( json, SpanKind.METADATA_DOWNLOAD );
+        json.name( "deploy" );
+        writeTransfers( json, SpanKind.METADATA_DEPLOY );
+        json.endObject();
+        writeFork( json );
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * @return The time per phase of each project, the projects identified by {@link ProjectKey#getId()}.
+     */
+    private Map<String, Map<String, Long>> getTimePerProjectAndPhase()
+    {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            ProjectMojo mojo = (ProjectMojo) spanTree.getKey( span );
+            if ( mojo.getMojo().getPhase() == null )
+            {
+                continue;
+            }
+            Map<String, Long> phases = result.get( mojo.getProject().getId() );
+            if ( phases == null )
+            {
+                phases = new LinkedHashMap<>();
+                result.put( mojo.getProject().getId(), phases );
+            }
+            Long time = phases.get( mojo.getMojo().getPhase() );
+            phases.put( mojo.getMojo().getPhase(),
+                        ( time == null ? 0 : time ) + spanTree.getElapsedTime( span ) );
+        }
+        return result;
+    }
+
+    private void writeProjects( JsonWriter json, List<MavenProject> projects, List<String> phases,
+                                Map<String, Map<String, Long>> timePerProjectAndPhase )
+        throws IOException
+    {
+        json.name( "projects" ).beginArray();
+        for ( MavenProject project : projects )
+        {
+            String id = new ProjectKey( project.getGroupId(), project.getArtifactId(), project.getVersion() ).getId();
+            int span = spanTree.find( SpanKind.PROJECT, project.getId() );
+            json.beginObject();
+            json.name( "id" ).value( id );
+            json.name( "name" ).value( project.getName() );
+            json.name( "time" ).value( span == SpanTree.NO_SPAN ? 0 : spanTree.getElapsedTime( span ) );
+            json.name( "phases" ).beginArray();
+            Map<String, Long> timePerPhase = timePerProjectAndPhase.get( id );
+            for ( String phase : phases )
+            {
+                if ( timePerPhase != null && timePerPhase.containsKey( phase ) )
+                {
+                    json.beginObject().name( "phase" ).value( phase );
+                    json.name( "time" ).value( timePerPhase.get( phase ) ).endObject();
+                }
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writePhases( JsonWriter json, List<String> phases,
+                              Map<String, Map<String, Long>> timePerProjectAndPhase )
+        throws IOException
+    {
+        Map<String, Long> timePerPhase = new LinkedHashMap<>();
+        for ( Map<String, Long> project : timePerProjectAndPhase.values() )
+        {
+            for ( Entry<String, Long> phase : project.entrySet() )
+            {
+                Long time = timePerPhase.get( phase.getKey() );
+                timePerPhase.put( phase.getKey(), ( time == null ? 0 : time ) + phase.getValue() );
+            }
+        }
+        json.name( "phases" ).beginArray();
+        for ( String phase : phases )
+        {
+            Long time = timePerPhase.get( phase );
+            json.beginObject().name( "phase" ).value( phase );
+            json.name( "time" ).value( time == null ? 0 : time ).endObject();
+        }
+        json.endArray();
+
+        // The mojos of each phase in the order they have been started.
+        Map<String, List<Integer>> spansPerPhase = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            String phase = ( (ProjectMojo) spanTree.getKey( span ) ).getMojo().getPhase();
+            List<Integer> spans = spansPerPhase.get( phase );
+            if ( spans == null )
+            {
+                spans = new ArrayList<>();
+                spansPerPhase.put( phase, spans );
+            }
+            spans.add( span );
+        }
+        json.name( "pluginsInPhases" ).beginArray();
+        for ( String phase : phases )
+        {
+            json.beginObject().name( "phase" ).value( phase ).name( "mojos" ).beginArray();
+            List<Integer> spans = spansPerPhase.get( phase );
+            for ( int span : spans == null ? Collections.<Integer>emptyList() : spans )
+            {
+                ProjectMojo mojo = (ProjectMojo) spanTree.getKey( span );
+                json.beginObject();
+                json.name( "project" ).value( mojo.getProject().getId() );
+                json.name( "mojo" ).value( mojo.getMojo().getFullId() );
+                json.name( "time" ).value( spanTree.getElapsedTime( span ) );
+                json.endObject();
+            }
+            json.endArray().endObject();
+        }
+        json.endArray();
+    }
+
+    private void writePlugins( JsonWriter json )
+        throws IOException
+    {
+        json.name( "plugins" ).beginArray();
+        for ( Entry<String, PluginStatistics> plugin : new PluginAggregation( spanTree ).getPlugins().entrySet() )
+        {
+            PluginStatistics statistics = plugin.getValue();
+            json.beginObject();
+            json.name( "plugin" ).value( plugin.getKey() );
+            json.name( "executions" ).value( statistics.getCount() );
+            json.name( "total" ).value( statistics.getTotal() );
+            json.name( "mean" ).value( statistics.getMean() );
+            json.name( "max" ).value( statistics.getMax() );
+            json.name( "slowestProject" ).value( statistics.getSlowestProject() );
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeGoals( JsonWriter json )
+        throws IOException
+    {
+        json.name( "goals" ).beginArray();
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
+        {
+            ProjectGoal goal = (ProjectGoal) spanTree.getKey( span );
+            json.beginObject();
+            json.name( "project" ).value( goal.getProject().getId() );
+            json.name( "goal" ).value( goal.getMojo().getFullId() );
+            json.name( "time" ).value( spanTree.getElapsedTime( span ) );
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void writeTransfers( JsonWriter json, SpanKind kind )
+        throws IOException
+    {
+        int[] spans = spanTree.getSpans( kind );
+        long bytes = 0;
+        long time = 0;
+        for ( int span : spans )
+        {
+            bytes += spanTree.getBytes( span );
+            time += spanTree.getElapsedTime( span );
+        }
+        json.beginObject();
+        json.name( "count" ).value( spans.length );
+        json.name( "bytes" ).value( bytes );
+        json.name( "time" ).value( time );
+        json.name( "items" ).beginArray();
+        for ( int span : spans )
+        {
+            json.beginObject();
+            json.name( "id" ).value( String.valueOf( spanTree.getKey( span ) ) );
+            json.name( "repository" ).value( spanTree.getRepository( span ) );
+            json.name( "time" ).value( spanTree.getElapsedTime( span ) );
+            json.name( "bytes" ).value( spanTree.getBytes( span ) );
+            json.name( "failed" ).value( spanTree.isFailed( span ) );
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private void writeFork( JsonWriter json )
+        throws IOException
+    {
+        long time = 0;
+        for ( int span : spanTree.getSpans( SpanKind.FORK ) )
+        {
+            time += spanTree.getElapsedTime( span );
+        }
+        json.name( "fork" ).beginObject();
+        json.name( "time" ).value( time );
+        json.name( "projects" ).beginArray();
+        for ( int span : spanTree.getSpans( SpanKind.FORKED_PROJECT ) )
+        {
+            json.beginObject();
+            json.name( "project" ).value( String.valueOf( spanTree.getKey( span ) ) );
+            json.name( "time" ).value( spanTree.getElapsedTime( span ) );
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
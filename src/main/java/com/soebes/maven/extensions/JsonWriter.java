@@ -0,0 +1,216 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A minimal streaming JSON writer, so we don't need an additional dependency which would have to be shaded into the
+ * extension. Names and values are written immediately to the underlying writer.
+ */
+class JsonWriter
+{
+    private static final int MAX_DEPTH = 64;
+
+    private final Writer writer;
+
+    /**
+     * For each nesting level whether a value has already been written, which needs a separator before the next one.
+     */
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+
+    private int depth;
+
+    private boolean afterName;
+
+    public JsonWriter( Writer writer )
+    {
+        this.writer = writer;
+    }
+
+    public JsonWriter beginObject()
+        throws IOException
+    {
+        return open( '{' );
+    }
+
+    public JsonWriter endObject()
+        throws IOException
+    {
+        return close( '}' );
+    }
+
+    public JsonWriter beginArray()
+        throws IOException
+    {
+        return open( '[' );
+    }
+
+    public JsonWriter endArray()
+        throws IOException
+    {
+        return close( ']' );
+    }
+
+    public JsonWriter name( String name )
+        throws IOException
+    {
+        separator();
+        string( name );
+        writer.write( ':' );
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value( String value )
+        throws IOException
+    {
+        if ( value == null )
+        {
+            return nullValue();
+        }
+        separator();
+        string( value );
+        return this;
+    }
+
+    public JsonWriter value( long value )
+        throws IOException
+    {
+        separator();
+        writer.write( Long.toString( value ) );
+        return this;
+    }
+
+    public JsonWriter value( double value )
+        throws IOException
+    {
+        if ( Double.isNaN( value ) || Double.isInfinite( value ) )
+        {
+            return nullValue();
+        }
+        separator();
+        writer.write( Double.toString( value ) );
+        return this;
+    }
+
+    public JsonWriter value( boolean value )
+        throws IOException
+    {
+        separator();
+        writer.write( value ? "true" : "false" );
+        return this;
+    }
+
+    public JsonWriter nullValue()
+        throws IOException
+    {
+        separator();
+        writer.write( "null" );
+        return this;
+    }
+
+    public void flush()
+        throws IOException
+    {
+        writer.flush();
+    }
+
+    private JsonWriter open( char c )
+        throws IOException
+    {
+        separator();
+        if ( depth + 1 >= MAX_DEPTH )
+        {
+            throw new IllegalStateException( "Nesting too deep (" + depth + ")" );
+        }
+        writer.write( c );
+        depth++;
+        hasValue[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close( char c )
+        throws IOException
+    {
+        if ( depth == 0 )
+        {
+            throw new IllegalStateException( "Nothing to close (" + c + ")" );
+        }
+        writer.write( c );
+        depth--;
+        return this;
+    }
+
+    private void separator()
+        throws IOException
+    {
+        if ( afterName )
+        {
+            afterName = false;
+            return;
+        }
+        if ( hasValue[depth] )
+        {
+            writer.write( ',' );
+        }
+        hasValue[depth] = true;
+    }
+
+    private void string( String value )
+        throws IOException
+    {
+        writer.write( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            switch ( c )
+            {
+                case '"':
+                    writer.write( "\\\"" );
+                    break;
+                case '\\':
+                    writer.write( "\\\\" );
+                    break;
+                case '\n':
+                    writer.write( "\\n" );
+                    break;
+                case '\r':
+                    writer.write( "\\r" );
+                    break;
+                case '\t':
+                    writer.write( "\\t" );
+                    break;
+                default:
+                    if ( c < 0x20 || c == '\u2028' || c == '\u2029' )
+                    {
+                        writer.write( String.format( "\\u%04x", (int) c ) );
+                    }
+                    else
+                    {
+                        writer.write( c );
+                    }
+                    break;
+            }
+        }
+        writer.write( '"' );
+    }
+}
@@ -19,21 +19,38 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.maven.eventspy.AbstractEventSpy;
+import org.apache.maven.lifecycle.DefaultLifecycles;
+import org.apache.maven.lifecycle.Lifecycle;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 
 /**
+ * Orders the lifecycle phases for the report. Each phase gets a rank when it becomes known: first the predefined
+ * phases, then the phases of the lifecycles known to Maven (including custom lifecycles of build extensions) and at
+ * last phases which are not part of any lifecycle in the order they have been observed. Comparing two phases is a
+ * lookup of their ranks.
+ *
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
 class LifeCycleOrdering
     extends AbstractEventSpy
 {
-    private final List<String> predefinedPhases = new LinkedList<>();
+    private final List<String> predefinedPhases = new ArrayList<>();
+
+    /**
+     * Key: the phase, value: its position in the report.
+     */
+    private final ConcurrentMap<String, Integer> ranks = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextRank = new AtomicInteger();
 
     private void initializePredefinedPhases()
     {
@@ -53,6 +70,7 @@ class LifeCycleOrdering
         for ( int item = from.ordinal(); item <= to.ordinal(); item++ )
         {
             predefinedPhases.add( values[item].id() );
+            rank( values[item].id() );
         }
     }
 
@@ -63,17 +81,55 @@ class LifeCycleOrdering
 
     public List<String> getPredefinedPhases()
     {
-        return predefinedPhases;
+        return Collections.unmodifiableList( predefinedPhases );
+    }
+
+    /**
+     * Adds the phases of all lifecycles known to Maven. Phases which already have a rank keep it.
+     *
+     * @param defaultLifecycles The lifecycles of Maven or {@code null} if they are not available.
+     */
+    protected void addLifecycles( DefaultLifecycles defaultLifecycles )
+    {
+        if ( defaultLifecycles == null )
+        {
+            return;
+        }
+        for ( Lifecycle lifecycle : defaultLifecycles.getLifeCycles() )
+        {
+            for ( String phase : lifecycle.getPhases() )
+            {
+                rank( phase );
+            }
+        }
+    }
+
+    /**
+     * @return The rank of the phase. A phase which is not known yet is ranked after all known phases.
+     */
+    protected int rank( String phase )
+    {
+        Integer result = ranks.get( phase );
+        if ( result == null )
+        {
+            Integer candidate = nextRank.getAndIncrement();
+            result = ranks.putIfAbsent( phase, candidate );
+            if ( result == null )
+            {
+                result = candidate;
+            }
+        }
+        return result;
     }
 
     protected void orderLifeCycleOnPreparedOrder( List<String> lifeCyclePhases )
     {
-        // Sort the lifeCyclePhases based on the given in predefinedPhases.
+        // Sort the lifeCyclePhases based on their rank.
         Collections.sort( lifeCyclePhases, new Comparator<String>()
         {
             public int compare( String left, String right )
             {
-                return Integer.compare( predefinedPhases.indexOf( left ), predefinedPhases.indexOf( right ) );
+                return Integer.compare( rank( left ), rank( right ) );
             }
         } );
     }
@@ -0,0 +1,321 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzes the structure of the reactor with the measured times of the modules and recommends changes of the module
+ * structure:
+ * <ul>
+ * <li>Split a module which serializes the build: it is on the critical path, takes a large part of it and many
+ * modules depend on it. The saving is the reduction of the critical path if the module took only half of its
+ * time.</li>
+ * <li>Merge a chain of tiny modules: each module depends only on the previous one and spends less time in its mojos
+ * than in the overhead between them (resolution, setup). The saving is the overhead of all but one module. Modules
+ * which every tiny module depends on, like a common parent or an imported BOM, do not count as a dependency of the
+ * chain.</li>
+ * </ul>
+ */
+class ModuleRecommendations
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    /**
+     * The minimum share of the critical path of a module to be split.
+     */
+    static final double MIN_SHARE = 0.1;
+
+    /**
+     * The minimum number of (transitive) dependents of a module to be split.
+     */
+    static final int MIN_DEPENDENTS = 3;
+
+    static final class Recommendation
+    {
+        private final String description;
+
+        private final long saving;
+
+        Recommendation( String description, long saving )
+        {
+            this.description = description;
+            this.saving = saving;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+
+        /**
+         * @return The estimated saving of wall time in milliseconds.
+         */
+        public long getSaving()
+        {
+            return saving;
+        }
+    }
+
+    private final SchedulerSimulation reactor;
+
+    /**
+     * The time between the mojos of each module.
+     */
+    private final long[] overhead;
+
+    /**
+     * The upstream modules of each module without the shared modules, see {@link #getSharedModules()}.
+     */
+    private final int[][] upstream;
+
+    /**
+     * The downstream modules of each module without the shared modules.
+     */
+    private final int[][] downstream;
+
+    ModuleRecommendations( SchedulerSimulation reactor, List<ModuleTime> moduleTimes )
+    {
+        this.reactor = reactor;
+        Map<String, Long> gaps = new HashMap<>();
+        for ( ModuleTime moduleTime : moduleTimes )
+        {
+            gaps.put( moduleTime.getProjectId(), moduleTime.getGapTime() );
+        }
+        this.overhead = new long[reactor.getModuleCount()];
+        for ( int module = 0; module < overhead.length; module++ )
+        {
+            Long gap = gaps.get( reactor.getModule( module ) );
+            overhead[module] = gap == null ? 0 : gap;
+        }
+        BitSet shared = getSharedModules();
+        this.upstream = new int[overhead.length][];
+        this.downstream = new int[overhead.length][];
+        for ( int module = 0; module < overhead.length; module++ )
+        {
+            upstream[module] = without( reactor.getUpstream( module ), shared );
+            downstream[module] = shared.get( module ) ? new int[0] : reactor.getDownstream( module );
+        }
+    }
+
+    /**
+     * @return The modules which all other tiny modules (at least two) depend on directly, like a common parent or an
+     *         imported BOM. Such a module does not link the modules of a chain. A shared module is no candidate for
+     *         the other shared modules, so a BOM below the parent is found as well.
+     */
+    private BitSet getSharedModules()
+    {
+        int count = reactor.getModuleCount();
+        BitSet shared = new BitSet( count );
+        boolean changed = true;
+        while ( changed )
+        {
+            changed = false;
+            for ( int module = 0; module < count; module++ )
+            {
+                if ( !shared.get( module ) && isShared( module, shared ) )
+                {
+                    shared.set( module );
+                    changed = true;
+                }
+            }
+        }
+        return shared;
+    }
+
+    private boolean isShared( int module, BitSet shared )
+    {
+        int dependents = 0;
+        for ( int candidate = 0; candidate < reactor.getModuleCount(); candidate++ )
+        {
+            if ( candidate != module && !shared.get( candidate ) && isTiny( candidate ) )
+            {
+                if ( !contains( reactor.getUpstream( candidate ), module ) )
+                {
+                    return false;
+                }
+                dependents++;
+            }
+        }
+        return dependents >= 2;
+    }
+
+    private static boolean contains( int[] modules, int module )
+    {
+        for ( int candidate : modules )
+        {
+            if ( candidate == module )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] without( int[] modules, BitSet excluded )
+    {
+        int[] result = new int[modules.length];
+        int size = 0;
+        for ( int module : modules )
+        {
+            if ( !excluded.get( module ) )
+            {
+                result[size++] = module;
+            }
+        }
+        return Arrays.copyOf( result, size );
+    }
+
+    /**
+     * @return The recommendations, the largest saving first.
+     */
+    public List<Recommendation> getRecommendations()
+    {
+        List<Recommendation> result = new ArrayList<>();
+        addSplits( result );
+        addMerges( result );
+        Collections.sort( result, new Comparator<Recommendation>()
+        {
+            public int compare( Recommendation left, Recommendation right )
+            {
+                return Long.compare( right.getSaving(), left.getSaving() );
+            }
+        } );
+        return result;
+    }
+
+    private void addSplits( List<Recommendation> result )
+    {
+        int count = reactor.getModuleCount();
+        long criticalPath = reactor.getCriticalPath();
+        // The earliest start of each module with unlimited threads.
+        long[] earliest = new long[count];
+        for ( int module = 0; module < count; module++ )
+        {
+            for ( int upstream : reactor.getUpstream( module ) )
+            {
+                earliest[module] = Math.max( earliest[module], earliest[upstream] + reactor.getDuration( upstream ) );
+            }
+        }
+        // The transitive dependents of each module, downstream modules always have a larger index.
+        BitSet[] dependents = new BitSet[count];
+        for ( int module = count - 1; module >= 0; module-- )
+        {
+            dependents[module] = new BitSet( count );
+            for ( int downstream : reactor.getDownstream( module ) )
+            {
+                dependents[module].set( downstream );
+                dependents[module].or( dependents[downstream] );
+            }
+        }
+
+        for ( int module = 0; module < count; module++ )
+        {
+            long duration = reactor.getDuration( module );
+            boolean onCriticalPath = earliest[module] + reactor.getCriticalPath( module ) == criticalPath;
+            int dependentCount = dependents[module].cardinality();
+            if ( onCriticalPath && duration >= criticalPath * MIN_SHARE && dependentCount >= MIN_DEPENDENTS )
+            {
+                long saving = criticalPath - reactor.withDuration( module, duration / 2 ).getCriticalPath();
+                if ( saving > 0 )
+                {
+                    result.add( new Recommendation( "Split " + reactor.getModule( module ) + " (" + duration
+                        + " ms on the critical path, " + dependentCount + " dependent modules)", saving ) );
+                }
+            }
+        }
+    }
+
+    private boolean isTiny( int module )
+    {
+        return reactor.getDuration( module ) - overhead[module] < overhead[module];
+    }
+
+    private boolean isLinked( int upstreamModule, int downstreamModule )
+    {
+        return downstream[upstreamModule].length == 1 && upstream[downstreamModule].length == 1
+            && downstream[upstreamModule][0] == downstreamModule;
+    }
+
+    private void addMerges( List<Recommendation> result )
+    {
+        for ( int module = 0; module < reactor.getModuleCount(); module++ )
+        {
+            if ( !isTiny( module ) )
+            {
+                continue;
+            }
+            int[] previous = upstream[module];
+            if ( previous.length == 1 && isTiny( previous[0] ) && isLinked( previous[0], module ) )
+            {
+                // Not the start of a chain.
+                continue;
+            }
+            List<String> chain = new ArrayList<>();
+            long chainOverhead = 0;
+            long maxOverhead = 0;
+            int current = module;
+            while ( true )
+            {
+                chain.add( reactor.getModule( current ) );
+                chainOverhead += overhead[current];
+                maxOverhead = Math.max( maxOverhead, overhead[current] );
+                int[] next = downstream[current];
+                if ( next.length != 1 || !isTiny( next[0] ) || !isLinked( current, next[0] ) )
+                {
+                    break;
+                }
+                current = next[0];
+            }
+            if ( chain.size() > 1 )
+            {
+                result.add( new Recommendation( "Merge " + chain + " (" + chain.size()
+                    + " modules with more overhead than work)", chainOverhead - maxOverhead ) );
+            }
+        }
+    }
+
+    public void report()
+    {
+        List<Recommendation> recommendations = getRecommendations();
+        if ( recommendations.isEmpty() )
+        {
+            return;
+        }
+        LOGGER.info( "Module structure recommendations (estimated saving):" );
+        LOGGER.info( "" );
+        for ( Recommendation recommendation : recommendations )
+        {
+            LOGGER.info( "{} ms : {}", String.format( "%8d", recommendation.getSaving() ),
+                         recommendation.getDescription() );
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+}
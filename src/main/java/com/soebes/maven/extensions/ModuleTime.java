@@ -0,0 +1,72 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The times of a module of the reactor in milliseconds.
+ */
+class ModuleTime
+{
+    private final String projectId;
+
+    private final long wallTime;
+
+    private final long queueWait;
+
+    private final long gapTime;
+
+    ModuleTime( String projectId, long wallTime, long queueWait, long gapTime )
+    {
+        this.projectId = projectId;
+        this.wallTime = wallTime;
+        this.queueWait = queueWait;
+        this.gapTime = gapTime;
+    }
+
+    public String getProjectId()
+    {
+        return projectId;
+    }
+
+    /**
+     * @return The time from the start to the end of the module.
+     */
+    public long getWallTime()
+    {
+        return wallTime;
+    }
+
+    /**
+     * @return The time from the end of its last upstream module (or the start of the session) to its start. With
+     *         {@code -T} this is the time the module waited for a free builder thread.
+     */
+    public long getQueueWait()
+    {
+        return queueWait;
+    }
+
+    /**
+     * @return The part of the wall time in which none of its mojos has been running.
+     */
+    public long getGapTime()
+    {
+        return gapTime;
+    }
+}
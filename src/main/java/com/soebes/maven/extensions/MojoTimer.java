@@ -19,10 +19,9 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.maven.execution.ExecutionEvent;
 import org.apache.maven.plugin.MojoExecution;
@@ -30,6 +29,9 @@ import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
@@ -37,11 +39,16 @@ class MojoTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private Map<ProjectMojo, SystemTime> timerEvents;
+    private final SpanTree spanTree;
 
     public MojoTimer()
     {
-        this.timerEvents = new ConcurrentHashMap<>();
+        this( new SpanTree() );
+    }
+
+    public MojoTimer( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
     }
 
     private ProjectKey createProjectKey( MavenProject project )
@@ -57,7 +64,7 @@ class MojoTimer
 
     public boolean hasEvents()
     {
-        return !this.timerEvents.isEmpty();
+        return spanTree.hasSpans( SpanKind.MOJO );
     }
 
     public void mojoStart( ExecutionEvent event )
@@ -65,81 +72,93 @@ class MojoTimer
 
         ProjectMojo pm =
             new ProjectMojo( createProjectKey( event.getProject() ), createMojoKey( event.getMojoExecution() ) );
-        timerEvents.put( pm, new SystemTime().start() );
+        spanTree.start( SpanKind.MOJO, pm );
     }
 
-    public void mojoStop( ExecutionEvent event )
+    /**
+     * @return The span of the mojo execution.
+     */
+    public int mojoStop( ExecutionEvent event )
     {
         ProjectMojo pm =
             new ProjectMojo( createProjectKey( event.getProject() ), createMojoKey( event.getMojoExecution() ) );
-        if ( !timerEvents.containsKey( pm ) )
+        int span = spanTree.stop( SpanKind.MOJO, pm, event.getType() == ExecutionEvent.Type.MojoFailed );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown mojoId (" + pm + ")" );
         }
-        timerEvents.get( pm ).stop();
+        return span;
     }
 
-    public long getTimeForPhaseInMillis( String phase )
+    private ProjectMojo getProjectMojo( int span )
     {
-        long result = 0;
+        return (ProjectMojo) spanTree.getKey( span );
+    }
 
-        for ( Entry<ProjectMojo, SystemTime> item : this.timerEvents.entrySet() )
+    /**
+     * @return The time in milliseconds per phase, calculated in one pass over the mojo executions.
+     */
+    public Map<String, Long> getTimePerPhase()
+    {
+        Map<String, Long> result = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
         {
-            if ( phase.equals( item.getKey().getMojo().getPhase() ) )
-            {
-                result += item.getValue().getElapsedTime();
-            }
+            add( result, getProjectMojo( span ).getMojo().getPhase(), spanTree.getElapsedTime( span ) );
         }
         return result;
     }
 
-    public Map<ProjectMojo, SystemTime> getPluginsInPhase( String phase )
+    /**
+     * @return The time in milliseconds per mojo execution of each phase.
+     */
+    public Map<String, Map<ProjectMojo, Long>> getPluginsPerPhase()
     {
-        Map<ProjectMojo, SystemTime> result = new LinkedHashMap<ProjectMojo, SystemTime>();
-
-        for ( Entry<ProjectMojo, SystemTime> item : this.timerEvents.entrySet() )
+        Map<String, Map<ProjectMojo, Long>> result = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
         {
-            if ( phase.equals( item.getKey().getMojo().getPhase() ) )
+            ProjectMojo projectMojo = getProjectMojo( span );
+            Map<ProjectMojo, Long> plugins = result.get( projectMojo.getMojo().getPhase() );
+            if ( plugins == null )
             {
-                result.put( item.getKey(), item.getValue() );
+                plugins = new LinkedHashMap<>();
+                result.put( projectMojo.getMojo().getPhase(), plugins );
             }
+            plugins.put( projectMojo, spanTree.getElapsedTime( span ) );
         }
         return result;
     }
 
-    public boolean hasTimeForProjectAndPhase( ProjectKey proKey, String phase )
+    /**
+     * @return The time in milliseconds per phase of each project which has executed mojos in that phase.
+     */
+    public Map<ProjectKey, Map<String, Long>> getTimePerProjectAndPhase()
     {
-        boolean result = false;
-        for ( Entry<ProjectMojo, SystemTime> item : this.timerEvents.entrySet() )
+        Map<ProjectKey, Map<String, Long>> result = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
         {
-            if ( item.getKey().getProject().equals( proKey ) && phase.equals( item.getKey().getMojo().getPhase() ) )
+            ProjectMojo projectMojo = getProjectMojo( span );
+            Map<String, Long> phases = result.get( projectMojo.getProject() );
+            if ( phases == null )
             {
-                result = true;
+                phases = new HashMap<>();
+                result.put( projectMojo.getProject(), phases );
             }
+            add( phases, projectMojo.getMojo().getPhase(), spanTree.getElapsedTime( span ) );
         }
         return result;
     }
 
-    public long getTimeForProjectAndPhaseInMillis( ProjectKey proKey, String phase )
+    private static void add( Map<String, Long> time, String phase, long value )
     {
-        long result = 0;
-
-        for ( Entry<ProjectMojo, SystemTime> item : this.timerEvents.entrySet() )
-        {
-            if ( item.getKey().getProject().equals( proKey ) && phase.equals( item.getKey().getMojo().getPhase() ) )
-            {
-                result += item.getValue().getElapsedTime();
-            }
-        }
-
-        return result;
+        Long current = time.get( phase );
+        time.put( phase, current == null ? value : current + value );
     }
 
     public void report()
     {
-        for ( Entry<ProjectMojo, SystemTime> item : this.timerEvents.entrySet() )
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
         {
-            LOGGER.info( "{} : {}", item.getKey().getId(), item.getValue().getElapsedTime() );
+            LOGGER.info( "{} : {}", getProjectMojo( span ).getId(), spanTree.getElapsedTime( span ) );
         }
     }
 }
@@ -0,0 +1,233 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects mojo executions which did not change any file in the build directory ({@code target/}) of their project,
+ * for example a resources copy without resources or a compile of up to date classes. Around each execution the path,
+ * modification time and size of all files of the build directory are folded into a fingerprint; the content of the
+ * files is not read. The time of the executions without changes is summed up per plugin goal.
+ * <p>
+ * The mojos of a project run one after another, so the fingerprint after an execution is reused as the fingerprint
+ * before the next execution of the project and the build directory is only walked once per execution. The
+ * fingerprints are taken outside of the span of the mojo, so they do not add to its time.
+ * <p>
+ * Mojos which only write outside of the build directory (install, deploy) are reported as well.
+ */
+class NoOpMojoDetector
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    /**
+     * Key: project and mojo execution, value: the fingerprint before the execution.
+     */
+    private final ConcurrentMap<String, Long> fingerprints;
+
+    /**
+     * Key: project, value: the fingerprint after its last successful execution.
+     */
+    private final ConcurrentMap<String, Long> lastFingerprints;
+
+    /**
+     * Key: plugin goal, value: index 0 the executions, index 1 the executions without changes, index 2 their time.
+     */
+    private final ConcurrentMap<String, AtomicLong[]> plugins;
+
+    NoOpMojoDetector()
+    {
+        this.fingerprints = new ConcurrentHashMap<>();
+        this.lastFingerprints = new ConcurrentHashMap<>();
+        this.plugins = new ConcurrentHashMap<>();
+    }
+
+    private String getExecutionId( ExecutionEvent event )
+    {
+        MojoExecution mojo = event.getMojoExecution();
+        return event.getProject().getId() + ":" + mojo.getGroupId() + ":" + mojo.getArtifactId() + ":"
+            + mojo.getGoal() + ":" + mojo.getExecutionId();
+    }
+
+    private String getPluginId( MojoExecution mojo )
+    {
+        return mojo.getGroupId() + ":" + mojo.getArtifactId() + ":" + mojo.getGoal();
+    }
+
+    private File getBuildDirectory( ExecutionEvent event )
+    {
+        return new File( event.getProject().getBuild().getDirectory() );
+    }
+
+    public void mojoStart( ExecutionEvent event )
+    {
+        Long last = lastFingerprints.remove( event.getProject().getId() );
+        fingerprints.put( getExecutionId( event ), last != null ? last : fingerprint( getBuildDirectory( event ) ) );
+    }
+
+    /**
+     * @param time The time of the execution in milliseconds.
+     */
+    public void mojoSucceeded( ExecutionEvent event, long time )
+    {
+        Long before = fingerprints.remove( getExecutionId( event ) );
+        if ( before == null )
+        {
+            throw new IllegalArgumentException( "Unknown mojoId (" + getExecutionId( event ) + ")" );
+        }
+        AtomicLong[] plugin = getPlugin( getPluginId( event.getMojoExecution() ) );
+        plugin[0].incrementAndGet();
+        long after = fingerprint( getBuildDirectory( event ) );
+        lastFingerprints.put( event.getProject().getId(), after );
+        if ( before == after )
+        {
+            plugin[1].incrementAndGet();
+            plugin[2].addAndGet( time );
+        }
+    }
+
+    /**
+     * A failed or skipped execution is not taken into account. The next execution of the project takes a new
+     * fingerprint.
+     */
+    public void mojoStop( ExecutionEvent event )
+    {
+        fingerprints.remove( getExecutionId( event ) );
+        lastFingerprints.remove( event.getProject().getId() );
+    }
+
+    private AtomicLong[] getPlugin( String pluginId )
+    {
+        AtomicLong[] result = plugins.get( pluginId );
+        if ( result == null )
+        {
+            plugins.putIfAbsent( pluginId, new AtomicLong[] { new AtomicLong(), new AtomicLong(), new AtomicLong() } );
+            result = plugins.get( pluginId );
+        }
+        return result;
+    }
+
+    /**
+     * @return The executions, the executions without changes and their time in milliseconds of the plugin goal
+     *         ({@code groupId:artifactId:goal}) or {@code null} if it has not been executed.
+     */
+    long[] getPluginStatistics( String pluginId )
+    {
+        AtomicLong[] plugin = plugins.get( pluginId );
+        return plugin == null ? null : new long[] { plugin[0].get(), plugin[1].get(), plugin[2].get() };
+    }
+
+    /**
+     * @return A fingerprint of the names, modification times and sizes of all files of the directory. It is
+     *         independent of the order the files are visited in.
+     */
+    static long fingerprint( File directory )
+    {
+        final long[] result = new long[1];
+        if ( !directory.isDirectory() )
+        {
+            return 0;
+        }
+        try
+        {
+            Files.walkFileTree( directory.toPath(), new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attributes )
+                {
+                    long hash = file.toString().hashCode();
+                    hash = hash * 31 + attributes.lastModifiedTime().toMillis();
+                    hash = hash * 31 + attributes.size();
+                    // Mix the bits so the sum of the files does not cancel out.
+                    hash *= 0x9E3779B97F4A7C15L;
+                    result[0] += hash ^ ( hash >>> 29 );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed( Path file, IOException e )
+                {
+                    // The file has been deleted while walking the tree.
+                    result[0]++;
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            // Can't be fingerprinted, so it is treated as changed.
+            return System.nanoTime();
+        }
+        return result[0];
+    }
+
+    public void report()
+    {
+        final Map<String, AtomicLong[]> noOps = new HashMap<>();
+        for ( Map.Entry<String, AtomicLong[]> plugin : plugins.entrySet() )
+        {
+            if ( plugin.getValue()[1].get() > 0 )
+            {
+                noOps.put( plugin.getKey(), plugin.getValue() );
+            }
+        }
+        if ( noOps.isEmpty() )
+        {
+            return;
+        }
+        List<String> sorted = new ArrayList<>( noOps.keySet() );
+        Collections.sort( sorted, new Comparator<String>()
+        {
+            public int compare( String left, String right )
+            {
+                return Long.compare( noOps.get( right )[2].get(), noOps.get( left )[2].get() );
+            }
+        } );
+        LOGGER.info( "Mojos without changes in the build directory:" );
+        LOGGER.info( "" );
+        for ( String plugin : sorted )
+        {
+            AtomicLong[] statistics = noOps.get( plugin );
+            LOGGER.info( "{} ms : {} ({} of {} executions)", String.format( "%8d", statistics[2].get() ), plugin,
+                         statistics[1].get(), statistics[0].get() );
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+}
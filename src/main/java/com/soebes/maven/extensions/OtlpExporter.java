@@ -0,0 +1,330 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports spans as OTLP/JSON (an {@code ExportTraceServiceRequest} per batch) either to a file, one request per
+ * line, or via http to an OTLP endpoint, for example a local OpenTelemetry collector
+ * ({@code http://localhost:4318/v1/traces}).
+ * <p>
+ * The builder threads only put the spans into a bounded queue. A single daemon thread collects them into batches
+ * and does the formatting and the I/O. If the queue is full spans are dropped instead of slowing down the build.
+ */
+class OtlpExporter
+    implements Runnable
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final int QUEUE_CAPACITY = 65536;
+
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Marks the end of the spans in the queue.
+     */
+    private static final Span END =
+        new Span( null, null, null, null, 0, 0, false, Collections.<String, Object>emptyMap() );
+
+    private final File file;
+
+    private final URL endpoint;
+
+    private final int batchSize;
+
+    private final BlockingQueue<Span> queue;
+
+    private final AtomicLong dropped;
+
+    private volatile boolean closed;
+
+    private Thread thread;
+
+    /**
+     * @param file The file to append to or {@code null}.
+     * @param endpoint The OTLP/http endpoint to send to or {@code null}.
+     * @param batchSize The maximum number of spans per request.
+     */
+    OtlpExporter( File file, URL endpoint, int batchSize )
+    {
+        if ( batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid batch size (" + batchSize + ")" );
+        }
+        this.file = file;
+        this.endpoint = endpoint;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>( QUEUE_CAPACITY );
+        this.dropped = new AtomicLong();
+    }
+
+    public void start()
+    {
+        if ( file != null )
+        {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if ( !parent.isDirectory() && !parent.mkdirs() )
+            {
+                LOGGER.warn( "MBTP: Could not create directory {}", parent );
+            }
+            if ( file.exists() && !file.delete() )
+            {
+                LOGGER.warn( "MBTP: Could not delete {}", file );
+            }
+        }
+        thread = new Thread( this, "mbtp-otlp" );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * Called on the builder threads, so this must not block.
+     */
+    public void export( Span span )
+    {
+        if ( closed || !queue.offer( span ) )
+        {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Sends the remaining spans and stops the exporter thread.
+     */
+    public void close()
+    {
+        closed = true;
+        if ( thread == null )
+        {
+            return;
+        }
+        // If the queue is full the exporter thread ends as soon as it has been drained.
+        queue.offer( END );
+        try
+        {
+            thread.join( CLOSE_TIMEOUT_MILLIS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( dropped.get() > 0 )
+        {
+            LOGGER.warn( "MBTP: {} spans have not been exported.", dropped.get() );
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        List<Span> batch = new ArrayList<>( batchSize );
+        boolean end = false;
+        while ( !end )
+        {
+            Span span;
+            try
+            {
+                span = queue.poll( FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+            }
+            catch ( InterruptedException e )
+            {
+                return;
+            }
+            if ( span == END || span == null && closed )
+            {
+                end = true;
+            }
+            if ( span != null && span != END )
+            {
+                batch.add( span );
+            }
+            queue.drainTo( batch, batchSize - batch.size() );
+            end |= batch.remove( END );
+            // Send full batches immediately, the rest after the flush interval or at the end.
+            if ( end || span == null || batch.size() >= batchSize )
+            {
+                send( batch );
+                batch.clear();
+            }
+        }
+        // Spans which have been queued at the same time as the end marker.
+        queue.drainTo( batch );
+        send( batch );
+    }
+
+    private void send( List<Span> spans )
+    {
+        for ( int i = 0; i < spans.size(); i += batchSize )
+        {
+            sendBatch( spans.subList( i, Math.min( spans.size(), i + batchSize ) ) );
+        }
+    }
+
+    private void sendBatch( List<Span> batch )
+    {
+        String request;
+        try
+        {
+            request = toJson( batch );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+        if ( file != null )
+        {
+            write( request );
+        }
+        if ( endpoint != null )
+        {
+            post( request, batch.size() );
+        }
+    }
+
+    private void write( String request )
+    {
+        try ( OutputStream out = new FileOutputStream( file, true ) )
+        {
+            out.write( request.getBytes( StandardCharsets.UTF_8 ) );
+            out.write( '\n' );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not write to {}", file, e );
+        }
+    }
+
+    private void post( String request, int spans )
+    {
+        try
+        {
+            HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+            connection.setConnectTimeout( TIMEOUT_MILLIS );
+            connection.setReadTimeout( TIMEOUT_MILLIS );
+            connection.setRequestMethod( "POST" );
+            connection.setRequestProperty( "Content-Type", "application/json" );
+            connection.setDoOutput( true );
+            try ( OutputStream out = connection.getOutputStream() )
+            {
+                out.write( request.getBytes( StandardCharsets.UTF_8 ) );
+            }
+            int responseCode = connection.getResponseCode();
+            if ( responseCode / 100 != 2 )
+            {
+                LOGGER.warn( "MBTP: Sending {} spans to {} failed with {}", spans, endpoint, responseCode );
+            }
+            connection.disconnect();
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not send {} spans to {}: {}", spans, endpoint, e.getMessage() );
+        }
+    }
+
+    static String toJson( List<Span> spans )
+        throws IOException
+    {
+        StringWriter result = new StringWriter();
+        JsonWriter json = new JsonWriter( result );
+        json.beginObject().name( "resourceSpans" ).beginArray().beginObject();
+        json.name( "resource" ).beginObject().name( "attributes" ).beginArray();
+        attribute( json, "service.name", "maven" );
+        json.endArray().endObject();
+        json.name( "scopeSpans" ).beginArray().beginObject();
+        json.name( "scope" ).beginObject();
+        json.name( "name" ).value( "maven-buildtime-profiler" );
+        json.name( "version" ).value( BuildTimeProfilerVersion.getVersion() );
+        json.endObject();
+        json.name( "spans" ).beginArray();
+        for ( Span span : spans )
+        {
+            json.beginObject();
+            json.name( "traceId" ).value( span.getTraceId() );
+            json.name( "spanId" ).value( span.getSpanId() );
+            if ( span.getParentSpanId() != null )
+            {
+                json.name( "parentSpanId" ).value( span.getParentSpanId() );
+            }
+            json.name( "name" ).value( span.getName() );
+            // SPAN_KIND_INTERNAL
+            json.name( "kind" ).value( 1 );
+            // 64 bit integers are written as strings in OTLP/JSON.
+            json.name( "startTimeUnixNano" ).value( Long.toString( span.getStartTime() ) );
+            json.name( "endTimeUnixNano" ).value( Long.toString( span.getEndTime() ) );
+            json.name( "attributes" ).beginArray();
+            for ( Entry<String, Object> item : span.getAttributes().entrySet() )
+            {
+                attribute( json, item.getKey(), item.getValue() );
+            }
+            json.endArray();
+            // STATUS_CODE_ERROR or STATUS_CODE_UNSET
+            json.name( "status" ).beginObject().name( "code" ).value( span.isError() ? 2 : 0 ).endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject().endArray();
+        json.endObject().endArray().endObject();
+        json.flush();
+        return result.toString();
+    }
+
+    private static void attribute( JsonWriter json, String key, Object value )
+        throws IOException
+    {
+        json.beginObject().name( "key" ).value( key ).name( "value" ).beginObject();
+        if ( value instanceof Long )
+        {
+            json.name( "intValue" ).value( value.toString() );
+        }
+        else
+        {
+            json.name( "stringValue" ).value( String.valueOf( value ) );
+        }
+        json.endObject().endObject();
+    }
+}
@@ -0,0 +1,150 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanListener;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Converts each span of the {@link SpanTree} into an OpenTelemetry span as soon as it has been ended and hands it
+ * over to the {@link OtlpExporter}. The span ids are derived from the index of the span in the tree, so the parent
+ * ids are known without any additional bookkeeping.
+ */
+class OtlpSpanListener
+    implements SpanListener
+{
+    private final OtlpExporter exporter;
+
+    private final String traceId;
+
+    private final long spanIdBase;
+
+    OtlpSpanListener( OtlpExporter exporter )
+    {
+        this.exporter = exporter;
+        this.traceId = randomId() + randomId();
+        // Leaves room for 2^32 spans without getting the invalid span id 0.
+        this.spanIdBase = ThreadLocalRandom.current().nextLong() | 0x100000000L;
+    }
+
+    public String getTraceId()
+    {
+        return traceId;
+    }
+
+    String getSpanId( int span )
+    {
+        return String.format( "%016x", spanIdBase + span );
+    }
+
+    static String randomId()
+    {
+        long value = 0;
+        while ( value == 0 )
+        {
+            value = ThreadLocalRandom.current().nextLong();
+        }
+        return String.format( "%016x", value );
+    }
+
+    @Override
+    public void spanEnded( SpanTree tree, int span )
+    {
+        int parent = tree.getParent( span );
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        String name = getNameAndAttributes( tree, span, attributes );
+        exporter.export( new Span( traceId, getSpanId( span ), parent == SpanTree.NO_SPAN ? null : getSpanId( parent ),
+                                   name, tree.getStartTime( span ), tree.getEndTime( span ), tree.isFailed( span ),
+                                   attributes ) );
+    }
+
+    private String getNameAndAttributes( SpanTree tree, int span, Map<String, Object> attributes )
+    {
+        SpanKind kind = tree.getKind( span );
+        Object key = tree.getKey( span );
+        switch ( kind )
+        {
+            case SESSION:
+                return "session";
+            case PROJECT:
+                attributes.put( "maven.project.id", key );
+                return "project " + key;
+            case FORKED_PROJECT:
+                attributes.put( "maven.project.id", key );
+                return "forked project " + key;
+            case FORK:
+                return "fork";
+            case MOJO:
+                ProjectMojo mojo = (ProjectMojo) key;
+                pluginAttributes( attributes, mojo.getMojo(), mojo.getMojo().getGoal(),
+                                  mojo.getMojo().getExecutionId() );
+                if ( mojo.getMojo().getPhase() != null )
+                {
+                    attributes.put( "maven.lifecycle.phase", mojo.getMojo().getPhase() );
+                }
+                return mojo.getMojo().getArtifactId() + ":" + mojo.getMojo().getGoal() + " ("
+                    + mojo.getMojo().getExecutionId() + ")";
+            case GOAL:
+                ProjectGoal goal = (ProjectGoal) key;
+                pluginAttributes( attributes, goal.getMojo(), goal.getMojo().getGoal(),
+                                  goal.getMojo().getExecutionId() );
+                return goal.getMojo().getArtifactId() + ":" + goal.getMojo().getGoal() + " ("
+                    + goal.getMojo().getExecutionId() + ")";
+            case DOWNLOAD:
+            case METADATA_DOWNLOAD:
+                return transferAttributes( tree, span, attributes, "download" );
+            case DEPLOY:
+            case METADATA_DEPLOY:
+                return transferAttributes( tree, span, attributes, "deploy" );
+            case INSTALL:
+            case METADATA_INSTALL:
+                return transferAttributes( tree, span, attributes, "install" );
+            default:
+                throw new IllegalArgumentException( "Unknown kind (" + kind + ")" );
+        }
+    }
+
+    private void pluginAttributes( Map<String, Object> attributes, ProjectKey plugin, String goal,
+                                   String executionId )
+    {
+        attributes.put( "maven.plugin.groupId", plugin.getGroupId() );
+        attributes.put( "maven.plugin.artifactId", plugin.getArtifactId() );
+        attributes.put( "maven.plugin.version", plugin.getVersion() );
+        attributes.put( "maven.mojo.goal", goal );
+        attributes.put( "maven.mojo.executionId", executionId );
+    }
+
+    private String transferAttributes( SpanTree tree, int span, Map<String, Object> attributes, String direction )
+    {
+        attributes.put( "maven.transfer.direction", direction );
+        attributes.put( "maven.transfer.target", tree.getKey( span ) );
+        if ( tree.getRepository( span ) != null )
+        {
+            attributes.put( "maven.repository", tree.getRepository( span ) );
+        }
+        attributes.put( "maven.transfer.bytes", tree.getBytes( span ) );
+        return direction + " " + tree.getKey( span );
+    }
+}
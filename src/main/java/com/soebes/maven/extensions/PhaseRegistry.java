@@ -0,0 +1,72 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the lifecycle phases which have been executed. Every mojo start registers its phase, so with a parallel
+ * build all builder threads call {@link #add(String)}. The membership test is a lock free
+ * {@link ConcurrentMap#putIfAbsent(Object, Object)} and only the thread which has added a phase first appends it to
+ * the lock free queue which keeps the order of first occurrence.
+ */
+class PhaseRegistry
+{
+    private final ConcurrentMap<String, Boolean> known;
+
+    private final Queue<String> phases;
+
+    PhaseRegistry()
+    {
+        this.known = new ConcurrentHashMap<>();
+        this.phases = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * @return {@code true} if the phase has not been added before.
+     */
+    public boolean add( String phase )
+    {
+        if ( known.containsKey( phase ) || known.putIfAbsent( phase, Boolean.TRUE ) != null )
+        {
+            return false;
+        }
+        phases.add( phase );
+        return true;
+    }
+
+    public boolean contains( String phase )
+    {
+        return known.containsKey( phase );
+    }
+
+    /**
+     * @return A copy of the phases in the order of their first occurrence.
+     */
+    public List<String> getPhases()
+    {
+        return new ArrayList<>( phases );
+    }
+}
@@ -0,0 +1,118 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Aggregates the executions of each plugin goal ({@code groupId:artifactId:version:goal}) over all projects of the
+ * reactor, including the goals called directly. This shows where an upgrade or a configuration change of a plugin
+ * pays off most.
+ */
+class PluginAggregation
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    private final SpanTree spanTree;
+
+    PluginAggregation( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
+    }
+
+    /**
+     * @return The statistics per plugin goal, the largest total time first.
+     */
+    public Map<String, PluginStatistics> getPlugins()
+    {
+        final Map<String, PluginStatistics> plugins = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            ProjectMojo mojo = (ProjectMojo) spanTree.getKey( span );
+            add( plugins, mojo.getMojo().getId() + ":" + mojo.getMojo().getGoal(), mojo.getProject().getId(),
+                 spanTree.getElapsedTime( span ) );
+        }
+        for ( int span : spanTree.getSpans( SpanKind.GOAL ) )
+        {
+            ProjectGoal goal = (ProjectGoal) spanTree.getKey( span );
+            add( plugins, goal.getMojo().getId() + ":" + goal.getMojo().getGoal(), goal.getProject().getId(),
+                 spanTree.getElapsedTime( span ) );
+        }
+
+        List<String> sorted = new ArrayList<>( plugins.keySet() );
+        Collections.sort( sorted, new Comparator<String>()
+        {
+            public int compare( String left, String right )
+            {
+                return Long.compare( plugins.get( right ).getTotal(), plugins.get( left ).getTotal() );
+            }
+        } );
+        Map<String, PluginStatistics> result = new LinkedHashMap<>();
+        for ( String plugin : sorted )
+        {
+            result.put( plugin, plugins.get( plugin ) );
+        }
+        return result;
+    }
+
+    private void add( Map<String, PluginStatistics> plugins, String plugin, String project, long time )
+    {
+        PluginStatistics statistics = plugins.get( plugin );
+        if ( statistics == null )
+        {
+            statistics = new PluginStatistics();
+            plugins.put( plugin, statistics );
+        }
+        statistics.add( project, time );
+    }
+
+    public void report()
+    {
+        Map<String, PluginStatistics> plugins = getPlugins();
+        if ( plugins.isEmpty() )
+        {
+            return;
+        }
+        LOGGER.info( "Plugins summed up over all projects:" );
+        LOGGER.info( "" );
+        for ( Map.Entry<String, PluginStatistics> plugin : plugins.entrySet() )
+        {
+            PluginStatistics statistics = plugin.getValue();
+            LOGGER.info( "{} ms : {} ({} executions, mean {} ms, stddev {} ms, max {} ms in {})",
+                         String.format( "%8d", statistics.getTotal() ), plugin.getKey(), statistics.getCount(),
+                         String.format( "%.0f", statistics.getMean() ),
+                         String.format( "%.0f", statistics.getStandardDeviation() ), statistics.getMax(),
+                         statistics.getSlowestProject() );
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+}
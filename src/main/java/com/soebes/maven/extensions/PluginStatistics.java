@@ -0,0 +1,90 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The statistics of the executions of a plugin goal over all projects. The variance is accumulated with Welford's
+ * algorithm, so the executions need not be kept.
+ */
+class PluginStatistics
+{
+    private long count;
+
+    private long total;
+
+    private long max;
+
+    private String slowestProject;
+
+    private double mean;
+
+    private double squaredDeviations;
+
+    /**
+     * @param project The id of the project the plugin has been executed for.
+     * @param time The time of the execution in milliseconds.
+     */
+    public void add( String project, long time )
+    {
+        if ( count == 0 || time > max )
+        {
+            max = time;
+            slowestProject = project;
+        }
+        count++;
+        total += time;
+        double delta = time - mean;
+        mean += delta / count;
+        squaredDeviations += delta * ( time - mean );
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return The population standard deviation of the execution times.
+     */
+    public double getStandardDeviation()
+    {
+        return count == 0 ? 0 : Math.sqrt( squaredDeviations / count );
+    }
+
+    public String getSlowestProject()
+    {
+        return slowestProject;
+    }
+}
@@ -0,0 +1,338 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+
+/**
+ * Compares two profiles written via {@code -Dmbtp.profile.file} (or taken from the history), for example before and
+ * after a plugin upgrade:
+ *
+ * <pre>
+ * java -cp maven-buildtime-profiler.jar com.soebes.maven.extensions.ProfileDiff before.txt after.txt [top]
+ * </pre>
+ *
+ * The differences of the plugin goals, projects, phases and transfers are ranked by their absolute change. A change
+ * is significant if it is at least {@value #MIN_CHANGE} ms and {@value #MIN_RELATIVE_CHANGE}% of the larger of both
+ * durations, smaller changes are within the usual noise of a build.
+ * <p>
+ * Plugins and projects are matched without their version, so an upgrade shows up as a change with both versions.
+ * Profiles of older versions, which contain the version in the name of a plugin or project, are matched as well.
+ * <p>
+ * Only the first profile (one number and version per entry) and the {@code top} largest changes of each dimension are
+ * kept in memory, the second profile is compared line by line while reading it. It does not use a logger, so it runs
+ * without Maven on the class path.
+ */
+public class ProfileDiff
+{
+    static final long MIN_CHANGE = 100;
+
+    static final int MIN_RELATIVE_CHANGE = 5;
+
+    private static final int DEFAULT_TOP = 20;
+
+    private static final String[] DIMENSIONS = { "build", "plugin", "project", "phase", "transfer" };
+
+    static final class Difference
+    {
+        private final String dimension;
+
+        private final String name;
+
+        private final long before;
+
+        private final long after;
+
+        private final String beforeVersion;
+
+        private final String afterVersion;
+
+        Difference( String dimension, String name, long before, long after )
+        {
+            this( dimension, name, before, after, null, null );
+        }
+
+        Difference( String dimension, String name, long before, long after, String beforeVersion,
+                    String afterVersion )
+        {
+            this.dimension = dimension;
+            this.name = name;
+            this.before = before;
+            this.after = after;
+            this.beforeVersion = beforeVersion;
+            this.afterVersion = afterVersion;
+        }
+
+        public String getDimension()
+        {
+            return dimension;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @return The duration in the first profile or {@code -1} if it is not part of it.
+         */
+        public long getBefore()
+        {
+            return before;
+        }
+
+        /**
+         * @return The duration in the second profile or {@code -1} if it is not part of it.
+         */
+        public long getAfter()
+        {
+            return after;
+        }
+
+        /**
+         * @return The version in the first profile or {@code null} if it is not known.
+         */
+        public String getBeforeVersion()
+        {
+            return beforeVersion;
+        }
+
+        /**
+         * @return The version in the second profile or {@code null} if it is not known.
+         */
+        public String getAfterVersion()
+        {
+            return afterVersion;
+        }
+
+        public long getChange()
+        {
+            return Math.max( 0, after ) - Math.max( 0, before );
+        }
+
+        public boolean isSignificant()
+        {
+            long change = Math.abs( getChange() );
+            return change >= MIN_CHANGE && change * 100 >= MIN_RELATIVE_CHANGE * Math.max( before, after );
+        }
+    }
+
+    /**
+     * @return The dimension, the name, the duration and the version (or {@code null}) in a line of a profile or
+     *         {@code null} for lines without a duration.
+     */
+    private static String[] parse( String line )
+    {
+        String[] fields = line.split( "\t" );
+        switch ( fields[0] )
+        {
+            case "B":
+                return new String[] { "build", "wall time", fields[5], null };
+            case "P":
+                return new String[] { "phase", fields[1], fields[2], null };
+            case "G":
+                return withoutVersion( "plugin", fields[1], fields[2], fields.length > 3 ? fields[3] : null, 2 );
+            case "M":
+                return withoutVersion( "project", fields[1], fields[3], fields.length > 4 ? fields[4] : null, 3 );
+            case "T":
+                return new String[] { "transfer", fields[1], fields[2], null };
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Older profiles contain the version in the name: {@code groupId:artifactId:version:goal} for a plugin and
+     * {@code groupId:artifactId:packaging:version} for a project.
+     *
+     * @param versionPart The part of the name of an older profile which is the version.
+     */
+    private static String[] withoutVersion( String dimension, String name, String duration, String version,
+                                            int versionPart )
+    {
+        String[] parts = name.split( ":" );
+        if ( version != null && !"-".equals( version ) )
+        {
+            return new String[] { dimension, name, duration, version };
+        }
+        if ( parts.length != 4 )
+        {
+            return new String[] { dimension, name, duration, null };
+        }
+        String stripped =
+            "plugin".equals( dimension ) ? parts[0] + ":" + parts[1] + ":" + parts[3] : parts[0] + ":" + parts[1];
+        return new String[] { dimension, stripped, duration, parts[versionPart] };
+    }
+
+    private static final Comparator<Difference> BY_CHANGE = new Comparator<Difference>()
+    {
+        public int compare( Difference left, Difference right )
+        {
+            return Long.compare( Math.abs( right.getChange() ), Math.abs( left.getChange() ) );
+        }
+    };
+
+    /**
+     * @param top The number of differences per dimension.
+     * @return The largest differences of each dimension, the largest absolute change first.
+     */
+    static List<Difference> diff( Reader before, Reader after, int top )
+        throws IOException
+    {
+        Map<String, Long> durations = new HashMap<>();
+        Map<String, String> versions = new HashMap<>();
+        BufferedReader beforeLines = new BufferedReader( before );
+        for ( String line = beforeLines.readLine(); line != null; line = beforeLines.readLine() )
+        {
+            String[] duration = parse( line );
+            if ( duration != null )
+            {
+                durations.put( duration[0] + '\t' + duration[1], Long.parseLong( duration[2] ) );
+                if ( duration[3] != null )
+                {
+                    versions.put( duration[0] + '\t' + duration[1], duration[3] );
+                }
+            }
+        }
+
+        // The smallest of the largest changes of each dimension is at the head of its queue.
+        Map<String, PriorityQueue<Difference>> largest = new HashMap<>();
+        BufferedReader afterLines = new BufferedReader( after );
+        for ( String line = afterLines.readLine(); line != null; line = afterLines.readLine() )
+        {
+            String[] duration = parse( line );
+            if ( duration != null )
+            {
+                String key = duration[0] + '\t' + duration[1];
+                Long previous = durations.remove( key );
+                add( largest, top, new Difference( duration[0], duration[1], previous == null ? -1 : previous,
+                                                   Long.parseLong( duration[2] ), versions.remove( key ),
+                                                   duration[3] ) );
+            }
+        }
+        for ( Entry<String, Long> removed : durations.entrySet() )
+        {
+            String[] key = removed.getKey().split( "\t", 2 );
+            add( largest, top, new Difference( key[0], key[1], removed.getValue(), -1,
+                                               versions.get( removed.getKey() ), null ) );
+        }
+
+        List<Difference> result = new ArrayList<>();
+        for ( PriorityQueue<Difference> differences : largest.values() )
+        {
+            result.addAll( differences );
+        }
+        Collections.sort( result, BY_CHANGE );
+        return result;
+    }
+
+    private static void add( Map<String, PriorityQueue<Difference>> largest, int top, Difference difference )
+    {
+        PriorityQueue<Difference> differences = largest.get( difference.getDimension() );
+        if ( differences == null )
+        {
+            differences = new PriorityQueue<>( 11, Collections.reverseOrder( BY_CHANGE ) );
+            largest.put( difference.getDimension(), differences );
+        }
+        differences.add( difference );
+        if ( differences.size() > top )
+        {
+            differences.poll();
+        }
+    }
+
+    static void report( List<Difference> differences, int top, PrintStream out )
+    {
+        for ( String dimension : DIMENSIONS )
+        {
+            List<Difference> selected = new ArrayList<>();
+            for ( Difference difference : differences )
+            {
+                if ( dimension.equals( difference.getDimension() ) && selected.size() < top )
+                {
+                    selected.add( difference );
+                }
+            }
+            if ( selected.isEmpty() )
+            {
+                continue;
+            }
+            out.println( "Changes per " + dimension + " (* significant):" );
+            for ( Difference difference : selected )
+            {
+                out.println( String.format( "%+9d ms %s %s%s (%s -> %s)", difference.getChange(),
+                                            difference.isSignificant() ? "*" : " ", difference.getName(),
+                                            formatVersions( difference ), format( difference.getBefore() ),
+                                            format( difference.getAfter() ) ) );
+            }
+            out.println( "------------------------------------------------------------------------" );
+        }
+    }
+
+    private static String format( long duration )
+    {
+        return duration < 0 ? "none" : duration + " ms";
+    }
+
+    private static String formatVersions( Difference difference )
+    {
+        if ( difference.getBeforeVersion() == null && difference.getAfterVersion() == null )
+        {
+            return "";
+        }
+        return " [" + formatVersion( difference.getBeforeVersion() ) + " -> "
+            + formatVersion( difference.getAfterVersion() ) + "]";
+    }
+
+    private static String formatVersion( String version )
+    {
+        return version == null ? "none" : version;
+    }
+
+    public static void main( String[] args )
+        throws IOException
+    {
+        if ( args.length < 2 || args.length > 3 )
+        {
+            System.err.println( "Usage: ProfileDiff <before> <after> [top]" );
+            System.exit( 2 );
+        }
+        int top = args.length == 3 ? Integer.parseInt( args[2] ) : DEFAULT_TOP;
+        try ( Reader before = Files.newBufferedReader( new File( args[0] ).toPath(), StandardCharsets.UTF_8 );
+                        Reader after = Files.newBufferedReader( new File( args[1] ).toPath(), StandardCharsets.UTF_8 ) )
+        {
+            report( diff( before, after, top ), top, System.out );
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Combines the profiles of a build which has been split over several agents (for example with {@code -pl} or
+ * {@code -rf}) into one picture. The profiles are aligned on the wall clock of the agents, each agent is a track of
+ * its own. A module which has been built by more than one agent (like a parent pom) is counted once, for the agent
+ * which started it first, the other builds of it are reported as duplicated work.
+ * <p>
+ * The report is returned as lines, so it can be used by the profiler as well as without a logger.
+ */
+class ProfileMerger
+{
+    private static final String LINE = "------------------------------------------------------------------------";
+
+    private static final int SLOWEST_MODULES = 10;
+
+    /**
+     * Key: agent, value: its build.
+     */
+    private final Map<String, BuildRecord> agents;
+
+    ProfileMerger()
+    {
+        this.agents = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param agent The name of the agent, for example its host name.
+     */
+    public ProfileMerger add( String agent, BuildRecord record )
+    {
+        String name = agent;
+        for ( int i = 2; agents.containsKey( name ); i++ )
+        {
+            name = agent + "#" + i;
+        }
+        agents.put( name, record );
+        return this;
+    }
+
+    /**
+     * Adds a profile written by the profiler via {@code -Dmbtp.profile.file}. The agent is the host of the build or
+     * the name of the file if the host is unknown.
+     */
+    public ProfileMerger add( File file )
+        throws IOException
+    {
+        BuildRecord record = BuildRecord.parse( Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 ) );
+        return add( record.getHost() == null ? file.getName() : record.getHost(), record );
+    }
+
+    public Map<String, BuildRecord> getAgents()
+    {
+        return agents;
+    }
+
+    /**
+     * @return Key: module, value: the agent which has built it first.
+     */
+    public Map<String, String> getModules()
+    {
+        Map<String, String> result = new LinkedHashMap<>();
+        Map<String, Long> starts = new HashMap<>();
+        for ( Entry<String, BuildRecord> agent : agents.entrySet() )
+        {
+            for ( Entry<String, long[]> module : agent.getValue().getProjects().entrySet() )
+            {
+                Long start = starts.get( module.getKey() );
+                if ( start == null || module.getValue()[0] < start )
+                {
+                    starts.put( module.getKey(), module.getValue()[0] );
+                    result.put( module.getKey(), agent.getKey() );
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Key: module which has been built by more than one agent, value: the number of agents.
+     */
+    public Map<String, Integer> getDuplicates()
+    {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for ( BuildRecord record : agents.values() )
+        {
+            for ( String module : record.getProjects().keySet() )
+            {
+                Integer count = counts.get( module );
+                counts.put( module, count == null ? 1 : count + 1 );
+            }
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for ( Entry<String, Integer> count : counts.entrySet() )
+        {
+            if ( count.getValue() > 1 )
+            {
+                result.put( count.getKey(), count.getValue() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The earliest start of a module of any agent in milliseconds since the epoch.
+     */
+    public long getStart()
+    {
+        long result = Long.MAX_VALUE;
+        for ( BuildRecord record : agents.values() )
+        {
+            for ( long[] module : record.getProjects().values() )
+            {
+                result = Math.min( result, module[0] );
+            }
+        }
+        return result == Long.MAX_VALUE ? 0 : result;
+    }
+
+    /**
+     * @return The latest end of a module of the agent in milliseconds since the epoch.
+     */
+    public long getEnd( String agent )
+    {
+        long result = 0;
+        for ( long[] module : agents.get( agent ).getProjects().values() )
+        {
+            result = Math.max( result, module[0] + module[1] );
+        }
+        return result;
+    }
+
+    public long getEnd()
+    {
+        long result = 0;
+        for ( String agent : agents.keySet() )
+        {
+            result = Math.max( result, getEnd( agent ) );
+        }
+        return result;
+    }
+
+    /**
+     * @return The time the agent has been building modules.
+     */
+    public long getBusyTime( String agent )
+    {
+        long result = 0;
+        for ( long[] module : agents.get( agent ).getProjects().values() )
+        {
+            result += module[1];
+        }
+        return result;
+    }
+
+    public List<String> report()
+    {
+        List<String> result = new ArrayList<>();
+        if ( agents.isEmpty() )
+        {
+            return result;
+        }
+        long start = getStart();
+        long end = getEnd();
+        result.add( "Merged build of " + agents.size() + " agents: " + ( end - start ) + " ms wall time" );
+        result.add( "" );
+        long longest = 0;
+        long sum = 0;
+        for ( String agent : agents.keySet() )
+        {
+            long agentEnd = getEnd( agent ) - start;
+            longest = Math.max( longest, agentEnd );
+            sum += agentEnd;
+            result.add( String.format( "%8d", getBusyTime( agent ) ) + " ms : " + agent + " ("
+                + agents.get( agent ).getProjects().size() + " modules, finished after " + agentEnd + " ms, idle "
+                + ( end - getEnd( agent ) ) + " ms until the end)" );
+        }
+        long mean = sum / agents.size();
+        result.add( "Balance: slowest agent " + longest + " ms, mean " + mean + " ms, imbalance "
+            + ( mean == 0 ? 0 : Math.round( ( longest - mean ) * 100.0 / mean ) ) + "%" );
+
+        Map<String, Integer> duplicates = getDuplicates();
+        if ( !duplicates.isEmpty() )
+        {
+            result.add( LINE );
+            result.add( "Modules built by more than one agent:" );
+            result.add( "" );
+            for ( Entry<String, Integer> duplicate : duplicates.entrySet() )
+            {
+                result.add( String.format( "%8d", getDuplicatedTime( duplicate.getKey() ) ) + " ms : "
+                    + duplicate.getKey() + " (" + duplicate.getValue() + " agents)" );
+            }
+        }
+
+        TopN<String> slowest = new TopN<>( SLOWEST_MODULES );
+        for ( Entry<String, String> module : getModules().entrySet() )
+        {
+            slowest.add( module.getKey() + " (" + module.getValue() + ")",
+                         agents.get( module.getValue() ).getProjectTime( module.getKey() ) );
+        }
+        result.add( LINE );
+        result.add( "Slowest modules:" );
+        result.add( "" );
+        for ( TopN.Entry<String> module : slowest.getEntries() )
+        {
+            result.add( String.format( "%8d", module.getValue() ) + " ms : " + module.getKey() );
+        }
+        result.add( LINE );
+        return result;
+    }
+
+    /**
+     * @return The time of the builds of the module by all agents except the first one.
+     */
+    private long getDuplicatedTime( String module )
+    {
+        long total = 0;
+        long first = 0;
+        long firstStart = Long.MAX_VALUE;
+        for ( BuildRecord record : agents.values() )
+        {
+            long[] time = record.getProjects().get( module );
+            if ( time != null )
+            {
+                total += time[1];
+                if ( time[0] < firstStart )
+                {
+                    firstStart = time[0];
+                    first = time[1];
+                }
+            }
+        }
+        return total - first;
+    }
+
+    /**
+     * @return The spans of the merged build: the root, a span per agent and the modules of each agent as its
+     *         children.
+     */
+    public List<Span> toSpans()
+    {
+        String traceId = OtlpSpanListener.randomId() + OtlpSpanListener.randomId();
+        List<Span> result = new ArrayList<>();
+        Map<String, Object> none = Collections.emptyMap();
+        String rootId = spanId( 0 );
+        result.add( new Span( traceId, rootId, null, "merged build", getStart() * 1000000L, getEnd() * 1000000L,
+                              false, none ) );
+        int next = 1;
+        for ( Entry<String, BuildRecord> agent : agents.entrySet() )
+        {
+            String agentId = spanId( next++ );
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put( "host.name", agent.getKey() );
+            if ( agent.getValue().getCommit() != null )
+            {
+                attributes.put( "vcs.commit", agent.getValue().getCommit() );
+            }
+            List<long[]> modules = new ArrayList<>( agent.getValue().getProjects().values() );
+            long agentStart = Long.MAX_VALUE;
+            for ( long[] module : modules )
+            {
+                agentStart = Math.min( agentStart, module[0] );
+            }
+            if ( modules.isEmpty() )
+            {
+                agentStart = getStart();
+            }
+            result.add( new Span( traceId, agentId, rootId, "agent " + agent.getKey(), agentStart * 1000000L,
+                                  Math.max( agentStart, getEnd( agent.getKey() ) ) * 1000000L,
+                                  "failure".equals( agent.getValue().getResult() ), attributes ) );
+            List<Entry<String, long[]>> sorted = new ArrayList<>( agent.getValue().getProjects().entrySet() );
+            Collections.sort( sorted, new Comparator<Entry<String, long[]>>()
+            {
+                public int compare( Entry<String, long[]> left, Entry<String, long[]> right )
+                {
+                    return Long.compare( left.getValue()[0], right.getValue()[0] );
+                }
+            } );
+            for ( Entry<String, long[]> module : sorted )
+            {
+                Map<String, Object> moduleAttributes = new LinkedHashMap<>();
+                moduleAttributes.put( "maven.project", module.getKey() );
+                long moduleStart = module.getValue()[0];
+                result.add( new Span( traceId, spanId( next++ ), agentId, module.getKey(), moduleStart * 1000000L,
+                                      ( moduleStart + module.getValue()[1] ) * 1000000L, false, moduleAttributes ) );
+            }
+        }
+        return result;
+    }
+
+    private static String spanId( int span )
+    {
+        return String.format( "%016x", span + 1 );
+    }
+
+    /**
+     * Writes the trace of the merged build as OTLP/JSON.
+     */
+    public void writeTrace( File file )
+        throws IOException
+    {
+        if ( file.getAbsoluteFile().getParentFile() != null )
+        {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        try ( OutputStream out = new FileOutputStream( file ) )
+        {
+            out.write( OtlpExporter.toJson( toSpans() ).getBytes( StandardCharsets.UTF_8 ) );
+            out.write( '\n' );
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The configuration of the profiler which is given by properties on command line, for example
+ * {@code -Dmbtp.stream=true}, or in the file {@value #PROPERTIES_FILE} of the project. User properties take precedence
+ * over system properties, which take precedence over the file.
+ */
+class ProfilerConfiguration
+{
+    static final String PREFIX = "mbtp.";
+
+    static final String PROPERTIES_FILE = ".mvn/buildtime-profiler.properties";
+
+    /**
+     * The events which can be ignored, all of them are recorded by default.
+     */
+    static final List<String> COLLECTORS = Arrays.asList( "repository", "fork", "goal" );
+
+    static final List<String> REPORTERS =
+        Arrays.asList( "console", "json", "html", "trace", "metrics", "csv", "columnar" );
+
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    private final Properties properties;
+
+    private final File baseDirectory;
+
+    /**
+     * The selected collectors or {@code null} if all of them are selected.
+     */
+    private final Set<String> collectors;
+
+    /**
+     * The selected reporters or {@code null} if none are selected explicitly.
+     */
+    private final Set<String> reporters;
+
+    ProfilerConfiguration( Properties properties, File baseDirectory )
+    {
+        this.properties = properties;
+        this.baseDirectory = baseDirectory;
+        this.collectors = getSet( "collectors", COLLECTORS );
+        this.reporters = getSet( "reporters", REPORTERS );
+    }
+
+    /**
+     * @param data The data of the {@link org.apache.maven.eventspy.EventSpy.Context}.
+     * @return The configuration based on the system and user properties. A properties file of the project which can
+     *         not be read is ignored with a warning.
+     */
+    static ProfilerConfiguration fromContext( Map<String, Object> data )
+    {
+        // multiModuleProjectDirectory is only available since Maven 3.3.1
+        String directory = (String) data.get( "multiModuleProjectDirectory" );
+        if ( directory == null )
+        {
+            directory = (String) data.get( "workingDirectory" );
+        }
+        File baseDirectory = new File( directory == null ? "." : directory );
+
+        Properties properties = new Properties();
+        File file = new File( baseDirectory, PROPERTIES_FILE );
+        if ( file.isFile() )
+        {
+            Properties fileProperties = new Properties();
+            try ( InputStream input = Files.newInputStream( file.toPath() ) )
+            {
+                fileProperties.load( input );
+                properties.putAll( fileProperties );
+            }
+            catch ( IOException | IllegalArgumentException e )
+            {
+                LoggerFactory.getLogger( ProfilerConfiguration.class ).warn( "MBTP: Ignoring {}: {}", file,
+                                                                           e.getMessage() );
+            }
+        }
+        putAll( properties, data.get( "systemProperties" ) );
+        putAll( properties, data.get( "userProperties" ) );
+        return new ProfilerConfiguration( properties, baseDirectory );
+    }
+
+    private static void putAll( Properties target, Object source )
+    {
+        if ( source instanceof Properties )
+        {
+            Properties sourceProperties = (Properties) source;
+            for ( String name : sourceProperties.stringPropertyNames() )
+            {
+                target.setProperty( name, sourceProperties.getProperty( name ) );
+            }
+        }
+    }
+
+    public File getBaseDirectory()
+    {
+        return baseDirectory;
+    }
+
+    String getString( String name, String defaultValue )
+    {
+        String value = properties.getProperty( PREFIX + name );
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    boolean getBoolean( String name, boolean defaultValue )
+    {
+        return Boolean.parseBoolean( getString( name, Boolean.toString( defaultValue ) ) );
+    }
+
+    int getInt( String name, int defaultValue )
+    {
+        String value = getString( name, null );
+        if ( value == null )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt( value );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "Invalid number for " + PREFIX + name + " (" + value + ")" );
+        }
+    }
+
+    /**
+     * @return The values of the comma separated list or {@code null} if the property is not given. Unknown values are
+     *         ignored with a warning.
+     */
+    Set<String> getSet( String name, List<String> allowedValues )
+    {
+        String value = getString( name, null );
+        if ( value == null )
+        {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for ( String item : value.split( "," ) )
+        {
+            if ( item.trim().isEmpty() )
+            {
+                continue;
+            }
+            if ( !allowedValues.contains( item.trim() ) )
+            {
+                LOGGER.warn( "MBTP: Ignoring the invalid value for {}{} ({})", PREFIX, name, item.trim() );
+                continue;
+            }
+            result.add( item.trim() );
+        }
+        return result;
+    }
+
+    /**
+     * @param collector One of {@link #COLLECTORS}.
+     * @return {@code true} if the events of the collector should be recorded. If they are not, they are ignored
+     *         before any timer is called.
+     */
+    public boolean isCollector( String collector )
+    {
+        return collectors == null || collectors.contains( collector );
+    }
+
+    /**
+     * Without {@code mbtp.reporters} the summary is written to the console and each other reporter runs if its file
+     * (or endpoint) is given. Otherwise only the listed reporters run, with a default file if none is given.
+     *
+     * @param reporter One of {@link #REPORTERS}.
+     * @param property The property of the file of the reporter or {@code null} for the console.
+     */
+    private boolean isReporter( String reporter, String property )
+    {
+        if ( reporters == null )
+        {
+            return property == null || getString( property, null ) != null;
+        }
+        return reporters.contains( reporter );
+    }
+
+    private File getReporterFile( String reporter, String property, String defaultValue )
+    {
+        return isReporter( reporter, property ) ? getFile( property, defaultValue ) : null;
+    }
+
+    /**
+     * @return {@code true} if the summary should be written to the console.
+     */
+    public boolean isConsoleReport()
+    {
+        return isReporter( "console", null );
+    }
+
+    /**
+     * Relative paths are resolved against the base directory of the build.
+     */
+    File getFile( String name, String defaultValue )
+    {
+        String value = getString( name, defaultValue );
+        File file = new File( value );
+        return file.isAbsolute() ? file : new File( baseDirectory, value );
+    }
+
+    public boolean isStreaming()
+    {
+        return getBoolean( "stream", false );
+    }
+
+    /**
+     * @return The file of the streaming mode. It is not in {@code target} by default, because a {@code clean} of the
+     *         root project would delete the start of the stream.
+     */
+    public File getStreamFile()
+    {
+        return getFile( "stream.file", ".mvn/buildtime-profiler.log" );
+    }
+
+    /**
+     * @return The port of the http server or {@code -1} if it should not be started.
+     */
+    public int getHttpPort()
+    {
+        return getInt( "http.port", -1 );
+    }
+
+    public boolean isJmx()
+    {
+        return getBoolean( "jmx", false );
+    }
+
+    /**
+     * @return The file the Prometheus metrics are written to or {@code null} if they should not be exported.
+     */
+    public File getPrometheusFile()
+    {
+        return getReporterFile( "metrics", "prometheus.file", "target/buildtime-profiler.prom" );
+    }
+
+    public int getPrometheusMaxLabelValues()
+    {
+        return getInt( "prometheus.maxLabelValues", 20 );
+    }
+
+    /**
+     * @return The file the spans are written to as OTLP/JSON or {@code null} if they should not be written.
+     */
+    public File getOtlpFile()
+    {
+        if ( getString( "otlp.endpoint", null ) != null && getString( "otlp.file", null ) == null )
+        {
+            return null;
+        }
+        return getReporterFile( "trace", "otlp.file", "target/buildtime-profiler-trace.json" );
+    }
+
+    /**
+     * @return The OTLP/http endpoint the spans are sent to, for example {@code http://localhost:4318/v1/traces}, or
+     *         {@code null} if they should not be sent.
+     */
+    public URL getOtlpEndpoint()
+    {
+        String value = getString( "otlp.endpoint", null );
+        if ( value == null || !isReporter( "trace", "otlp.endpoint" ) )
+        {
+            return null;
+        }
+        try
+        {
+            return new URL( value );
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new IllegalArgumentException( "Invalid url for " + PREFIX + "otlp.endpoint (" + value + ")" );
+        }
+    }
+
+    /**
+     * @return The file the HTML report with the timeline is written to or {@code null} if it should not be written.
+     */
+    public File getHtmlFile()
+    {
+        return getReporterFile( "html", "html.file", "target/buildtime-profiler.html" );
+    }
+
+    /**
+     * @return The file the summary of the build is written to as JSON or {@code null} if it should not be written.
+     */
+    public File getJsonFile()
+    {
+        return getReporterFile( "json", "json.file", "target/buildtime-profiler.json" );
+    }
+
+    /**
+     * @return The file every span is written to as CSV or {@code null} if it should not be written.
+     */
+    public File getCsvFile()
+    {
+        return getReporterFile( "csv", "csv.file", "target/buildtime-profiler.csv" );
+    }
+
+    /**
+     * @return The file every span is written to in the columnar format or {@code null} if it should not be written.
+     */
+    public File getColumnarFile()
+    {
+        return getReporterFile( "columnar", "columnar.file", "target/buildtime-profiler.mbtc" );
+    }
+
+    public int getOtlpBatchSize()
+    {
+        return getInt( "otlp.batchSize", 512 );
+    }
+
+    /**
+     * @return Where the span records are kept: {@code heap}, {@code direct} (a direct buffer) or {@code mapped} (a
+     *         memory mapped file which survives a crash of the JVM).
+     */
+    public String getStore()
+    {
+        String value = getString( "store", "heap" );
+        if ( !"heap".equals( value ) && !"direct".equals( value ) && !"mapped".equals( value ) )
+        {
+            throw new IllegalArgumentException( "Invalid value for " + PREFIX + "store (" + value + ")" );
+        }
+        return value;
+    }
+
+    /**
+     * @return The file of the mapped store. It is not in {@code target} by default, because a {@code clean} of the
+     *         root project would delete it while it is mapped.
+     */
+    public File getStoreFile()
+    {
+        return getFile( "store.file", ".mvn/buildtime-profiler.spans" );
+    }
+
+    /**
+     * @return {@code true} if the summary should only list the top hot spots instead of every project and plugin.
+     */
+    public boolean isCompactReport()
+    {
+        String value = getString( "report", "full" );
+        if ( !"full".equals( value ) && !"compact".equals( value ) )
+        {
+            throw new IllegalArgumentException( "Invalid value for " + PREFIX + "report (" + value + ")" );
+        }
+        return "compact".equals( value );
+    }
+
+    /**
+     * @return The number of entries per dimension of the compact report.
+     */
+    public int getReportTop()
+    {
+        int value = getInt( "report.top", 10 );
+        if ( value < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid number for " + PREFIX + "report.top (" + value + ")" );
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the wall time of the build should be predicted for other numbers of threads.
+     */
+    public boolean isSimulation()
+    {
+        return getBoolean( "simulate", false );
+    }
+
+    /**
+     * @return {@code true} if modules which should be split or merged should be recommended.
+     */
+    public boolean isRecommendations()
+    {
+        return getBoolean( "recommendations", false );
+    }
+
+    /**
+     * @return {@code true} if mojo executions without changes in the build directory should be detected.
+     */
+    public boolean isNoOpDetection()
+    {
+        return getBoolean( "noop", false );
+    }
+
+    /**
+     * @return {@code true} if the summary of the build should be added to the history.
+     */
+    public boolean isHistory()
+    {
+        return getBoolean( "history", false );
+    }
+
+    /**
+     * @return The number of builds of the trend report or {@code 0} if it should not be reported.
+     */
+    public int getHistoryTrend()
+    {
+        return getInt( "history.trend", 0 );
+    }
+
+    /**
+     * @return The file the summary of the build is written to, so it can be merged with the profiles of other
+     *         agents, or {@code null} if it should not be written.
+     */
+    public File getProfileFile()
+    {
+        return getString( "profile.file", null ) == null ? null : getFile( "profile.file", null );
+    }
+
+    /**
+     * @return The profiles of other agents which should be merged with the profile of this build, separated by
+     *         comma.
+     */
+    public List<File> getMergeFiles()
+    {
+        List<File> result = new ArrayList<>();
+        String value = getString( "merge", null );
+        if ( value != null )
+        {
+            for ( String name : value.split( "," ) )
+            {
+                if ( !name.trim().isEmpty() )
+                {
+                    File file = new File( name.trim() );
+                    result.add( file.isAbsolute() ? file : new File( baseDirectory, name.trim() ) );
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The file the trace of the merged profiles is written to or {@code null} if it should not be written.
+     */
+    public File getMergeTraceFile()
+    {
+        return getString( "merge.trace", null ) == null ? null : getFile( "merge.trace", null );
+    }
+
+    public File getHistoryDirectory()
+    {
+        String userHome = properties.getProperty( "user.home", System.getProperty( "user.home" ) );
+        return getFile( "history.dir", new File( userHome, ".m2/buildtime-profiler" ).getPath() );
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the progress of the running build as JSON on localhost. The requests are handled by a separate daemon
+ * thread which only reads the {@link BuildProgress}, so the builder threads are never blocked.
+ */
+class ProgressHttpServer
+    implements HttpHandler
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    private final BuildProgress progress;
+
+    private final ProjectDurationHistory history;
+
+    private final int port;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    public ProgressHttpServer( BuildProgress progress, ProjectDurationHistory history, int port )
+    {
+        this.progress = progress;
+        this.history = history;
+        this.port = port;
+    }
+
+    public void start()
+        throws IOException
+    {
+        server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), port ), 0 );
+        server.createContext( "/", this );
+        executor = Executors.newSingleThreadExecutor( new ThreadFactory()
+        {
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "mbtp-http" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        server.setExecutor( executor );
+        server.start();
+        LOGGER.info( "MBTP: Build progress available at http://localhost:{}/", getPort() );
+    }
+
+    public int getPort()
+    {
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    public void stop()
+    {
+        if ( server != null )
+        {
+            server.stop( 0 );
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public void handle( HttpExchange exchange )
+        throws IOException
+    {
+        try
+        {
+            if ( !"GET".equals( exchange.getRequestMethod() ) )
+            {
+                exchange.sendResponseHeaders( 405, -1 );
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream( 4096 );
+            OutputStreamWriter writer = new OutputStreamWriter( body, "UTF-8" );
+            writeProgress( new JsonWriter( writer ), System.currentTimeMillis() );
+            writer.flush();
+
+            exchange.getResponseHeaders().set( "Content-Type", "application/json; charset=UTF-8" );
+            exchange.sendResponseHeaders( 200, body.size() );
+            try ( OutputStream out = exchange.getResponseBody() )
+            {
+                body.writeTo( out );
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    void writeProgress( JsonWriter json, long now )
+        throws IOException
+    {
+        long sessionStartTime = progress.getSessionStartTime();
+        json.beginObject();
+        json.name( "elapsed" ).value( sessionStartTime == 0 ? 0 : now - sessionStartTime );
+        json.name( "threads" ).value( progress.getThreadCount() );
+
+        json.name( "projects" ).beginObject();
+        json.name( "total" ).value( progress.getReactorProjects().size() );
+        json.name( "running" ).value( progress.getRunningProjects().size() );
+        json.name( "completed" ).value( progress.getCompletedProjects().size() );
+        json.endObject();
+
+        json.name( "runningMojos" ).beginArray();
+        for ( RunningMojo mojo : progress.getRunningMojos().values() )
+        {
+            json.beginObject();
+            json.name( "thread" ).value( mojo.getThread() );
+            json.name( "project" ).value( mojo.getProject() );
+            json.name( "mojo" ).value( mojo.getMojo() );
+            json.name( "phase" ).value( mojo.getPhase() );
+            json.name( "elapsed" ).value( now - mojo.getStartTime() );
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name( "completedProjects" ).beginArray();
+        for ( Entry<String, Long> project : progress.getCompletedProjects().entrySet() )
+        {
+            json.beginObject();
+            json.name( "project" ).value( project.getKey() );
+            json.name( "elapsed" ).value( project.getValue() );
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name( "phases" ).beginObject();
+        for ( Entry<String, AtomicLong> phase : progress.getPhaseTimes().entrySet() )
+        {
+            json.name( phase.getKey() ).value( phase.getValue().get() );
+        }
+        json.endObject();
+
+        long remaining = progress.getEstimatedRemainingTime( history, now );
+        if ( remaining < 0 )
+        {
+            json.name( "estimatedRemaining" ).nullValue();
+        }
+        else
+        {
+            json.name( "estimatedRemaining" ).value( remaining );
+        }
+        json.endObject();
+        json.flush();
+    }
+}
@@ -0,0 +1,115 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The durations of projects in previous builds which are used to estimate the remaining time of a running build. The
+ * durations are read from the last successful builds in the {@link HistoryStore} and kept as a smoothed average, so a
+ * single outlier does not spoil the estimation.
+ */
+class ProjectDurationHistory
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    /**
+     * The number of builds which are read from the history.
+     */
+    static final int BUILDS = 10;
+
+    private final HistoryStore store;
+
+    private final Map<String, Long> durations;
+
+    public ProjectDurationHistory( HistoryStore store )
+    {
+        this.store = store;
+        this.durations = new ConcurrentHashMap<>();
+    }
+
+    public ProjectDurationHistory load()
+    {
+        List<BuildRecord> builds;
+        try
+        {
+            builds = store.readLast( BUILDS );
+        }
+        catch ( IOException | IllegalArgumentException e )
+        {
+            LOGGER.warn( "MBTP: Could not read the history in {}", store.getDirectory(), e );
+            return this;
+        }
+        for ( BuildRecord build : builds )
+        {
+            // Only successful builds give a reasonable estimation.
+            if ( !"success".equals( build.getResult() ) )
+            {
+                continue;
+            }
+            for ( Entry<String, long[]> project : build.getProjects().entrySet() )
+            {
+                record( project.getKey(), project.getValue()[1] );
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return The expected duration in ms or {@code -1} if the project has never been built before.
+     */
+    public long getDuration( String projectId )
+    {
+        Long result = durations.get( projectId );
+        return result == null ? -1 : result;
+    }
+
+    public boolean isEmpty()
+    {
+        return durations.isEmpty();
+    }
+
+    public long getAverageDuration()
+    {
+        if ( durations.isEmpty() )
+        {
+            return -1;
+        }
+        long sum = 0;
+        for ( Long duration : durations.values() )
+        {
+            sum += duration;
+        }
+        return sum / durations.size();
+    }
+
+    public void record( String projectId, long duration )
+    {
+        Long previous = durations.get( projectId );
+        durations.put( projectId, previous == null ? duration : ( previous + duration ) / 2 );
+    }
+}
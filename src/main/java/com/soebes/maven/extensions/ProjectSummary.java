@@ -0,0 +1,117 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The phase and mojo times of a single project which are aggregated while the project is being built. Mojos of a
+ * project are executed by a single thread, so there is no need for synchronization here.
+ */
+class ProjectSummary
+{
+    private final ProjectKey project;
+
+    private final String name;
+
+    /**
+     * Key: phase, value: (Key: mojo id, value: time in ms) in order of execution.
+     */
+    private final Map<String, Map<String, Long>> mojosPerPhase;
+
+    private String result;
+
+    private long elapsedTime;
+
+    public ProjectSummary( ProjectKey project, String name )
+    {
+        this.project = project;
+        this.name = name;
+        this.mojosPerPhase = new LinkedHashMap<>();
+    }
+
+    public ProjectKey getProject()
+    {
+        return project;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void addMojo( String phase, String mojoId, long timeInMillis )
+    {
+        Map<String, Long> mojos = mojosPerPhase.get( phase );
+        if ( mojos == null )
+        {
+            mojos = new LinkedHashMap<>();
+            mojosPerPhase.put( phase, mojos );
+        }
+        Long previous = mojos.get( mojoId );
+        mojos.put( mojoId, previous == null ? timeInMillis : previous + timeInMillis );
+    }
+
+    public boolean hasPhase( String phase )
+    {
+        return mojosPerPhase.containsKey( phase );
+    }
+
+    public Iterable<String> getPhases()
+    {
+        return mojosPerPhase.keySet();
+    }
+
+    public Map<String, Long> getMojosInPhase( String phase )
+    {
+        return mojosPerPhase.get( phase );
+    }
+
+    public long getTimeForPhase( String phase )
+    {
+        long result = 0;
+        if ( hasPhase( phase ) )
+        {
+            for ( Entry<String, Long> item : mojosPerPhase.get( phase ).entrySet() )
+            {
+                result += item.getValue();
+            }
+        }
+        return result;
+    }
+
+    public void finish( String result, long elapsedTime )
+    {
+        this.result = result;
+        this.elapsedTime = elapsedTime;
+    }
+
+    public String getResult()
+    {
+        return result;
+    }
+
+    public long getElapsedTime()
+    {
+        return elapsedTime;
+    }
+}
@@ -19,15 +19,22 @@ package com.soebes.maven.extensions;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
@@ -35,11 +42,22 @@ class ProjectTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private Map<String, SystemTime> timerEvents;
+    private final SpanTree spanTree;
+
+    /**
+     * Either {@link SpanKind#PROJECT} or {@link SpanKind#FORKED_PROJECT}.
+     */
+    private final SpanKind kind;
 
     public ProjectTimer()
     {
-        this.timerEvents = new ConcurrentHashMap<>();
+        this( new SpanTree(), SpanKind.PROJECT );
+    }
+
+    public ProjectTimer( SpanTree spanTree, SpanKind kind )
+    {
+        this.spanTree = spanTree;
+        this.kind = kind;
     }
 
     private String getProjectId( MavenProject mavenProject )
@@ -50,34 +68,125 @@ class ProjectTimer
     public void projectStart( ExecutionEvent event )
     {
         String projectId = getProjectId( event.getProject() );
-        timerEvents.put( projectId, new SystemTime().start() );
+        spanTree.start( kind, projectId );
     }
 
-    public void projectStop( ExecutionEvent event )
+    /**
+     * @return The span of the project.
+     */
+    public int projectStop( ExecutionEvent event )
     {
         String projectId = getProjectId( event.getProject() );
-        if ( !timerEvents.containsKey( projectId ) )
+        boolean failed = event.getType() == ExecutionEvent.Type.ProjectFailed
+            || event.getType() == ExecutionEvent.Type.ForkedProjectFailed;
+        int span = spanTree.stop( kind, projectId, failed );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown projectId (" + projectId + ")" );
         }
-        timerEvents.get( projectId ).stop();
+        return span;
     }
 
     public long getTimeForProject( MavenProject project )
     {
         String projectId = getProjectId( project );
-        if ( !timerEvents.containsKey( projectId ) )
+        int span = spanTree.find( kind, projectId );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown projectId (" + projectId + ")" );
         }
-        return timerEvents.get( projectId ).getElapsedTime();
+        return spanTree.getElapsedTime( span );
     }
 
     public void report()
     {
-        for ( Entry<String, SystemTime> item : this.timerEvents.entrySet() )
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            LOGGER.info( "ProjectTimer: {} : {}", spanTree.getKey( span ), spanTree.getElapsedTime( span ) );
+        }
+    }
+
+    /**
+     * @param projects The projects of the reactor in the order they should be reported.
+     * @param graph The dependencies between the projects or {@code null} if they are unknown, then the queue wait is
+     *            measured from the start of the session.
+     * @return The times of each project which has been built.
+     */
+    public List<ModuleTime> getModuleTimes( List<MavenProject> projects, ProjectDependencyGraph graph )
+    {
+        // Key: project span, value: time of its mojos in milliseconds.
+        Map<Integer, Long> mojoTime = new HashMap<>();
+        for ( int span : spanTree.getSpans( SpanKind.MOJO ) )
+        {
+            int parent = spanTree.getParent( span );
+            Long time = mojoTime.get( parent );
+            mojoTime.put( parent, ( time == null ? 0 : time ) + spanTree.getElapsedTime( span ) );
+        }
+
+        int session = spanTree.getSession();
+        long sessionStart = session == SpanTree.NO_SPAN ? Long.MIN_VALUE : spanTree.getStartTime( session );
+        List<ModuleTime> result = new ArrayList<>();
+        for ( MavenProject project : projects )
+        {
+            int span = spanTree.find( kind, getProjectId( project ) );
+            if ( span == SpanTree.NO_SPAN || spanTree.isOpen( span ) )
+            {
+                continue;
+            }
+            long ready = sessionStart;
+            if ( graph != null )
+            {
+                for ( MavenProject upstream : graph.getUpstreamProjects( project, false ) )
+                {
+                    int upstreamSpan = spanTree.find( kind, getProjectId( upstream ) );
+                    if ( upstreamSpan != SpanTree.NO_SPAN )
+                    {
+                        ready = Math.max( ready, spanTree.getEndTime( upstreamSpan ) );
+                    }
+                }
+            }
+            long start = spanTree.getStartTime( span );
+            long queueWait = ready == Long.MIN_VALUE ? 0 : Math.max( 0, start - ready ) / 1000000L;
+            long wallTime = spanTree.getElapsedTime( span );
+            Long time = mojoTime.get( span );
+            long gapTime = Math.max( 0, wallTime - ( time == null ? 0 : time ) );
+            result.add( new ModuleTime( getProjectId( project ), wallTime, queueWait, gapTime ) );
+        }
+        return result;
+    }
+
+    public void reportModules( List<MavenProject> projects, ProjectDependencyGraph graph )
+    {
+        List<ModuleTime> modules = getModuleTimes( projects, graph );
+        if ( modules.isEmpty() )
+        {
+            return;
+        }
+        LOGGER.info( "Module wall time (reactor order):" );
+        LOGGER.info( "" );
+        reportModules( modules );
+
+        List<ModuleTime> byCost = new ArrayList<>( modules );
+        Collections.sort( byCost, new Comparator<ModuleTime>()
+        {
+            public int compare( ModuleTime left, ModuleTime right )
+            {
+                return Long.compare( right.getWallTime(), left.getWallTime() );
+            }
+        } );
+        LOGGER.info( "------------------------------------------------------------------------" );
+        LOGGER.info( "Module wall time (by cost):" );
+        LOGGER.info( "" );
+        reportModules( byCost );
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+
+    private void reportModules( List<ModuleTime> modules )
+    {
+        for ( ModuleTime module : modules )
         {
-            LOGGER.info( "ProjectTimer: {} : {}", item.getKey(), item.getValue().getElapsedTime() );
+            LOGGER.info( "{} ms : {} (queue wait {} ms, gaps {} ms)", String.format( "%8d", module.getWallTime() ),
+                         module.getProjectId(), module.getQueueWait(), module.getGapTime() );
         }
     }
 }
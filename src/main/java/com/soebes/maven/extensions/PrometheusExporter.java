@@ -0,0 +1,354 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the metrics of a build in the Prometheus text format which can be picked up by the textfile collector of
+ * the node_exporter. The file is written once at the end of the session and replaced atomically so the collector
+ * never reads a partially written file. All values describe the last build only, so they are gauges and not
+ * counters: a counter would have to grow across builds.
+ * <p>
+ * The number of values of the labels which depend on the build (plugins, repositories, modules) is limited. The
+ * largest ones are kept and the rest is summed up under {@value #OTHER} so a large reactor can not blow up the
+ * number of time series.
+ */
+class PrometheusExporter
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final String OTHER = "other";
+
+    /**
+     * The buckets of the duration histograms in seconds.
+     */
+    static final double[] BUCKETS = { 0.1, 0.5, 1, 5, 10, 30, 60, 120, 300, 600, 1800 };
+
+    private final File file;
+
+    private final int maxLabelValues;
+
+    private final Map<String, Long> phases;
+
+    /**
+     * Key: plugin and goal, value: the accumulated time.
+     */
+    private final Map<List<String>, Long> plugins;
+
+    private final List<Long> mojoDurations;
+
+    private final Map<String, Long> modules;
+
+    /**
+     * Key: direction and repository, value: index 0 number of artifacts, index 1 number of bytes.
+     */
+    private final Map<List<String>, long[]> transfers;
+
+    PrometheusExporter( File file, int maxLabelValues )
+    {
+        if ( maxLabelValues < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid maximum number of label values (" + maxLabelValues + ")" );
+        }
+        this.file = file;
+        this.maxLabelValues = maxLabelValues;
+        this.phases = new LinkedHashMap<>();
+        this.plugins = new LinkedHashMap<>();
+        this.mojoDurations = new ArrayList<>();
+        this.modules = new LinkedHashMap<>();
+        this.transfers = new LinkedHashMap<>();
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public void phase( String phase, long millis )
+    {
+        add( phases, phase, millis );
+    }
+
+    public void mojo( String plugin, String goal, long millis )
+    {
+        add( plugins, Arrays.asList( plugin, goal ), millis );
+        mojoDurations.add( millis );
+    }
+
+    public void module( String module, long millis )
+    {
+        add( modules, module, millis );
+    }
+
+    public void transfer( String direction, String repository, long bytes )
+    {
+        List<String> key = Arrays.asList( direction, repository == null ? "unknown" : repository );
+        long[] value = transfers.get( key );
+        if ( value == null )
+        {
+            value = new long[2];
+            transfers.put( key, value );
+        }
+        value[0]++;
+        value[1] += bytes;
+    }
+
+    private static <K> void add( Map<K, Long> map, K key, long millis )
+    {
+        Long value = map.get( key );
+        map.put( key, value == null ? millis : value + millis );
+    }
+
+    /**
+     * Writes the file. Problems are only logged because the metrics must never break the build.
+     *
+     * @param project The id of the top level project which is added as label to all metrics.
+     * @param result The result of the build for example {@code success}.
+     * @param buildMillis The duration of the whole build.
+     */
+    public void export( String project, String result, long buildMillis )
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if ( parent != null && !parent.isDirectory() && !parent.mkdirs() )
+        {
+            LOGGER.warn( "MBTP: Could not create directory {}", parent );
+            return;
+        }
+        File temp = new File( parent, "." + file.getName() + ".tmp" );
+        try
+        {
+            Files.write( temp.toPath(), format( project, result, buildMillis ).getBytes( StandardCharsets.UTF_8 ) );
+            try
+            {
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch ( AtomicMoveNotSupportedException e )
+            {
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not write {}", file, e );
+        }
+    }
+
+    String format( String project, String result, long buildMillis )
+    {
+        StringBuilder sb = new StringBuilder();
+        String projectLabel = "project=\"" + escape( project ) + "\"";
+
+        header( sb, "maven_build_info", "gauge", "Information about the last build." );
+        sample( sb, "maven_build_info", projectLabel + ",result=\"" + escape( result ) + "\"", "1" );
+
+        header( sb, "maven_build_last_run_timestamp_seconds", "gauge", "The time the last build has finished." );
+        sample( sb, "maven_build_last_run_timestamp_seconds", projectLabel, seconds( System.currentTimeMillis() ) );
+
+        header( sb, "maven_build_duration_seconds", "gauge", "The duration of the last build." );
+        sample( sb, "maven_build_duration_seconds", projectLabel, seconds( buildMillis ) );
+
+        header( sb, "maven_build_phase_seconds", "gauge", "The time spent in a lifecycle phase in the last build." );
+        for ( Entry<String, Long> item : limit( phases ).entrySet() )
+        {
+            sample( sb, "maven_build_phase_seconds",
+                    projectLabel + ",phase=\"" + escape( item.getKey() ) + "\"", seconds( item.getValue() ) );
+        }
+
+        header( sb, "maven_build_plugin_seconds", "gauge",
+                "The time spent in the goals of a plugin in the last build." );
+        for ( Entry<List<String>, Long> item : limit( plugins ).entrySet() )
+        {
+            sample( sb, "maven_build_plugin_seconds", projectLabel + ",plugin=\""
+                + escape( item.getKey().get( 0 ) ) + "\",goal=\"" + escape( item.getKey().get( 1 ) ) + "\"",
+                    seconds( item.getValue() ) );
+        }
+
+        header( sb, "maven_build_mojo_duration_seconds", "histogram", "The duration of the mojo executions." );
+        histogram( sb, "maven_build_mojo_duration_seconds", projectLabel, mojoDurations );
+
+        header( sb, "maven_build_module_duration_seconds", "histogram", "The duration of the modules." );
+        histogram( sb, "maven_build_module_duration_seconds", projectLabel, modules.values() );
+
+        header( sb, "maven_build_module_seconds", "gauge", "The duration of the slowest modules." );
+        for ( Entry<String, Long> item : limit( modules ).entrySet() )
+        {
+            sample( sb, "maven_build_module_seconds", projectLabel + ",module=\"" + escape( item.getKey() ) + "\"",
+                    seconds( item.getValue() ) );
+        }
+
+        Map<List<String>, Long> bytes = new LinkedHashMap<>();
+        Map<List<String>, Long> artifacts = new LinkedHashMap<>();
+        for ( Entry<List<String>, long[]> item : transfers.entrySet() )
+        {
+            bytes.put( item.getKey(), item.getValue()[1] );
+            artifacts.put( item.getKey(), item.getValue()[0] );
+        }
+        List<String> repositories = getTopRepositories( bytes );
+
+        header( sb, "maven_build_transfer_artifacts", "gauge",
+                "The number of artifacts transferred in the last build." );
+        for ( Entry<List<String>, Long> item : limitRepositories( artifacts, repositories ).entrySet() )
+        {
+            sample( sb, "maven_build_transfer_artifacts", transferLabels( projectLabel, item.getKey() ),
+                    Long.toString( item.getValue() ) );
+        }
+
+        header( sb, "maven_build_transfer_bytes", "gauge", "The number of bytes transferred in the last build." );
+        for ( Entry<List<String>, Long> item : limitRepositories( bytes, repositories ).entrySet() )
+        {
+            sample( sb, "maven_build_transfer_bytes", transferLabels( projectLabel, item.getKey() ),
+                    Long.toString( item.getValue() ) );
+        }
+        return sb.toString();
+    }
+
+    private String transferLabels( String projectLabel, List<String> key )
+    {
+        return projectLabel + ",direction=\"" + escape( key.get( 0 ) ) + "\",repository=\"" + escape( key.get( 1 ) )
+            + "\"";
+    }
+
+    /**
+     * @return The repositories with the most transferred bytes over all directions.
+     */
+    private List<String> getTopRepositories( Map<List<String>, Long> bytes )
+    {
+        Map<String, Long> perRepository = new LinkedHashMap<>();
+        for ( List<String> key : bytes.keySet() )
+        {
+            add( perRepository, key.get( 1 ), bytes.get( key ) );
+        }
+        return new ArrayList<>( limit( perRepository ).keySet() );
+    }
+
+    private Map<List<String>, Long> limitRepositories( Map<List<String>, Long> values, List<String> repositories )
+    {
+        Map<List<String>, Long> result = new LinkedHashMap<>();
+        for ( Entry<List<String>, Long> item : values.entrySet() )
+        {
+            String repository = repositories.contains( item.getKey().get( 1 ) ) ? item.getKey().get( 1 ) : OTHER;
+            add( result, Arrays.asList( item.getKey().get( 0 ), repository ), item.getValue() );
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the {@code maxLabelValues} largest values and sums up the rest under {@value #OTHER}.
+     */
+    @SuppressWarnings( "unchecked" )
+    <K> Map<K, Long> limit( final Map<K, Long> values )
+    {
+        List<K> keys = new ArrayList<>( values.keySet() );
+        Collections.sort( keys, new Comparator<K>()
+        {
+            public int compare( K left, K right )
+            {
+                return Long.compare( values.get( right ), values.get( left ) );
+            }
+        } );
+
+        Map<K, Long> result = new LinkedHashMap<>();
+        long other = 0;
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            if ( i < maxLabelValues )
+            {
+                result.put( keys.get( i ), values.get( keys.get( i ) ) );
+            }
+            else
+            {
+                other += values.get( keys.get( i ) );
+            }
+        }
+        if ( keys.size() > maxLabelValues )
+        {
+            K otherKey = keys.get( 0 ) instanceof List
+                            ? (K) Collections.nCopies( ( (List<?>) keys.get( 0 ) ).size(), OTHER )
+                            : (K) OTHER;
+            result.put( otherKey, other );
+        }
+        return result;
+    }
+
+    private void histogram( StringBuilder sb, String name, String labels, Iterable<Long> durations )
+    {
+        long[] counts = new long[BUCKETS.length];
+        long count = 0;
+        long sum = 0;
+        for ( long millis : durations )
+        {
+            for ( int i = 0; i < BUCKETS.length; i++ )
+            {
+                if ( millis <= BUCKETS[i] * 1000 )
+                {
+                    counts[i]++;
+                }
+            }
+            count++;
+            sum += millis;
+        }
+        for ( int i = 0; i < BUCKETS.length; i++ )
+        {
+            sample( sb, name + "_bucket", labels + ",le=\"" + BUCKETS[i] + "\"", Long.toString( counts[i] ) );
+        }
+        sample( sb, name + "_bucket", labels + ",le=\"+Inf\"", Long.toString( count ) );
+        sample( sb, name + "_sum", labels, seconds( sum ) );
+        sample( sb, name + "_count", labels, Long.toString( count ) );
+    }
+
+    private void header( StringBuilder sb, String name, String type, String help )
+    {
+        sb.append( "# HELP " ).append( name ).append( ' ' ).append( help ).append( '\n' );
+        sb.append( "# TYPE " ).append( name ).append( ' ' ).append( type ).append( '\n' );
+    }
+
+    private void sample( StringBuilder sb, String name, String labels, String value )
+    {
+        sb.append( name ).append( '{' ).append( labels ).append( "} " ).append( value ).append( '\n' );
+    }
+
+    static String seconds( long millis )
+    {
+        return String.format( Locale.ROOT, "%.3f", millis / 1000.0 );
+    }
+
+    static String escape( String value )
+    {
+        return value.replace( "\\", "\\\\" ).replace( "\"", "\\\"" ).replace( "\n", "\\n" );
+    }
+}
@@ -0,0 +1,80 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * A mojo which is currently executed by a thread. Instances are immutable, so they can be read by other threads
+ * without any locking. A forked execution is pushed on top of the mojo which caused the fork.
+ */
+class RunningMojo
+{
+    private final String thread;
+
+    private final String project;
+
+    private final String mojo;
+
+    private final String phase;
+
+    private final long startTime;
+
+    private final RunningMojo previous;
+
+    public RunningMojo( String thread, String project, String mojo, String phase, long startTime,
+                        RunningMojo previous )
+    {
+        this.thread = thread;
+        this.project = project;
+        this.mojo = mojo;
+        this.phase = phase;
+        this.startTime = startTime;
+        this.previous = previous;
+    }
+
+    public String getThread()
+    {
+        return thread;
+    }
+
+    public String getProject()
+    {
+        return project;
+    }
+
+    public String getMojo()
+    {
+        return mojo;
+    }
+
+    public String getPhase()
+    {
+        return phase;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    public RunningMojo getPrevious()
+    {
+        return previous;
+    }
+}
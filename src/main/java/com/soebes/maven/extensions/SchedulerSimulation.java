@@ -0,0 +1,369 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays the build of the reactor with the measured wall time of each module for a different number of builder
+ * threads and scheduling policies. It is a discrete event simulation: whenever a thread is free the next module whose
+ * upstream modules are all finished is started, chosen by the policy. The overhead of Maven between modules and the
+ * contention of the threads for CPU and disk are not part of it, so the prediction for a larger number of threads is a
+ * lower bound.
+ */
+class SchedulerSimulation
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final int MAX_THREADS = 64;
+
+    enum Policy
+    {
+        /**
+         * Ready modules are started in reactor order like Maven does.
+         */
+        REACTOR_ORDER( "reactor order" ),
+
+        /**
+         * The ready module with the longest path to the end of the build is started first.
+         */
+        CRITICAL_PATH_FIRST( "critical path first" ),
+
+        /**
+         * The ready module with the longest wall time is started first.
+         */
+        LONGEST_JOB_FIRST( "longest job first" );
+
+        private final String description;
+
+        private Policy( String description )
+        {
+            this.description = description;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+    }
+
+    private final String[] modules;
+
+    private final long[] durations;
+
+    /**
+     * The indices of the upstream modules of each module.
+     */
+    private final int[][] upstream;
+
+    /**
+     * The indices of the downstream modules of each module.
+     */
+    private final int[][] downstream;
+
+    /**
+     * The duration of the longest path from the start of a module to the end of the build.
+     */
+    private final long[] criticalPath;
+
+    /**
+     * @param modules The modules in reactor (topological) order.
+     * @param durations The wall time of each module in milliseconds.
+     * @param upstream The indices of the upstream modules of each module, all smaller than the index of the module.
+     */
+    SchedulerSimulation( String[] modules, long[] durations, int[][] upstream )
+    {
+        this.modules = modules;
+        this.durations = durations;
+        this.upstream = upstream;
+        this.downstream = invert( upstream );
+        this.criticalPath = new long[modules.length];
+        for ( int module = modules.length - 1; module >= 0; module-- )
+        {
+            long longest = 0;
+            for ( int next : downstream[module] )
+            {
+                longest = Math.max( longest, criticalPath[next] );
+            }
+            criticalPath[module] = durations[module] + longest;
+        }
+    }
+
+    /**
+     * @param projects The projects in reactor order.
+     * @param moduleTimes The measured times of the modules which have been built.
+     * @param graph The dependencies between the projects.
+     */
+    static SchedulerSimulation of( List<MavenProject> projects, List<ModuleTime> moduleTimes,
+                                   ProjectDependencyGraph graph )
+    {
+        Map<String, Long> wallTimes = new HashMap<>();
+        for ( ModuleTime moduleTime : moduleTimes )
+        {
+            wallTimes.put( moduleTime.getProjectId(), moduleTime.getWallTime() );
+        }
+        List<MavenProject> built = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        for ( MavenProject project : projects )
+        {
+            if ( wallTimes.containsKey( project.getId() ) )
+            {
+                index.put( project.getId(), built.size() );
+                built.add( project );
+            }
+        }
+
+        String[] modules = new String[built.size()];
+        long[] durations = new long[built.size()];
+        int[][] upstream = new int[built.size()][];
+        for ( int module = 0; module < modules.length; module++ )
+        {
+            MavenProject project = built.get( module );
+            modules[module] = project.getId();
+            durations[module] = wallTimes.get( project.getId() );
+            List<Integer> upstreamModules = new ArrayList<>();
+            for ( MavenProject upstreamProject : graph.getUpstreamProjects( project, false ) )
+            {
+                Integer upstreamModule = index.get( upstreamProject.getId() );
+                if ( upstreamModule != null )
+                {
+                    upstreamModules.add( upstreamModule );
+                }
+            }
+            upstream[module] = toArray( upstreamModules );
+        }
+        return new SchedulerSimulation( modules, durations, upstream );
+    }
+
+    private static int[][] invert( int[][] upstream )
+    {
+        List<List<Integer>> result = new ArrayList<>();
+        for ( int module = 0; module < upstream.length; module++ )
+        {
+            result.add( new ArrayList<Integer>() );
+        }
+        for ( int module = 0; module < upstream.length; module++ )
+        {
+            for ( int previous : upstream[module] )
+            {
+                result.get( previous ).add( module );
+            }
+        }
+        int[][] downstream = new int[upstream.length][];
+        for ( int module = 0; module < upstream.length; module++ )
+        {
+            downstream[module] = toArray( result.get( module ) );
+        }
+        return downstream;
+    }
+
+    private static int[] toArray( List<Integer> values )
+    {
+        int[] result = new int[values.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = values.get( i );
+        }
+        return result;
+    }
+
+    private Comparator<Integer> getOrder( Policy policy )
+    {
+        switch ( policy )
+        {
+            case CRITICAL_PATH_FIRST:
+                return new Comparator<Integer>()
+                {
+                    public int compare( Integer left, Integer right )
+                    {
+                        int result = Long.compare( criticalPath[right], criticalPath[left] );
+                        return result != 0 ? result : Integer.compare( left, right );
+                    }
+                };
+            case LONGEST_JOB_FIRST:
+                return new Comparator<Integer>()
+                {
+                    public int compare( Integer left, Integer right )
+                    {
+                        int result = Long.compare( durations[right], durations[left] );
+                        return result != 0 ? result : Integer.compare( left, right );
+                    }
+                };
+            default:
+                return new Comparator<Integer>()
+                {
+                    public int compare( Integer left, Integer right )
+                    {
+                        return Integer.compare( left, right );
+                    }
+                };
+        }
+    }
+
+    /**
+     * @return The predicted wall time of the build in milliseconds.
+     */
+    public long simulate( int threads, Policy policy )
+    {
+        if ( threads < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid number of threads (" + threads + ")" );
+        }
+        int[] pending = new int[modules.length];
+        PriorityQueue<Integer> ready = new PriorityQueue<>( Math.max( 1, modules.length ), getOrder( policy ) );
+        for ( int module = 0; module < modules.length; module++ )
+        {
+            pending[module] = upstream[module].length;
+            if ( pending[module] == 0 )
+            {
+                ready.add( module );
+            }
+        }
+
+        // The running modules ordered by their end time: index 0 is the end time, index 1 the module.
+        PriorityQueue<long[]> running = new PriorityQueue<>( threads, new Comparator<long[]>()
+        {
+            public int compare( long[] left, long[] right )
+            {
+                int result = Long.compare( left[0], right[0] );
+                return result != 0 ? result : Long.compare( left[1], right[1] );
+            }
+        } );
+        long now = 0;
+        while ( !ready.isEmpty() || !running.isEmpty() )
+        {
+            while ( running.size() < threads && !ready.isEmpty() )
+            {
+                int module = ready.poll();
+                running.add( new long[] { now + durations[module], module } );
+            }
+            long[] finished = running.poll();
+            now = finished[0];
+            for ( int next : downstream[(int) finished[1]] )
+            {
+                if ( --pending[next] == 0 )
+                {
+                    ready.add( next );
+                }
+            }
+        }
+        return now;
+    }
+
+    int getModuleCount()
+    {
+        return modules.length;
+    }
+
+    String getModule( int module )
+    {
+        return modules[module];
+    }
+
+    long getDuration( int module )
+    {
+        return durations[module];
+    }
+
+    int[] getUpstream( int module )
+    {
+        return upstream[module];
+    }
+
+    int[] getDownstream( int module )
+    {
+        return downstream[module];
+    }
+
+    /**
+     * @return The duration of the longest path from the start of the module to the end of the build.
+     */
+    long getCriticalPath( int module )
+    {
+        return criticalPath[module];
+    }
+
+    /**
+     * @return The same reactor with a different wall time of one module.
+     */
+    SchedulerSimulation withDuration( int module, long duration )
+    {
+        long[] changed = durations.clone();
+        changed[module] = duration;
+        return new SchedulerSimulation( modules, changed, upstream );
+    }
+
+    /**
+     * @return The duration of the longest chain of modules, the wall time of the build with unlimited threads.
+     */
+    public long getCriticalPath()
+    {
+        long result = 0;
+        for ( long path : criticalPath )
+        {
+            result = Math.max( result, path );
+        }
+        return result;
+    }
+
+    public void report()
+    {
+        if ( modules.length == 0 )
+        {
+            return;
+        }
+        Policy[] policies = Policy.values();
+        LOGGER.info( "Predicted wall time for -T (critical path: {} ms):", getCriticalPath() );
+        LOGGER.info( "" );
+        long[] previous = null;
+        for ( int threads = 1; threads <= MAX_THREADS; threads++ )
+        {
+            long[] predicted = new long[policies.length];
+            for ( int policy = 0; policy < policies.length; policy++ )
+            {
+                predicted[policy] = simulate( threads, policies[policy] );
+            }
+            // Only the thread counts which change the prediction are of interest.
+            if ( previous == null || !Arrays.equals( previous, predicted ) )
+            {
+                StringBuilder line = new StringBuilder();
+                for ( int policy = 0; policy < policies.length; policy++ )
+                {
+                    line.append( policy == 0 ? "" : ", " ).append( policies[policy].getDescription() ).append( ' ' );
+                    line.append( predicted[policy] ).append( " ms" );
+                }
+                LOGGER.info( "-T {} : {}", String.format( "%2d", threads ), line );
+            }
+            previous = predicted;
+        }
+        LOGGER.info( "------------------------------------------------------------------------" );
+    }
+}
@@ -22,6 +22,9 @@ package com.soebes.maven.extensions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
@@ -29,26 +32,34 @@ class SessionTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private SystemTime time;
+    private static final String SESSION = "session";
+
+    private final SpanTree spanTree;
 
-    public SessionTimer()
+    public SessionTimer( SpanTree spanTree )
     {
-        this.time = new SystemTime();
+        this.spanTree = spanTree;
     }
 
     public void sessionStart( )
     {
-        time.start();
+        spanTree.start( SpanKind.SESSION, SESSION );
+    }
+
+    public void sessionStop( boolean failed )
+    {
+        spanTree.stop( SpanKind.SESSION, SESSION, failed );
     }
 
-    public void sessionStop( )
+    public long getElapsedTime()
     {
-        time.stop();
+        int span = spanTree.getSession();
+        return span == SpanTree.NO_SPAN ? 0 : spanTree.getElapsedTime( span );
     }
 
     public void report()
     {
-        LOGGER.info( "SessionTime: {}", time.getElapsedTime() );
+        LOGGER.info( "SessionTime: {}", getElapsedTime() );
     }
 
 }
@@ -0,0 +1,111 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A finished span of a build trace. Times are in nanoseconds since the epoch as required by OpenTelemetry.
+ */
+class Span
+{
+    private final String traceId;
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final String name;
+
+    private final long startTime;
+
+    private final long endTime;
+
+    private final boolean error;
+
+    private final Map<String, Object> attributes;
+
+    Span( String traceId, String spanId, String parentSpanId, String name, long startTime, long endTime,
+          boolean error, Map<String, Object> attributes )
+    {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.error = error;
+        this.attributes = Collections.unmodifiableMap( new LinkedHashMap<>( attributes ) );
+    }
+
+    public String getTraceId()
+    {
+        return traceId;
+    }
+
+    public String getSpanId()
+    {
+        return spanId;
+    }
+
+    /**
+     * @return The id of the parent span or {@code null} for the root span of the trace.
+     */
+    public String getParentSpanId()
+    {
+        return parentSpanId;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    public long getEndTime()
+    {
+        return endTime;
+    }
+
+    public boolean isError()
+    {
+        return error;
+    }
+
+    /**
+     * @return The attributes of the span, the values are either {@link String} or {@link Long}.
+     */
+    public Map<String, Object> getAttributes()
+    {
+        return attributes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + spanId + ")";
+    }
+}
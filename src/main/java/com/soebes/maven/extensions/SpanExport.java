@@ -0,0 +1,423 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+/**
+ * Exports every recorded span as one record for offline analysis, for example by loading the files of many builds
+ * into a database. The columns are {@link #COLUMNS}, {@code start} and {@code end} are in nanoseconds since the epoch
+ * and {@code bytes} is the size of a transfer. Columns which do not apply to the kind of the span are empty.
+ * <p>
+ * Two formats are written: CSV (RFC 4180 with a header line) and a columnar binary format. The columnar format is a
+ * sequence of row groups, so a reader can process one group at a time:
+ *
+ * <pre>
+ * int magic ("MBTC"), int version, int columns, per column: UTF name, byte type (0: number, 1: text)
+ * per row group: int rows, int new strings, per new string: UTF value, per column: int length, the values
+ * int 0
+ * </pre>
+ *
+ * Numbers are written as the zig-zag encoded variable length difference to the previous row of the group, so
+ * ascending times and repeated threads take one or two bytes. Texts are written as the variable length index into
+ * the string table plus one, {@code 0} means empty. Each row group adds the strings which it uses for the first time
+ * to the string table, so a group only refers to strings which precede its values.
+ * <p>
+ * The spans of a mapped store ({@code -Dmbtp.store=mapped}) can be exported after the build, even if it has died:
+ *
+ * <pre>
+ * java -cp maven-buildtime-profiler.jar com.soebes.maven.extensions.SpanExport .mvn/buildtime-profiler.spans spans.csv
+ * </pre>
+ *
+ * A file name ending with {@code .csv} is written as CSV, any other in the columnar format.
+ */
+public class SpanExport
+{
+    static final String[] COLUMNS = { "kind", "project", "plugin", "goal", "executionId", "phase", "name", "thread",
+        "start", "end", "bytes", "repository", "failed" };
+
+    static final int MAGIC = 0x4D425443;
+
+    static final int VERSION = 2;
+
+    static final int ROW_GROUP_SIZE = 65536;
+
+    private static final byte NUMBER = 0;
+
+    private static final byte TEXT = 1;
+
+    private static final int THREAD = 7;
+
+    private static final int REPOSITORY = 11;
+
+    private final SpanTree spanTree;
+
+    SpanExport( SpanTree spanTree )
+    {
+        this.spanTree = spanTree;
+    }
+
+    private static boolean isNumber( int column )
+    {
+        return column >= THREAD && column != REPOSITORY;
+    }
+
+    /**
+     * @return The values of the span: a {@link String} (or {@code null}) for text and a {@link Long} for number
+     *         columns.
+     */
+    Object[] getRecord( int span )
+    {
+        Object[] result = new Object[COLUMNS.length];
+        SpanKind kind = spanTree.getKind( span );
+        Object key = spanTree.getKey( span );
+        result[0] = kind.name();
+        if ( key instanceof ProjectMojo )
+        {
+            MojoKey mojo = ( (ProjectMojo) key ).getMojo();
+            result[1] = ( (ProjectMojo) key ).getProject().getId();
+            result[2] = mojo.getId();
+            result[3] = mojo.getGoal();
+            result[4] = mojo.getExecutionId();
+            result[5] = mojo.getPhase();
+        }
+        else if ( key instanceof ProjectGoal )
+        {
+            GoalKey goal = ( (ProjectGoal) key ).getMojo();
+            result[1] = ( (ProjectGoal) key ).getProject().getId();
+            result[2] = goal.getId();
+            result[3] = goal.getGoal();
+            result[4] = goal.getExecutionId();
+        }
+        else
+        {
+            int project = spanTree.getAncestor( span, SpanKind.PROJECT );
+            result[1] = project == SpanTree.NO_SPAN ? null : String.valueOf( spanTree.getKey( project ) );
+            result[6] = String.valueOf( key );
+        }
+        result[THREAD] = spanTree.getThreadId( span );
+        result[8] = spanTree.getStartTime( span );
+        result[9] = spanTree.getEndTime( span );
+        result[10] = spanTree.getBytes( span );
+        result[REPOSITORY] = spanTree.getRepository( span );
+        result[12] = spanTree.isFailed( span ) ? 1L : 0L;
+        return result;
+    }
+
+    public void writeCsv( File file )
+        throws IOException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        OutputStream output = new BufferedOutputStream( Files.newOutputStream( file.toPath() ) );
+        try ( Writer writer = new OutputStreamWriter( output, StandardCharsets.UTF_8 ) )
+        {
+            writeCsv( writer );
+        }
+    }
+
+    void writeCsv( Writer writer )
+        throws IOException
+    {
+        StringBuilder line = new StringBuilder( 256 );
+        for ( int column = 0; column < COLUMNS.length; column++ )
+        {
+            line.append( column == 0 ? "" : "," ).append( COLUMNS[column] );
+        }
+        writer.write( line.append( "\r\n" ).toString() );
+        int count = spanTree.getSpanCount();
+        for ( int span = 0; span < count; span++ )
+        {
+            line.setLength( 0 );
+            Object[] record = getRecord( span );
+            for ( int column = 0; column < record.length; column++ )
+            {
+                if ( column > 0 )
+                {
+                    line.append( ',' );
+                }
+                if ( record[column] instanceof String )
+                {
+                    quote( line, (String) record[column] );
+                }
+                else if ( record[column] != null )
+                {
+                    line.append( record[column] );
+                }
+            }
+            writer.write( line.append( "\r\n" ).toString() );
+        }
+        writer.flush();
+    }
+
+    private static void quote( StringBuilder line, String value )
+    {
+        if ( value.indexOf( ',' ) < 0 && value.indexOf( '"' ) < 0 && value.indexOf( '\n' ) < 0
+            && value.indexOf( '\r' ) < 0 )
+        {
+            line.append( value );
+            return;
+        }
+        line.append( '"' ).append( value.replace( "\"", "\"\"" ) ).append( '"' );
+    }
+
+    public void writeColumnar( File file )
+        throws IOException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try ( OutputStream output = new BufferedOutputStream( Files.newOutputStream( file.toPath() ) ) )
+        {
+            writeColumnar( output );
+        }
+    }
+
+    void writeColumnar( OutputStream output )
+        throws IOException
+    {
+        DataOutputStream data = new DataOutputStream( output );
+        data.writeInt( MAGIC );
+        data.writeInt( VERSION );
+        data.writeInt( COLUMNS.length );
+        for ( int column = 0; column < COLUMNS.length; column++ )
+        {
+            data.writeUTF( COLUMNS[column] );
+            data.writeByte( isNumber( column ) ? NUMBER : TEXT );
+        }
+
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> stringList = new ArrayList<>();
+        int count = spanTree.getSpanCount();
+        Object[][] group = new Object[Math.min( count, ROW_GROUP_SIZE )][];
+        for ( int first = 0; first < count; first += ROW_GROUP_SIZE )
+        {
+            int rows = Math.min( ROW_GROUP_SIZE, count - first );
+            for ( int row = 0; row < rows; row++ )
+            {
+                group[row] = getRecord( first + row );
+            }
+            int knownStrings = stringList.size();
+            VarIntBuffer[] columns = new VarIntBuffer[COLUMNS.length];
+            for ( int column = 0; column < COLUMNS.length; column++ )
+            {
+                VarIntBuffer values = new VarIntBuffer();
+                columns[column] = values;
+                long previous = 0;
+                for ( int row = 0; row < rows; row++ )
+                {
+                    if ( isNumber( column ) )
+                    {
+                        long value = (Long) group[row][column];
+                        values.writeZigZag( value - previous );
+                        previous = value;
+                    }
+                    else
+                    {
+                        values.writeVarInt( index( strings, stringList, (String) group[row][column] ) );
+                    }
+                }
+            }
+            data.writeInt( rows );
+            data.writeInt( stringList.size() - knownStrings );
+            for ( String value : stringList.subList( knownStrings, stringList.size() ) )
+            {
+                data.writeUTF( value );
+            }
+            for ( VarIntBuffer values : columns )
+            {
+                data.writeInt( values.size() );
+                values.writeTo( data );
+            }
+        }
+        data.writeInt( 0 );
+        data.flush();
+    }
+
+    private static int index( Map<String, Integer> strings, List<String> stringList, String value )
+    {
+        if ( value == null )
+        {
+            return 0;
+        }
+        Integer result = strings.get( value );
+        if ( result == null )
+        {
+            stringList.add( value );
+            result = stringList.size();
+            strings.put( value, result );
+        }
+        return result;
+    }
+
+    /**
+     * Reads a file written by {@link #writeColumnar(OutputStream)}, for example to convert it into another format.
+     *
+     * @return The records with the values as described by {@link #getRecord(int)}.
+     */
+    static List<Object[]> readColumnar( InputStream input )
+        throws IOException
+    {
+        DataInputStream data = new DataInputStream( input );
+        if ( data.readInt() != MAGIC )
+        {
+            throw new IOException( "Not a span export" );
+        }
+        int version = data.readInt();
+        if ( version != VERSION )
+        {
+            throw new IOException( "Unsupported version (" + version + ")" );
+        }
+        int columns = data.readInt();
+        boolean[] numbers = new boolean[columns];
+        for ( int column = 0; column < columns; column++ )
+        {
+            data.readUTF();
+            numbers[column] = data.readByte() == NUMBER;
+        }
+
+        List<Object[]> result = new ArrayList<>();
+        List<String> strings = new ArrayList<>();
+        for ( int rows = data.readInt(); rows > 0; rows = data.readInt() )
+        {
+            for ( int newStrings = data.readInt(); newStrings > 0; newStrings-- )
+            {
+                strings.add( data.readUTF() );
+            }
+            int first = result.size();
+            for ( int row = 0; row < rows; row++ )
+            {
+                result.add( new Object[columns] );
+            }
+            for ( int column = 0; column < columns; column++ )
+            {
+                byte[] values = new byte[data.readInt()];
+                data.readFully( values );
+                int[] position = { 0 };
+                long previous = 0;
+                for ( int row = 0; row < rows; row++ )
+                {
+                    long value = readVarInt( values, position );
+                    if ( numbers[column] )
+                    {
+                        previous += ( value >>> 1 ) ^ -( value & 1 );
+                        result.get( first + row )[column] = previous;
+                    }
+                    else if ( value != 0 )
+                    {
+                        if ( value > strings.size() )
+                        {
+                            throw new IOException( "Unknown string (" + value + ")" );
+                        }
+                        result.get( first + row )[column] = strings.get( (int) value - 1 );
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public static void main( String[] args )
+        throws IOException
+    {
+        if ( args.length != 2 )
+        {
+            System.err.println( "Usage: SpanExport <spans> <output>" );
+            System.exit( 2 );
+        }
+        SpanTree spanTree = SpanTree.read( new File( args[0] ), new SpanKeyCodec() );
+        try
+        {
+            SpanExport export = new SpanExport( spanTree );
+            File output = new File( args[1] );
+            if ( output.getName().endsWith( ".csv" ) )
+            {
+                export.writeCsv( output );
+            }
+            else
+            {
+                export.writeColumnar( output );
+            }
+        }
+        finally
+        {
+            spanTree.close();
+        }
+    }
+
+    private static long readVarInt( byte[] values, int[] position )
+        throws IOException
+    {
+        long result = 0;
+        for ( int shift = 0; shift < 64; shift += 7 )
+        {
+            if ( position[0] >= values.length )
+            {
+                throw new EOFException( "Truncated column" );
+            }
+            byte b = values[position[0]++];
+            result |= (long) ( b & 0x7F ) << shift;
+            if ( b >= 0 )
+            {
+                return result;
+            }
+        }
+        throw new IOException( "Invalid variable length number" );
+    }
+
+    /**
+     * The values of one column of a row group, which are written with their length in front.
+     */
+    private static final class VarIntBuffer
+        extends ByteArrayOutputStream
+    {
+        void writeZigZag( long value )
+        {
+            writeVarInt( ( value << 1 ) ^ ( value >> 63 ) );
+        }
+
+        void writeVarInt( long value )
+        {
+            long remaining = value;
+            while ( ( remaining & ~0x7FL ) != 0 )
+            {
+                super.write( (int) ( ( remaining & 0x7F ) | 0x80 ) );
+                remaining >>>= 7;
+            }
+            super.write( (int) remaining );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.soebes.maven.extensions.span.KeyCodec;
+
+/**
+ * Writes the keys of the spans of the profiler: the {@link ProjectMojo} of the lifecycle mojos, the
+ * {@link ProjectGoal} of the goals called directly and the string ids of everything else. A tree which is read with
+ * this codec can be passed to all reports.
+ */
+class SpanKeyCodec
+    implements KeyCodec
+{
+    private static final byte STRING = 0;
+
+    private static final byte MOJO = 1;
+
+    private static final byte GOAL = 2;
+
+    @Override
+    public void write( DataOutput output, Object key )
+        throws IOException
+    {
+        if ( key instanceof ProjectMojo )
+        {
+            ProjectMojo projectMojo = (ProjectMojo) key;
+            MojoKey mojo = projectMojo.getMojo();
+            output.writeByte( MOJO );
+            writeProject( output, projectMojo.getProject() );
+            writeProject( output, mojo );
+            writeString( output, mojo.getGoal() );
+            writeString( output, mojo.getExecutionId() );
+            writeString( output, mojo.getPhase() );
+        }
+        else if ( key instanceof ProjectGoal )
+        {
+            ProjectGoal projectGoal = (ProjectGoal) key;
+            GoalKey goal = projectGoal.getMojo();
+            output.writeByte( GOAL );
+            writeProject( output, projectGoal.getProject() );
+            writeProject( output, goal );
+            writeString( output, goal.getGoal() );
+            writeString( output, goal.getExecutionId() );
+        }
+        else
+        {
+            output.writeByte( STRING );
+            writeString( output, String.valueOf( key ) );
+        }
+    }
+
+    @Override
+    public Object read( DataInput input )
+        throws IOException
+    {
+        byte type = input.readByte();
+        switch ( type )
+        {
+            case MOJO:
+                ProjectKey mojoProject = readProject( input );
+                ProjectKey mojo = readProject( input );
+                return new ProjectMojo( mojoProject,
+                                        new MojoKey( mojo.getGroupId(), mojo.getArtifactId(), mojo.getVersion(),
+                                                     readString( input ), readString( input ),
+                                                     readString( input ) ) );
+            case GOAL:
+                ProjectKey goalProject = readProject( input );
+                ProjectKey goal = readProject( input );
+                return new ProjectGoal( goalProject, new GoalKey( goal.getGroupId(), goal.getArtifactId(),
+                                                                  goal.getVersion(), readString( input ),
+                                                                  readString( input ) ) );
+            case STRING:
+                return readString( input );
+            default:
+                throw new IOException( "Unknown type of key (" + type + ")" );
+        }
+    }
+
+    private static void writeProject( DataOutput output, ProjectKey project )
+        throws IOException
+    {
+        writeString( output, project.getGroupId() );
+        writeString( output, project.getArtifactId() );
+        writeString( output, project.getVersion() );
+    }
+
+    private static ProjectKey readProject( DataInput input )
+        throws IOException
+    {
+        return new ProjectKey( readString( input ), readString( input ), readString( input ) );
+    }
+
+    private static void writeString( DataOutput output, String value )
+        throws IOException
+    {
+        output.writeBoolean( value != null );
+        if ( value != null )
+        {
+            output.writeUTF( value );
+        }
+    }
+
+    private static String readString( DataInput input )
+        throws IOException
+    {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
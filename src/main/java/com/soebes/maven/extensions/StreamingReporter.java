@@ -0,0 +1,194 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends the phase and mojo summary of each project to a file as soon as the project has finished. A build which is
+ * killed (for example by a CI timeout) will leave the summaries of all finished projects. The phase totals are
+ * aggregated on the fly, so the final summary is only a lookup.
+ */
+class StreamingReporter
+{
+    private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
+
+    static final String GOALS = "(goals)";
+
+    private final File file;
+
+    private final ConcurrentMap<ProjectKey, ProjectSummary> running;
+
+    private final ConcurrentMap<ProjectKey, ProjectSummary> finished;
+
+    private final ConcurrentMap<String, AtomicLong> phaseTotals;
+
+    public StreamingReporter( File file )
+    {
+        this.file = file;
+        this.running = new ConcurrentHashMap<>();
+        this.finished = new ConcurrentHashMap<>();
+        this.phaseTotals = new ConcurrentHashMap<>();
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    private ProjectKey createProjectKey( MavenProject project )
+    {
+        return new ProjectKey( project.getGroupId(), project.getArtifactId(), project.getVersion() );
+    }
+
+    private MojoKey createMojoKey( MojoExecution mojo )
+    {
+        return new MojoKey( mojo.getGroupId(), mojo.getArtifactId(), mojo.getVersion(), mojo.getGoal(),
+                            mojo.getExecutionId(), mojo.getLifecyclePhase() );
+    }
+
+    /**
+     * Starts a new stream. A file of a previous build will be overwritten.
+     */
+    public void sessionStart()
+    {
+        if ( file.exists() && !file.delete() )
+        {
+            LOGGER.warn( "MBTP: Could not delete {}", file );
+        }
+        append( "Maven Build Time Profiler (Version " + BuildTimeProfilerVersion.getVersion() + ") started at "
+            + new Date() + System.lineSeparator() );
+    }
+
+    public void mojoStop( ExecutionEvent event, long timeInMillis )
+    {
+        ProjectKey projectKey = createProjectKey( event.getProject() );
+        ProjectSummary summary = running.get( projectKey );
+        if ( summary == null )
+        {
+            running.putIfAbsent( projectKey, new ProjectSummary( projectKey, event.getProject().getName() ) );
+            summary = running.get( projectKey );
+        }
+
+        MojoKey mojoKey = createMojoKey( event.getMojoExecution() );
+        String phase = mojoKey.getPhase() == null ? GOALS : mojoKey.getPhase();
+        summary.addMojo( phase, mojoKey.getFullId(), timeInMillis );
+
+        AtomicLong phaseTotal = phaseTotals.get( phase );
+        if ( phaseTotal == null )
+        {
+            phaseTotals.putIfAbsent( phase, new AtomicLong() );
+            phaseTotal = phaseTotals.get( phase );
+        }
+        phaseTotal.addAndGet( timeInMillis );
+    }
+
+    public void projectStop( ExecutionEvent event, long timeInMillis )
+    {
+        ProjectKey projectKey = createProjectKey( event.getProject() );
+        ProjectSummary summary = running.remove( projectKey );
+        if ( summary == null )
+        {
+            // A project without any mojo execution (for example skipped).
+            summary = new ProjectSummary( projectKey, event.getProject().getName() );
+        }
+        summary.finish( event.getType().name(), timeInMillis );
+        finished.put( projectKey, summary );
+
+        append( format( summary ) );
+    }
+
+    String format( ProjectSummary summary )
+    {
+        StringBuilder sb = new StringBuilder( 1024 );
+        sb.append( String.format( "%8d ms : %s (%s) %s%n", summary.getElapsedTime(), summary.getName(),
+                                  summary.getProject().getId(), summary.getResult() ) );
+        for ( String phase : summary.getPhases() )
+        {
+            sb.append( String.format( "    %8d ms : %s%n", summary.getTimeForPhase( phase ), phase ) );
+            for ( Entry<String, Long> mojo : summary.getMojosInPhase( phase ).entrySet() )
+            {
+                sb.append( String.format( "        %8d ms : %s%n", mojo.getValue(), mojo.getKey() ) );
+            }
+        }
+        return sb.toString();
+    }
+
+    public ProjectSummary getSummary( ProjectKey projectKey )
+    {
+        return finished.get( projectKey );
+    }
+
+    public long getTimeForPhaseInMillis( String phase )
+    {
+        AtomicLong result = phaseTotals.get( phase );
+        return result == null ? 0 : result.get();
+    }
+
+    /**
+     * Appends the lifecycle phase summary which is built from the already aggregated phase totals.
+     */
+    public void sessionStop( List<String> lifeCyclePhases )
+    {
+        StringBuilder sb = new StringBuilder( 1024 );
+        sb.append( String.format( "Lifecycle Phase summary:%n" ) );
+        for ( String phase : lifeCyclePhases )
+        {
+            sb.append( String.format( "%8d ms : %s%n", getTimeForPhaseInMillis( phase ), phase ) );
+        }
+        append( sb.toString() );
+    }
+
+    private synchronized void append( String text )
+    {
+        // The file is opened for each project so everything which has been written survives a killed build.
+        File parent = file.getAbsoluteFile().getParentFile();
+        if ( parent != null && !parent.isDirectory() && !parent.mkdirs() )
+        {
+            LOGGER.warn( "MBTP: Could not create directory {}", parent );
+            return;
+        }
+        try ( PrintWriter writer = new PrintWriter( new OutputStreamWriter( new FileOutputStream( file, true ),
+                                                                            "UTF-8" ) ) )
+        {
+            writer.print( text );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "MBTP: Could not write to {}", file, e );
+        }
+    }
+}
@@ -33,6 +33,12 @@ class SystemTime
     {
     }
 
+    SystemTime( long startTime, long stopTime )
+    {
+        this.startTime = startTime;
+        this.stopTime = stopTime;
+    }
+
     public SystemTime start()
     {
         this.startTime = System.currentTimeMillis();
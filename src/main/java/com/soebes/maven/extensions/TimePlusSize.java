@@ -28,11 +28,20 @@ public class TimePlusSize
 
     private long size;
 
+    private String repository;
+
     public TimePlusSize()
     {
         super();
     }
 
+    public TimePlusSize( long startTime, long stopTime, long size, String repository )
+    {
+        super( startTime, stopTime );
+        this.size = size;
+        this.repository = repository;
+    }
+
     public long getSize()
     {
         return size;
@@ -43,4 +52,14 @@ public class TimePlusSize
         this.size = size;
     }
 
+    public String getRepository()
+    {
+        return repository;
+    }
+
+    public void setRepository( String repository )
+    {
+        this.repository = repository;
+    }
+
 }
@@ -0,0 +1,114 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the entries with the largest values out of a stream of entries. Only the current top entries are kept in a
+ * min-heap, so selecting the top {@code N} out of {@code n} entries costs {@code O(n log N)}.
+ *
+ * @param <T> The type of the entries.
+ */
+class TopN<T>
+{
+    static final class Entry<T>
+    {
+        private final T key;
+
+        private final long value;
+
+        Entry( T key, long value )
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        public T getKey()
+        {
+            return key;
+        }
+
+        public long getValue()
+        {
+            return value;
+        }
+    }
+
+    private static final Comparator<Entry<?>> BY_VALUE = new Comparator<Entry<?>>()
+    {
+        public int compare( Entry<?> left, Entry<?> right )
+        {
+            return Long.compare( left.getValue(), right.getValue() );
+        }
+    };
+
+    private final int size;
+
+    private final PriorityQueue<Entry<T>> heap;
+
+    private long total;
+
+    TopN( int size )
+    {
+        if ( size < 1 )
+        {
+            throw new IllegalArgumentException( "Invalid size (" + size + ")" );
+        }
+        this.size = size;
+        this.heap = new PriorityQueue<>( size + 1, BY_VALUE );
+    }
+
+    public void add( T key, long value )
+    {
+        total += value;
+        if ( heap.size() < size )
+        {
+            heap.add( new Entry<>( key, value ) );
+        }
+        else if ( value > heap.peek().getValue() )
+        {
+            heap.poll();
+            heap.add( new Entry<>( key, value ) );
+        }
+    }
+
+    /**
+     * @return The sum of the values of all entries which have been added.
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return The top entries, the largest value first.
+     */
+    public List<Entry<T>> getEntries()
+    {
+        List<Entry<T>> result = new ArrayList<>( heap );
+        Collections.sort( result, Collections.reverseOrder( BY_VALUE ) );
+        return result;
+    }
+}
@@ -19,8 +19,8 @@ package com.soebes.maven.extensions.artifact;
  * under the License.
  */
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.artifact.Artifact;
@@ -28,6 +28,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.soebes.maven.extensions.TimePlusSize;
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
 
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
@@ -36,11 +38,19 @@ public abstract class AbstractArtifactTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    private Map<String, TimePlusSize> timerEvents;
+    private final SpanTree spanTree;
+
+    private final SpanKind kind;
 
     public AbstractArtifactTimer()
     {
-        this.timerEvents = new ConcurrentHashMap<>();
+        this( new SpanTree(), SpanKind.DOWNLOAD );
+    }
+
+    public AbstractArtifactTimer( SpanTree spanTree, SpanKind kind )
+    {
+        this.spanTree = spanTree;
+        this.kind = kind;
     }
 
     protected String getArtifactId( Artifact artifact )
@@ -59,27 +69,50 @@ public abstract class AbstractArtifactTimer
         return sb.toString();
     }
 
-    protected Map<String, TimePlusSize> getTimerEvents()
+    /**
+     * @return The transfers of this kind with their time and size, calculated from the span tree.
+     */
+    public Map<String, TimePlusSize> getTimerEvents()
+    {
+        Map<String, TimePlusSize> result = new LinkedHashMap<>();
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            result.put( (String) spanTree.getKey( span ),
+                        new TimePlusSize( 0, spanTree.getElapsedTime( span ), spanTree.getBytes( span ),
+                                          spanTree.getRepository( span ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * @return The id of the repository or {@code null} if the event has none.
+     */
+    private static String getRepositoryId( RepositoryEvent event )
     {
-        return timerEvents;
+        return event.getRepository() == null ? null : event.getRepository().getId();
     }
 
-    public void start( RepositoryEvent event )
+    /**
+     * @return The span of the transfer.
+     */
+    public int start( RepositoryEvent event )
     {
         String artifactId = getArtifactId( event.getArtifact() );
-        TimePlusSize systemTime = new TimePlusSize();
-        systemTime.start();
-        getTimerEvents().put( artifactId, systemTime );
+        int span = spanTree.start( kind, artifactId, getRepositoryId( event ) );
+        return span;
     }
 
-    public void stop( RepositoryEvent event )
+    /**
+     * @return The span of the transfer.
+     */
+    public int stop( RepositoryEvent event )
     {
         String artifactId = getArtifactId( event.getArtifact() );
-        if ( !getTimerEvents().containsKey( artifactId ) )
+        int span = spanTree.find( kind, artifactId, getRepositoryId( event ) );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown artifactId (" + artifactId + ")" );
         }
-        getTimerEvents().get( artifactId ).stop();
 
         long size = 0;
         // This could happen if an artifact could not be found for download (like site_..xml etc.)
@@ -87,7 +120,10 @@ public abstract class AbstractArtifactTimer
         {
             size = event.getArtifact().getFile().length();
         }
-        getTimerEvents().get( artifactId ).setSize( size );
+        // The size is set before the span is ended, so the listeners see it.
+        spanTree.setBytes( span, size );
+        spanTree.stop( kind, artifactId, getRepositoryId( event ), event.getException() != null );
+        return span;
     }
 
     private final double MiB = 1024 * 1024;
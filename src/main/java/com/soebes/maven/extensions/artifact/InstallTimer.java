@@ -26,6 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.soebes.maven.extensions.TimePlusSize;
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
 
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
@@ -35,9 +37,9 @@ public class InstallTimer
 {
     private final Logger LOGGER = LoggerFactory.getLogger( getClass() );
 
-    public InstallTimer()
+    public InstallTimer( SpanTree spanTree )
     {
-        super();
+        super( spanTree, SpanKind.INSTALL );
     }
 
     public void report()
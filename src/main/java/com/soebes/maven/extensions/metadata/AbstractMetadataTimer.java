@@ -19,24 +19,34 @@ package com.soebes.maven.extensions.metadata;
  * under the License.
  */
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.metadata.Metadata;
 
 import com.soebes.maven.extensions.TimePlusSize;
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
 
 /**
  * @author Karl Heinz Marbaise <a href="mailto:kama@soebes.de">kama@soebes.de</a>
  */
 public abstract class AbstractMetadataTimer
 {
-    private Map<String, TimePlusSize> timerEvents;
+    private final SpanTree spanTree;
+
+    private final SpanKind kind;
 
     public AbstractMetadataTimer()
     {
-        this.timerEvents = new ConcurrentHashMap<>();
+        this( new SpanTree(), SpanKind.METADATA_DOWNLOAD );
+    }
+
+    public AbstractMetadataTimer( SpanTree spanTree, SpanKind kind )
+    {
+        this.spanTree = spanTree;
+        this.kind = kind;
     }
 
     protected String getArtifactId( Metadata artifact )
@@ -51,34 +61,51 @@ public abstract class AbstractMetadataTimer
         return sb.toString();
     }
 
+    /**
+     * @return The transfers of this kind with their time and size, calculated from the span tree.
+     */
     protected Map<String, TimePlusSize> getTimerEvents()
     {
-        return timerEvents;
+        Map<String, TimePlusSize> result = new LinkedHashMap<>();
+        for ( int span : spanTree.getSpans( kind ) )
+        {
+            result.put( (String) spanTree.getKey( span ),
+                        new TimePlusSize( 0, spanTree.getElapsedTime( span ), spanTree.getBytes( span ),
+                                          spanTree.getRepository( span ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * @return The id of the repository or {@code null} if the event has none.
+     */
+    private static String getRepositoryId( RepositoryEvent event )
+    {
+        return event.getRepository() == null ? null : event.getRepository().getId();
     }
 
     public void start( RepositoryEvent event )
     {
         String metadataId = getArtifactId( event.getMetadata() );
-        TimePlusSize systemTime = new TimePlusSize();
-        systemTime.start();
-        getTimerEvents().put( metadataId, systemTime );
+        spanTree.start( kind, metadataId, getRepositoryId( event ) );
     }
 
     public void stop( RepositoryEvent event )
     {
         String metadataId = getArtifactId( event.getMetadata() );
-        if ( !getTimerEvents().containsKey( metadataId ) )
+        int span = spanTree.find( kind, metadataId, getRepositoryId( event ) );
+        if ( span == SpanTree.NO_SPAN )
         {
             throw new IllegalArgumentException( "Unknown metadataId (" + metadataId + ")" );
         }
-        getTimerEvents().get( metadataId ).stop();
 
         long size = 0;
         if ( event.getMetadata().getFile() != null )
         {
             size = event.getMetadata().getFile().length();
         }
-        getTimerEvents().get( metadataId ).setSize( size );
+        spanTree.setBytes( span, size );
+        spanTree.stop( kind, metadataId, getRepositoryId( event ), event.getException() != null );
     }
 
 }
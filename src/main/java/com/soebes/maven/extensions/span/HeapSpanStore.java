@@ -0,0 +1,123 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the records in segments of one {@code long[]} per column on the heap. A full segment is never copied, a new
+ * one is added instead, so appending only needs a lock when a segment is added.
+ */
+public class HeapSpanStore
+    implements SpanStore
+{
+    static final int SEGMENT_SHIFT = 12;
+
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final int columns;
+
+    /**
+     * Index: segment, column, record in the segment. The array is replaced when a segment is added, so a reader
+     * always sees completely initialized segments.
+     */
+    private volatile long[][][] segments;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    public HeapSpanStore( int columns )
+    {
+        this.columns = columns;
+        this.segments = new long[][][] { new long[columns][SEGMENT_SIZE] };
+    }
+
+    @Override
+    public int append()
+    {
+        int record = size.getAndIncrement();
+        int segment = record >>> SEGMENT_SHIFT;
+        if ( segment >= segments.length )
+        {
+            addSegment( segment );
+        }
+        return record;
+    }
+
+    private synchronized void addSegment( int segment )
+    {
+        long[][][] current = segments;
+        if ( segment >= current.length )
+        {
+            long[][][] larger = Arrays.copyOf( current, Math.max( segment + 1, current.length * 2 ) );
+            for ( int i = current.length; i < larger.length; i++ )
+            {
+                larger[i] = new long[columns][SEGMENT_SIZE];
+            }
+            segments = larger;
+        }
+    }
+
+    @Override
+    public long get( int record, int column )
+    {
+        if ( record >= size.get() )
+        {
+            throw new IndexOutOfBoundsException( "Unknown record (" + record + ")" );
+        }
+        return segments[record >>> SEGMENT_SHIFT][column][record & SEGMENT_MASK];
+    }
+
+    @Override
+    public void set( int record, int column, long value )
+    {
+        if ( record >= size.get() )
+        {
+            throw new IndexOutOfBoundsException( "Unknown record (" + record + ")" );
+        }
+        segments[record >>> SEGMENT_SHIFT][column][record & SEGMENT_MASK] = value;
+    }
+
+    @Override
+    public int size()
+    {
+        return size.get();
+    }
+
+    @Override
+    public void setTimeBase( long epochNanos, long nanoTime )
+    {
+        // The tree keeps the time base itself.
+    }
+
+    @Override
+    public void addKey( int index, Object key )
+    {
+        // The tree keeps the keys itself.
+    }
+
+    @Override
+    public void close()
+    {
+        // Nothing to release, the records are garbage collected with the store.
+    }
+}
@@ -0,0 +1,51 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A list of {@code int} which does not box its elements. It is not thread safe.
+ */
+class IntList
+{
+    private int[] elements = new int[16];
+
+    private int size;
+
+    void add( int element )
+    {
+        if ( size == elements.length )
+        {
+            elements = Arrays.copyOf( elements, size * 2 );
+        }
+        elements[size++] = element;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    int[] toArray()
+    {
+        return Arrays.copyOf( elements, size );
+    }
+}
@@ -0,0 +1,57 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes the keys of the spans to the file of a mapped store and reads them back, so a tree which is read from the
+ * file has the same keys as the tree of the build.
+ */
+public interface KeyCodec
+{
+    /**
+     * Keeps the string form of the keys only.
+     */
+    KeyCodec STRINGS = new KeyCodec()
+    {
+        @Override
+        public void write( DataOutput output, Object key )
+            throws IOException
+        {
+            output.writeUTF( String.valueOf( key ) );
+        }
+
+        @Override
+        public Object read( DataInput input )
+            throws IOException
+        {
+            return input.readUTF();
+        }
+    };
+
+    void write( DataOutput output, Object key )
+        throws IOException;
+
+    Object read( DataInput input )
+        throws IOException;
+}
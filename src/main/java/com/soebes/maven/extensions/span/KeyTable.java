@@ -0,0 +1,159 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns the keys of the spans (project ids, mojos, artifacts, repositories) so each distinct key is kept only once
+ * and a record refers to it by its index. Keys are interned concurrently without a common lock. If two threads intern
+ * the same new key at the same time, one of the reserved indexes stays unused.
+ * <p>
+ * Looking up a known key does not create any object. Each new key costs an entry of the concurrent map and a boxed
+ * {@link Integer} for its index.
+ */
+class KeyTable
+{
+    static final int NO_KEY = -1;
+
+    private static final int SEGMENT_SHIFT = 10;
+
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    private final ConcurrentMap<Object, Integer> index;
+
+    /**
+     * The array is replaced when a segment is added, so a reader always sees completely initialized segments.
+     */
+    private volatile Object[][] segments;
+
+    private final AtomicInteger size;
+
+    KeyTable()
+    {
+        this.index = new ConcurrentHashMap<>();
+        this.segments = new Object[][] { new Object[SEGMENT_SIZE] };
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * @return The index of the key or {@link #NO_KEY} for {@code null}.
+     */
+    int intern( Object key )
+    {
+        if ( key == null )
+        {
+            return NO_KEY;
+        }
+        Integer result = index.get( key );
+        if ( result != null )
+        {
+            return result;
+        }
+        int candidate = size.getAndIncrement();
+        int segment = candidate >>> SEGMENT_SHIFT;
+        if ( segment >= segments.length )
+        {
+            addSegment( segment );
+        }
+        // The key is stored before it is published via the index.
+        segments[segment][candidate & ( SEGMENT_SIZE - 1 )] = key;
+        result = index.putIfAbsent( key, candidate );
+        if ( result != null )
+        {
+            return result;
+        }
+        added( candidate, key );
+        return candidate;
+    }
+
+    /**
+     * Called once for each new key before its index is returned by {@link #intern(Object)}.
+     */
+    protected void added( int index, Object key )
+    {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Restores a key at its former index. This must not be used concurrently with {@link #intern(Object)}.
+     */
+    void put( int index, Object key )
+    {
+        int segment = index >>> SEGMENT_SHIFT;
+        if ( segment >= segments.length )
+        {
+            addSegment( segment );
+        }
+        segments[segment][index & ( SEGMENT_SIZE - 1 )] = key;
+        this.index.put( key, index );
+        if ( size.get() <= index )
+        {
+            size.set( index + 1 );
+        }
+    }
+
+    private synchronized void addSegment( int segment )
+    {
+        Object[][] current = segments;
+        if ( segment >= current.length )
+        {
+            Object[][] larger = Arrays.copyOf( current, Math.max( segment + 1, current.length * 2 ) );
+            for ( int i = current.length; i < larger.length; i++ )
+            {
+                larger[i] = new Object[SEGMENT_SIZE];
+            }
+            segments = larger;
+        }
+    }
+
+    /**
+     * @return The index of the key or {@link #NO_KEY} if it has never been interned.
+     */
+    int find( Object key )
+    {
+        Integer result = key == null ? null : index.get( key );
+        return result == null ? NO_KEY : result;
+    }
+
+    /**
+     * @return The key or {@code null} for {@link #NO_KEY} and a key which is missing in a restored table.
+     */
+    Object get( int key )
+    {
+        Object[][] current = segments;
+        if ( key == NO_KEY || ( key >>> SEGMENT_SHIFT ) >= current.length )
+        {
+            return null;
+        }
+        return current[key >>> SEGMENT_SHIFT][key & ( SEGMENT_SIZE - 1 )];
+    }
+
+    /**
+     * @return The number of distinct keys.
+     */
+    int size()
+    {
+        return index.size();
+    }
+}
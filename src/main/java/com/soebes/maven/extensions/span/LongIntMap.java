@@ -0,0 +1,113 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A map from {@code long} to {@code int} with open addressing, so an entry needs neither an entry object nor boxed
+ * keys and values. Entries can not be removed.
+ */
+class LongIntMap
+{
+    static final int NO_VALUE = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    LongIntMap()
+    {
+        this.keys = new long[1024];
+        this.values = new int[1024];
+        Arrays.fill( keys, EMPTY );
+    }
+
+    private int slot( long[] table, long key )
+    {
+        int mask = table.length - 1;
+        // Spread the bits, the keys are built from small numbers.
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) ( hash ^ ( hash >>> 32 ) ) & mask;
+        while ( table[slot] != EMPTY && table[slot] != key )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key Any value except {@link Long#MIN_VALUE}.
+     */
+    void put( long key, int value )
+    {
+        if ( key == EMPTY )
+        {
+            throw new IllegalArgumentException( "Invalid key (" + key + ")" );
+        }
+        if ( ( size + 1 ) * 2 > keys.length )
+        {
+            grow();
+        }
+        int slot = slot( keys, key );
+        if ( keys[slot] == EMPTY )
+        {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * @return The value or {@link #NO_VALUE} if there is none.
+     */
+    int get( long key )
+    {
+        int slot = slot( keys, key );
+        return keys[slot] == EMPTY ? NO_VALUE : values[slot];
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill( keys, EMPTY );
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            if ( oldKeys[i] != EMPTY )
+            {
+                int slot = slot( keys, oldKeys[i] );
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
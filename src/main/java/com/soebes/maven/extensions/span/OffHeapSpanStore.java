@@ -0,0 +1,433 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the records outside of the heap, either in direct buffers or in a memory mapped file, so they do not compete
+ * with the build for heap space. The records are stored one after another with their columns in a row, in segments
+ * of {@link HeapSpanStore#SEGMENT_SIZE} records which are never moved once they are allocated.
+ * <p>
+ * A mapped file starts with a header of four {@code int} values: the magic number, the format version, the number of
+ * columns and the number of records, followed by two {@code long} values: the time base, a time since the epoch in
+ * nanoseconds and the {@link System#nanoTime()} at that time. The segments follow the header without a gap. The
+ * number of records is updated with each append, so the file can be read even if the JVM dies, for example of an
+ * {@link OutOfMemoryError}. If several threads append at the same time it may lag behind by those records.
+ * <p>
+ * The key columns only contain the index of the key. The keys are appended to a second file with the suffix
+ * {@code .keys}, each as its index and the key written by a {@link KeyCodec}. The keys are buffered and written in
+ * blocks, because a build with many transfers has a new key for nearly every span. After a crash the keys of the
+ * last block may be missing, the records which refer to them have no key. {@link #open(File)} reads the records
+ * again and {@link SpanTree#read(File, KeyCodec)} the records and their keys.
+ */
+public class OffHeapSpanStore
+    implements SpanStore
+{
+    public static final int MAGIC = 0x4D425450;
+
+    public static final int VERSION = 2;
+
+    public static final int HEADER_SIZE = 32;
+
+    private static final int SIZE_OFFSET = 12;
+
+    private static final int EPOCH_NANOS_OFFSET = 16;
+
+    private static final int NANO_TIME_OFFSET = 24;
+
+    /**
+     * The size of a block of keys in bytes.
+     */
+    private static final int KEY_BLOCK_SIZE = 65536;
+
+    private static final int SEGMENT_SHIFT = HeapSpanStore.SEGMENT_SHIFT;
+
+    private static final int SEGMENT_MASK = HeapSpanStore.SEGMENT_SIZE - 1;
+
+    private final int columns;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer header;
+
+    /**
+     * The keys of a mapped store, {@code null} for a direct or a read only store.
+     */
+    private final DataOutputStream keys;
+
+    private final KeyCodec codec;
+
+    /**
+     * The array is replaced when a segment is added, so a reader always sees completely initialized segments.
+     */
+    private volatile ByteBuffer[] segments;
+
+    private final AtomicInteger size;
+
+    /**
+     * The largest number of records written to the header so far.
+     */
+    private final AtomicInteger published;
+
+    private OffHeapSpanStore( int columns, FileChannel channel, DataOutputStream keys, KeyCodec codec )
+        throws IOException
+    {
+        this.columns = columns;
+        this.channel = channel;
+        this.keys = keys;
+        this.codec = codec;
+        this.header = channel == null ? ByteBuffer.allocateDirect( HEADER_SIZE )
+                        : channel.map( FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE );
+        this.segments = new ByteBuffer[] { allocate( 0 ) };
+        this.size = new AtomicInteger();
+        this.published = new AtomicInteger();
+        header.putInt( 0, MAGIC );
+        header.putInt( 4, VERSION );
+        header.putInt( 8, columns );
+        header.putInt( SIZE_OFFSET, 0 );
+    }
+
+    private OffHeapSpanStore( FileChannel channel, ByteBuffer header, ByteBuffer[] segments )
+    {
+        this.columns = header.getInt( 8 );
+        this.channel = channel;
+        this.keys = null;
+        this.codec = null;
+        this.header = header;
+        this.segments = segments;
+        this.size = new AtomicInteger( header.getInt( SIZE_OFFSET ) );
+        this.published = new AtomicInteger( size.get() );
+    }
+
+    /**
+     * @return A store in direct buffers.
+     */
+    public static OffHeapSpanStore direct( int columns )
+        throws IOException
+    {
+        return new OffHeapSpanStore( columns, null, null, null );
+    }
+
+    /**
+     * @param file The file the records are mapped to. An existing file and its keys are overwritten.
+     * @return A store in a memory mapped file which keeps the string form of the keys.
+     */
+    public static OffHeapSpanStore mapped( int columns, File file )
+        throws IOException
+    {
+        return mapped( columns, file, KeyCodec.STRINGS );
+    }
+
+    /**
+     * @param file The file the records are mapped to. An existing file and its keys are overwritten.
+     * @param codec Writes the keys.
+     * @return A store in a memory mapped file.
+     */
+    public static OffHeapSpanStore mapped( int columns, File file, KeyCodec codec )
+        throws IOException
+    {
+        if ( file.getParentFile() != null )
+        {
+            file.getParentFile().mkdirs();
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        DataOutputStream keys = null;
+        try
+        {
+            randomAccessFile.setLength( 0 );
+            keys = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( getKeyFile( file ) ),
+                                                                   KEY_BLOCK_SIZE ) );
+            return new OffHeapSpanStore( columns, randomAccessFile.getChannel(), keys, codec );
+        }
+        catch ( IOException e )
+        {
+            if ( keys != null )
+            {
+                keys.close();
+            }
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the file of a mapped store for reading, for example after the build has died. Records and keys which
+     * have not been written completely are ignored.
+     *
+     * @return A store which can not be changed.
+     * @throws IOException if the file is not a store of this version.
+     */
+    public static OffHeapSpanStore open( File file )
+        throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            if ( channel.size() < HEADER_SIZE )
+            {
+                throw new IOException( "Not a span store (" + file + ")" );
+            }
+            ByteBuffer header = channel.map( FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE );
+            if ( header.getInt( 0 ) != MAGIC )
+            {
+                throw new IOException( "Not a span store (" + file + ")" );
+            }
+            if ( header.getInt( 4 ) != VERSION )
+            {
+                throw new IOException( "Unsupported version " + header.getInt( 4 ) + " of the span store (" + file
+                    + ")" );
+            }
+            long segmentBytes = HeapSpanStore.SEGMENT_SIZE * header.getInt( 8 ) * 8L;
+            int records = header.getInt( SIZE_OFFSET );
+            ByteBuffer[] segments = new ByteBuffer[( records + SEGMENT_MASK ) >>> SEGMENT_SHIFT];
+            for ( int segment = 0; segment < segments.length; segment++ )
+            {
+                long position = HEADER_SIZE + segment * segmentBytes;
+                long length = Math.min( segmentBytes, channel.size() - position );
+                if ( length < 0 )
+                {
+                    throw new IOException( "Truncated span store (" + file + ")" );
+                }
+                segments[segment] = channel.map( FileChannel.MapMode.READ_ONLY, position, length );
+            }
+            return new OffHeapSpanStore( channel, header, segments );
+        }
+        catch ( IOException e )
+        {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The file the keys of a mapped store are written to.
+     */
+    public static File getKeyFile( File file )
+    {
+        return new File( file.getPath() + ".keys" );
+    }
+
+    private int getSegmentBytes()
+    {
+        return HeapSpanStore.SEGMENT_SIZE * columns * 8;
+    }
+
+    private ByteBuffer allocate( int segment )
+        throws IOException
+    {
+        // New direct buffers and the extension of a mapped file are zeroed.
+        if ( channel == null )
+        {
+            return ByteBuffer.allocateDirect( getSegmentBytes() );
+        }
+        return channel.map( FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) segment * getSegmentBytes(),
+                            getSegmentBytes() );
+    }
+
+    @Override
+    public int append()
+    {
+        if ( header.isReadOnly() )
+        {
+            throw new UnsupportedOperationException( "The span store is read only" );
+        }
+        int record = size.getAndIncrement();
+        int segment = record >>> SEGMENT_SHIFT;
+        if ( segment >= segments.length )
+        {
+            addSegment( segment );
+        }
+        int count = record + 1;
+        for ( int current = published.get(); current < count; current = published.get() )
+        {
+            if ( published.compareAndSet( current, count ) )
+            {
+                header.putInt( SIZE_OFFSET, count );
+                break;
+            }
+        }
+        return record;
+    }
+
+    private synchronized void addSegment( int segment )
+    {
+        ByteBuffer[] current = segments;
+        if ( segment < current.length )
+        {
+            return;
+        }
+        try
+        {
+            ByteBuffer[] larger = Arrays.copyOf( current, segment + 1 );
+            for ( int i = current.length; i < larger.length; i++ )
+            {
+                larger[i] = allocate( i );
+            }
+            segments = larger;
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( "Could not grow the span store", e );
+        }
+    }
+
+    private int offset( int record, int column )
+    {
+        return ( ( record & SEGMENT_MASK ) * columns + column ) * 8;
+    }
+
+    @Override
+    public long get( int record, int column )
+    {
+        if ( record >= size.get() )
+        {
+            throw new IndexOutOfBoundsException( "Unknown record (" + record + ")" );
+        }
+        return segments[record >>> SEGMENT_SHIFT].getLong( offset( record, column ) );
+    }
+
+    @Override
+    public void set( int record, int column, long value )
+    {
+        if ( record >= size.get() )
+        {
+            throw new IndexOutOfBoundsException( "Unknown record (" + record + ")" );
+        }
+        segments[record >>> SEGMENT_SHIFT].putLong( offset( record, column ), value );
+    }
+
+    @Override
+    public int size()
+    {
+        return size.get();
+    }
+
+    @Override
+    public void setTimeBase( long epochNanos, long nanoTime )
+    {
+        header.putLong( EPOCH_NANOS_OFFSET, epochNanos );
+        header.putLong( NANO_TIME_OFFSET, nanoTime );
+    }
+
+    /**
+     * @return The time since the epoch in nanoseconds at {@link #getNanoTime()}.
+     */
+    public long getEpochNanos()
+    {
+        return header.getLong( EPOCH_NANOS_OFFSET );
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at {@link #getEpochNanos()}.
+     */
+    public long getNanoTime()
+    {
+        return header.getLong( NANO_TIME_OFFSET );
+    }
+
+    /**
+     * Adds the key to the current block, which is written when it is full.
+     */
+    @Override
+    public void addKey( int index, Object key )
+    {
+        if ( keys == null )
+        {
+            return;
+        }
+        synchronized ( keys )
+        {
+            try
+            {
+                keys.writeInt( index );
+                codec.write( keys, key );
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( "Could not write the key of the span store", e );
+            }
+        }
+    }
+
+    /**
+     * Reads the keys of a mapped store into the table.
+     */
+    static void readKeys( File file, KeyTable table, KeyCodec codec )
+        throws IOException
+    {
+        File keyFile = getKeyFile( file );
+        if ( !keyFile.isFile() )
+        {
+            return;
+        }
+        try ( DataInputStream input =
+            new DataInputStream( new BufferedInputStream( new FileInputStream( keyFile ) ) ) )
+        {
+            while ( true )
+            {
+                int index = input.readInt();
+                table.put( index, codec.read( input ) );
+            }
+        }
+        catch ( EOFException e )
+        {
+            // The end of the keys or a key which has not been written completely.
+        }
+    }
+
+    /**
+     * Closes the files of a mapped store. The files are kept for post processing.
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        if ( channel != null )
+        {
+            if ( !header.isReadOnly() )
+            {
+                header.putInt( SIZE_OFFSET, size.get() );
+            }
+            channel.close();
+        }
+        if ( keys != null )
+        {
+            synchronized ( keys )
+            {
+                keys.close();
+            }
+        }
+    }
+}
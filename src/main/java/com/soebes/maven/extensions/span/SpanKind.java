@@ -0,0 +1,55 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The kind of a span in the {@link SpanTree}.
+ */
+public enum SpanKind
+{
+    SESSION( false ),
+    PROJECT( true ),
+    MOJO( true ),
+    GOAL( true ),
+    FORK( true ),
+    FORKED_PROJECT( true ),
+    DOWNLOAD( false ),
+    DEPLOY( false ),
+    INSTALL( false ),
+    METADATA_DOWNLOAD( false ),
+    METADATA_DEPLOY( false ),
+    METADATA_INSTALL( false );
+
+    private final boolean execution;
+
+    private SpanKind( boolean execution )
+    {
+        this.execution = execution;
+    }
+
+    /**
+     * @return {@code true} if the span is started and ended on the same thread and encloses the spans started by
+     *         that thread in the meantime, {@code false} for the session and repository transfers.
+     */
+    public boolean isExecution()
+    {
+        return execution;
+    }
+}
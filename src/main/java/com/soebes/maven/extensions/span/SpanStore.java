@@ -0,0 +1,61 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+
+/**
+ * Stores the records of the {@link SpanTree}. A record is a fixed number of {@code long} columns and is addressed by
+ * its index. Records are appended concurrently by the threads of the build without a common lock, so
+ * {@link #append()} must be thread safe and a record must never move once it has been appended. A record is only
+ * written by the thread which records its event.
+ */
+public interface SpanStore
+    extends Closeable
+{
+    /**
+     * Adds a record with all columns set to {@code 0}.
+     *
+     * @return The index of the new record.
+     */
+    int append();
+
+    long get( int record, int column );
+
+    void set( int record, int column, long value );
+
+    /**
+     * @return The number of records.
+     */
+    int size();
+
+    /**
+     * Called before the first record is appended. The start and end columns contain {@link System#nanoTime()} values
+     * which are converted to the time since the epoch via this base.
+     *
+     * @param epochNanos The time since the epoch in nanoseconds at {@code nanoTime}.
+     */
+    void setTimeBase( long epochNanos, long nanoTime );
+
+    /**
+     * Called once for each key before the first record refers to it by its index.
+     */
+    void addKey( int index, Object key );
+}
@@ -0,0 +1,603 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * All spans of a build (session, projects, mojos, forks and repository transfers) in a single tree. A span is a
+ * record of {@code long} columns in a {@link SpanStore} and is identified by its index. The keys (project ids, mojos,
+ * artifacts, repositories) are interned in a key table and the records only refer to them, so a report is a loop over
+ * the records. Recording a span with a key which is already known does not create any object, a new key (like each
+ * transferred artifact) is kept once in the key table.
+ * <p>
+ * The parent of a span is determined when it is started: a project is a child of the session, everything else is a
+ * child of the innermost execution span (project, mojo, fork) which is open on the current thread or of the session
+ * if there is none. This attributes the transfers to the mojo which caused them.
+ * <p>
+ * Each kind of span has an index by key and repository to find the span for its end event, so the same metadata
+ * which is resolved from several repositories at the same time has a span per repository. Like the maps of the former
+ * timers a span which is started again with the same key and repository replaces the previous one in the index. A
+ * span is only stopped once, a repeated end event is ignored.
+ * <p>
+ * The threads of a parallel build record their events without a common lock: the store and the key table append
+ * lock-free, the index by key is split into {@link #STRIPES} independently locked parts and the list of spans of
+ * each kind has its own lock. A record is only written by the thread which records its event. The reports read the
+ * records after the build threads have finished.
+ */
+public class SpanTree
+{
+    public static final int NO_SPAN = -1;
+
+    private static final int KIND = 0;
+
+    private static final int PARENT = 1;
+
+    private static final int START = 2;
+
+    private static final int END = 3;
+
+    private static final int BYTES = 4;
+
+    private static final int THREAD = 5;
+
+    private static final int KEY = 6;
+
+    private static final int REPOSITORY = 7;
+
+    private static final int DETAIL = 8;
+
+    private static final int FAILED = 9;
+
+    /**
+     * The number of columns of a record in the {@link SpanStore}.
+     */
+    public static final int COLUMNS = 10;
+
+    private static final long OPEN = Long.MIN_VALUE;
+
+    /**
+     * Not a valid key of the index, the kind is never negative.
+     */
+    private static final long NO_INDEX_KEY = -1;
+
+    private static final SpanKind[] KINDS = SpanKind.values();
+
+    /**
+     * The number of parts of the index by key, a power of two.
+     */
+    static final int STRIPES = 16;
+
+    private final long startNanoTime;
+
+    private final long startEpochNanos;
+
+    /**
+     * Added to {@link System#nanoTime()} for the end of open spans, {@code 0} unless the records have been read
+     * from a file.
+     */
+    private final long clockOffset;
+
+    private volatile SpanStore store;
+
+    private final KeyTable keys;
+
+    /**
+     * The repositories of the index by key, which are only a few, so their index fits into the key of the index.
+     */
+    private final KeyTable repositories;
+
+    /**
+     * Key: kind, repository index and key index, value: the latest span. Each part is guarded by its own lock.
+     */
+    private final LongIntMap[] index;
+
+    /**
+     * The spans of each kind, each list is guarded by its own lock.
+     */
+    private final IntList[] spansPerKind;
+
+    private volatile int session;
+
+    private final ThreadLocal<IntStack> executions = new ThreadLocal<IntStack>()
+    {
+        @Override
+        protected IntStack initialValue()
+        {
+            return new IntStack();
+        }
+    };
+
+    private final List<SpanListener> listeners;
+
+    public SpanTree()
+    {
+        this( new HeapSpanStore( COLUMNS ) );
+    }
+
+    /**
+     * @param store An empty store with {@link #COLUMNS} columns.
+     */
+    public SpanTree( SpanStore store )
+    {
+        this( store, null, System.currentTimeMillis() * 1000000L, System.nanoTime(), 0 );
+        store.setTimeBase( startEpochNanos, startNanoTime );
+    }
+
+    /**
+     * @param keys The keys of the records of the store or {@code null} for a new table which passes its keys on to
+     *            the store.
+     * @param clockOffset The difference between {@link System#nanoTime()} and the clock of the records.
+     */
+    private SpanTree( SpanStore store, KeyTable keys, long startEpochNanos, long startNanoTime, long clockOffset )
+    {
+        this.startNanoTime = startNanoTime;
+        this.clockOffset = clockOffset;
+        this.startEpochNanos = startEpochNanos;
+        this.store = store;
+        this.keys = keys != null ? keys : new KeyTable()
+        {
+            @Override
+            protected void added( int index, Object key )
+            {
+                // A key is interned after the first record has been appended, so the store can not change anymore.
+                SpanTree.this.store.addKey( index, key );
+            }
+        };
+        this.repositories = new KeyTable();
+        this.index = new LongIntMap[STRIPES];
+        for ( int stripe = 0; stripe < STRIPES; stripe++ )
+        {
+            index[stripe] = new LongIntMap();
+        }
+        this.spansPerKind = new IntList[KINDS.length];
+        for ( int kind = 0; kind < KINDS.length; kind++ )
+        {
+            spansPerKind[kind] = new IntList();
+        }
+        this.session = NO_SPAN;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Reads the spans of a mapped store with the string form of the keys.
+     *
+     * @see #read(File, KeyCodec)
+     */
+    public static SpanTree read( File file )
+        throws IOException
+    {
+        return read( file, KeyCodec.STRINGS );
+    }
+
+    /**
+     * Reads the spans of a mapped store (see {@link OffHeapSpanStore#mapped(int, File, KeyCodec)}), for example after
+     * the build has died. Spans which have not been stopped are still open, their end is the time they are read.
+     *
+     * @param codec The codec the keys have been written with.
+     * @return A tree which can not record spans.
+     */
+    public static SpanTree read( File file, KeyCodec codec )
+        throws IOException
+    {
+        OffHeapSpanStore store = OffHeapSpanStore.open( file );
+        KeyTable keys = new KeyTable();
+        try
+        {
+            OffHeapSpanStore.readKeys( file, keys, codec );
+        }
+        catch ( IOException e )
+        {
+            store.close();
+            throw e;
+        }
+        // The nanoTime of this JVM has a different origin than the one of the build.
+        long clockOffset = System.currentTimeMillis() * 1000000L - store.getEpochNanos() + store.getNanoTime()
+            - System.nanoTime();
+        SpanTree tree = new SpanTree( store, keys, store.getEpochNanos(), store.getNanoTime(), clockOffset );
+        for ( int span = 0; span < store.size(); span++ )
+        {
+            SpanKind kind = tree.getKind( span );
+            tree.spansPerKind[kind.ordinal()].add( span );
+            int key = (int) store.get( span, KEY );
+            long indexKey = indexKey( kind, key, KeyTable.NO_KEY );
+            tree.getIndex( indexKey ).put( indexKey, span );
+            // The spans are found with and without their repository, it is not known how they have been started.
+            Object repository = keys.get( (int) store.get( span, REPOSITORY ) );
+            if ( repository != null )
+            {
+                indexKey = indexKey( kind, key, tree.repositories.intern( repository ) );
+                tree.getIndex( indexKey ).put( indexKey, span );
+            }
+            if ( kind == SpanKind.SESSION && tree.session == NO_SPAN )
+            {
+                tree.session = span;
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Replaces the store of the tree, for example by an off-heap store once the configuration is known.
+     *
+     * @param store An empty store with {@link #COLUMNS} columns.
+     * @throws IllegalStateException if spans have already been recorded.
+     */
+    public synchronized void setStore( SpanStore store )
+    {
+        if ( this.store.size() > 0 )
+        {
+            throw new IllegalStateException( "Spans have already been recorded" );
+        }
+        store.setTimeBase( startEpochNanos, startNanoTime );
+        this.store = store;
+    }
+
+    /**
+     * Releases the store. The tree must not be used afterwards.
+     */
+    public synchronized void close()
+        throws IOException
+    {
+        store.close();
+    }
+
+    public void addListener( SpanListener listener )
+    {
+        listeners.add( listener );
+    }
+
+    private static long indexKey( SpanKind kind, int key, int repository )
+    {
+        return ( (long) kind.ordinal() << 56 ) | ( ( ( repository + 1L ) & 0xFFFFFFL ) << 32 ) | ( key & 0xFFFFFFFFL );
+    }
+
+    private LongIntMap getIndex( long indexKey )
+    {
+        long hash = indexKey * 0x9E3779B97F4A7C15L;
+        return index[(int) ( hash >>> 32 ) & ( STRIPES - 1 )];
+    }
+
+    /**
+     * @return The index of the new span.
+     */
+    public int start( SpanKind kind, Object key )
+    {
+        return start( kind, key, null );
+    }
+
+    /**
+     * @param repository The repository of a transfer or {@code null}.
+     * @return The index of the new span.
+     */
+    public int start( SpanKind kind, Object key, String repository )
+    {
+        IntStack stack = executions.get();
+        int parent;
+        if ( kind == SpanKind.SESSION )
+        {
+            parent = NO_SPAN;
+        }
+        else if ( kind == SpanKind.PROJECT )
+        {
+            parent = session;
+        }
+        else
+        {
+            parent = stack.peek( session );
+        }
+        SpanStore store = this.store;
+        int span = store.append();
+        int keyIndex = keys.intern( key );
+        store.set( span, KIND, kind.ordinal() );
+        store.set( span, PARENT, parent );
+        store.set( span, START, System.nanoTime() );
+        store.set( span, END, OPEN );
+        store.set( span, THREAD, Thread.currentThread().getId() );
+        store.set( span, KEY, keyIndex );
+        store.set( span, REPOSITORY, keys.intern( repository ) );
+        store.set( span, DETAIL, KeyTable.NO_KEY );
+        long indexKey = indexKey( kind, keyIndex, repositories.intern( repository ) );
+        LongIntMap stripe = getIndex( indexKey );
+        synchronized ( stripe )
+        {
+            stripe.put( indexKey, span );
+        }
+        IntList spans = spansPerKind[kind.ordinal()];
+        synchronized ( spans )
+        {
+            spans.add( span );
+        }
+        if ( kind == SpanKind.SESSION )
+        {
+            session = span;
+        }
+        if ( kind.isExecution() )
+        {
+            stack.push( span );
+        }
+        return span;
+    }
+
+    public int stop( SpanKind kind, Object key )
+    {
+        return stop( kind, key, null, false );
+    }
+
+    public int stop( SpanKind kind, Object key, boolean failure )
+    {
+        return stop( kind, key, null, failure );
+    }
+
+    /**
+     * @param repository The repository the span has been started with.
+     * @return The index of the span or {@link #NO_SPAN} if a span with this key has never been started.
+     */
+    public int stop( SpanKind kind, Object key, String repository, boolean failure )
+    {
+        long indexKey = getIndexKey( kind, key, repository );
+        if ( indexKey == NO_INDEX_KEY )
+        {
+            return NO_SPAN;
+        }
+        long end = System.nanoTime();
+        LongIntMap stripe = getIndex( indexKey );
+        int span;
+        synchronized ( stripe )
+        {
+            span = stripe.get( indexKey );
+            if ( span == LongIntMap.NO_VALUE )
+            {
+                return NO_SPAN;
+            }
+            if ( store.get( span, END ) != OPEN )
+            {
+                // Stopped before, for example by a repeated end event.
+                return span;
+            }
+            store.set( span, END, end );
+        }
+        store.set( span, FAILED, failure ? 1 : 0 );
+        if ( kind.isExecution() )
+        {
+            IntStack stack = executions.get();
+            if ( stack.contains( span ) )
+            {
+                // Spans left open by a failure are not parents anymore.
+                while ( stack.pop() != span )
+                {
+                    continue;
+                }
+            }
+        }
+        for ( SpanListener listener : listeners )
+        {
+            listener.spanEnded( this, span );
+        }
+        return span;
+    }
+
+    /**
+     * @return The index of the latest span with this key or {@link #NO_SPAN}.
+     */
+    public int find( SpanKind kind, Object key )
+    {
+        return find( kind, key, null );
+    }
+
+    /**
+     * @param repository The repository the span has been started with.
+     * @return The index of the latest span with this key and repository or {@link #NO_SPAN}.
+     */
+    public int find( SpanKind kind, Object key, String repository )
+    {
+        long indexKey = getIndexKey( kind, key, repository );
+        if ( indexKey == NO_INDEX_KEY )
+        {
+            return NO_SPAN;
+        }
+        LongIntMap stripe = getIndex( indexKey );
+        int span;
+        synchronized ( stripe )
+        {
+            span = stripe.get( indexKey );
+        }
+        return span == LongIntMap.NO_VALUE ? NO_SPAN : span;
+    }
+
+    /**
+     * @return The key of the index or {@link #NO_INDEX_KEY} if the key or the repository has never been interned.
+     */
+    private long getIndexKey( SpanKind kind, Object key, String repository )
+    {
+        int keyIndex = keys.find( key );
+        int repositoryIndex = repositories.find( repository );
+        if ( ( keyIndex == KeyTable.NO_KEY && key != null )
+            || ( repositoryIndex == KeyTable.NO_KEY && repository != null ) )
+        {
+            return NO_INDEX_KEY;
+        }
+        return indexKey( kind, keyIndex, repositoryIndex );
+    }
+
+    public void setBytes( int span, long value )
+    {
+        store.set( span, BYTES, value );
+    }
+
+    public void setRepository( int span, String repository )
+    {
+        store.set( span, REPOSITORY, keys.intern( repository ) );
+    }
+
+    /**
+     * @param detail Additional information about the span, for example why a transfer has been made.
+     */
+    public void setDetail( int span, String detail )
+    {
+        store.set( span, DETAIL, keys.intern( detail ) );
+    }
+
+    public int getSpanCount()
+    {
+        return store.size();
+    }
+
+    /**
+     * @return The number of distinct keys of all spans.
+     */
+    public int getKeyCount()
+    {
+        return keys.size();
+    }
+
+    /**
+     * @return The indices of all spans of this kind in the order they have been started.
+     */
+    public int[] getSpans( SpanKind kind )
+    {
+        IntList spans = spansPerKind[kind.ordinal()];
+        int[] result;
+        synchronized ( spans )
+        {
+            result = spans.toArray();
+        }
+        // Threads which started spans at the same time may have added them in a different order.
+        Arrays.sort( result );
+        return result;
+    }
+
+    public boolean hasSpans( SpanKind kind )
+    {
+        IntList spans = spansPerKind[kind.ordinal()];
+        synchronized ( spans )
+        {
+            return spans.size() > 0;
+        }
+    }
+
+    /**
+     * @return The session span or {@link #NO_SPAN} if the session has not been started yet.
+     */
+    public int getSession()
+    {
+        return session;
+    }
+
+    public SpanKind getKind( int span )
+    {
+        return KINDS[(int) store.get( span, KIND )];
+    }
+
+    /**
+     * @return The parent of the span or {@link #NO_SPAN} for a root.
+     */
+    public int getParent( int span )
+    {
+        return (int) store.get( span, PARENT );
+    }
+
+    /**
+     * @return The span itself or its nearest ancestor of the given kind or {@link #NO_SPAN} if there is none.
+     */
+    public int getAncestor( int span, SpanKind kind )
+    {
+        long ordinal = kind.ordinal();
+        int result = span;
+        while ( result != NO_SPAN && store.get( result, KIND ) != ordinal )
+        {
+            result = (int) store.get( result, PARENT );
+        }
+        return result;
+    }
+
+    public Object getKey( int span )
+    {
+        return keys.get( (int) store.get( span, KEY ) );
+    }
+
+    /**
+     * @return The id of the thread which has started the span.
+     */
+    public long getThreadId( int span )
+    {
+        return store.get( span, THREAD );
+    }
+
+    public boolean isOpen( int span )
+    {
+        return store.get( span, END ) == OPEN;
+    }
+
+    public boolean isFailed( int span )
+    {
+        return store.get( span, FAILED ) != 0;
+    }
+
+    /**
+     * @return The start time in nanoseconds since the epoch.
+     */
+    public long getStartTime( int span )
+    {
+        return toEpochNanos( store.get( span, START ) );
+    }
+
+    /**
+     * @return The end time in nanoseconds since the epoch or the current time if the span is still open.
+     */
+    public long getEndTime( int span )
+    {
+        long end = store.get( span, END );
+        return toEpochNanos( end == OPEN ? System.nanoTime() + clockOffset : end );
+    }
+
+    private long toEpochNanos( long nanoTime )
+    {
+        return startEpochNanos + nanoTime - startNanoTime;
+    }
+
+    /**
+     * @return The elapsed time in milliseconds or {@code 0} if the span is still open.
+     */
+    public long getElapsedTime( int span )
+    {
+        long end = store.get( span, END );
+        return end == OPEN ? 0 : ( end - store.get( span, START ) ) / 1000000L;
+    }
+
+    public long getBytes( int span )
+    {
+        return store.get( span, BYTES );
+    }
+
+    public String getRepository( int span )
+    {
+        return (String) keys.get( (int) store.get( span, REPOSITORY ) );
+    }
+
+    public String getDetail( int span )
+    {
+        return (String) keys.get( (int) store.get( span, DETAIL ) );
+    }
+}
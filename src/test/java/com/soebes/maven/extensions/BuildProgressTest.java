@@ -0,0 +1,177 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BuildProgressTest
+{
+    private BuildProgress progress;
+
+    private ProjectDurationHistory history;
+
+    private MavenProject first;
+
+    private MavenProject second;
+
+    private MavenProject third;
+
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        first = createProject( "first" );
+        second = createProject( "second" );
+        third = createProject( "third" );
+
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        when( request.getThreadCount() ).thenReturn( "2" );
+        MavenSession session = mock( MavenSession.class );
+        when( session.getProjects() ).thenReturn( Arrays.asList( first, second, third ) );
+        when( session.getRequest() ).thenReturn( request );
+
+        progress = new BuildProgress();
+        progress.sessionStart( session );
+        history = new ProjectDurationHistory( new HistoryStore( new File( "target/not-existing" ), new File( "." ) ) );
+    }
+
+    @Test
+    public void shouldParseThreadCount()
+    {
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        when( request.getThreadCount() ).thenReturn( "4" );
+        assertThat( BuildProgress.getThreadCount( request ) ).isEqualTo( 4 );
+
+        when( request.getThreadCount() ).thenReturn( "1C" );
+        assertThat( BuildProgress.getThreadCount( request ) ).isEqualTo( Runtime.getRuntime().availableProcessors() );
+
+        when( request.getThreadCount() ).thenReturn( null );
+        assertThat( BuildProgress.getThreadCount( request ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldNotEstimateWithoutAnyDuration()
+    {
+        assertThat( progress.getEstimatedRemainingTime( history, 0L ) ).isEqualTo( -1L );
+    }
+
+    @Test
+    public void shouldEstimateBasedOnHistoryAndThreads()
+    {
+        history.record( "groupId:first", 1000L );
+        history.record( "groupId:second", 2000L );
+        history.record( "groupId:third", 3000L );
+
+        assertThat( progress.getEstimatedRemainingTime( history, 0L ) ).isEqualTo( 3000L );
+
+        progress.projectStop( createEvent( first, null ), 1000L );
+
+        assertThat( progress.getEstimatedRemainingTime( history, 0L ) ).isEqualTo( 2500L );
+    }
+
+    @Test
+    public void shouldSubtractElapsedTimeOfRunningProjects()
+        throws InterruptedException
+    {
+        history.record( "groupId:first", 1000L );
+        history.record( "groupId:second", 1000L );
+        history.record( "groupId:third", 1000L );
+
+        progress.projectStop( createEvent( first, null ), 1000L );
+        progress.projectStop( createEvent( second, null ), 1000L );
+        long start = System.currentTimeMillis();
+        progress.projectStart( createEvent( third, null ) );
+
+        assertThat( progress.getEstimatedRemainingTime( history, start + 10000L ) ).isEqualTo( 0L );
+    }
+
+    @Test
+    public void shouldCalculateThroughputOverTheLastSeconds()
+    {
+        progress.artifactDownloaded( 5000L, 100000L );
+        progress.artifactDownloaded( 5000L, 101000L );
+
+        assertThat( progress.getDownloadThroughput( 101500L ) ).isEqualTo( 1000.0 );
+        assertThat( progress.getDownloadThroughput( 110500L ) ).isEqualTo( 500.0 );
+        assertThat( progress.getDownloadThroughput( 120000L ) ).isEqualTo( 0.0 );
+        assertThat( progress.getBytesDownloaded() ).isEqualTo( 10000L );
+    }
+
+    @Test
+    public void shouldKeepOuterMojoWhileForkedMojoIsRunning()
+    {
+        ExecutionEvent outer = createEvent( first, "site" );
+        ExecutionEvent forked = createEvent( first, "compile" );
+
+        progress.mojoStart( outer );
+        progress.mojoStart( forked );
+
+        RunningMojo running = progress.getRunningMojos().get( Thread.currentThread().getName() );
+        assertThat( running.getMojo() ).isEqualTo( "groupId:maven-compile-plugin:1.0:compile (default-compile)" );
+
+        progress.mojoStop( forked, 10L );
+        running = progress.getRunningMojos().get( Thread.currentThread().getName() );
+        assertThat( running.getMojo() ).isEqualTo( "groupId:maven-site-plugin:1.0:site (default-site)" );
+
+        progress.mojoStop( outer, 20L );
+        assertThat( progress.getRunningMojos() ).isEmpty();
+        assertThat( progress.getPhaseTimes().get( "compile" ).get() ).isEqualTo( 10L );
+        assertThat( progress.getPhaseTimes().get( "site" ).get() ).isEqualTo( 20L );
+    }
+
+    private MavenProject createProject( String artifactId )
+    {
+        MavenProject project = mock( MavenProject.class );
+        when( project.getGroupId() ).thenReturn( "groupId" );
+        when( project.getArtifactId() ).thenReturn( artifactId );
+        when( project.getVersion() ).thenReturn( "1.0" );
+        return project;
+    }
+
+    private ExecutionEvent createEvent( MavenProject project, String phase )
+    {
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getProject() ).thenReturn( project );
+        if ( phase != null )
+        {
+            MojoExecution execution = mock( MojoExecution.class );
+            when( execution.getGroupId() ).thenReturn( "groupId" );
+            when( execution.getArtifactId() ).thenReturn( "maven-" + phase + "-plugin" );
+            when( execution.getVersion() ).thenReturn( "1.0" );
+            when( execution.getGoal() ).thenReturn( phase );
+            when( execution.getExecutionId() ).thenReturn( "default-" + phase );
+            when( execution.getLifecyclePhase() ).thenReturn( phase );
+            when( event.getMojoExecution() ).thenReturn( execution );
+        }
+        return event;
+    }
+}
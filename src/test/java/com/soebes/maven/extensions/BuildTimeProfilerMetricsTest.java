@@ -0,0 +1,118 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BuildTimeProfilerMetricsTest
+{
+    private MBeanServer server;
+
+    private BuildProgress progress;
+
+    private BuildTimeProfilerMetrics metrics;
+
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        server = MBeanServerFactory.newMBeanServer();
+        progress = new BuildProgress();
+        metrics = new BuildTimeProfilerMetrics( progress, server );
+    }
+
+    @Test
+    public void shouldExposeCountersViaJmx()
+        throws Exception
+    {
+        metrics.register();
+
+        progress.eventProcessed();
+        progress.eventProcessed();
+        progress.artifactDownloaded( 1000L, System.currentTimeMillis() );
+        progress.artifactInstalled( 500L );
+        ExecutionEvent event = createMojoEvent();
+        progress.mojoStart( event );
+
+        ObjectName name = new ObjectName( BuildTimeProfilerMetrics.OBJECT_NAME );
+        BuildTimeProfilerMXBean proxy = JMX.newMXBeanProxy( server, name, BuildTimeProfilerMXBean.class );
+
+        assertThat( proxy.getEventsProcessed() ).isEqualTo( 2L );
+        assertThat( proxy.getBytesDownloaded() ).isEqualTo( 1000L );
+        assertThat( proxy.getBytesInstalled() ).isEqualTo( 500L );
+        assertThat( proxy.getDownloadThroughput() ).isEqualTo( 100.0 );
+        assertThat( proxy.getActiveMojos() ).isEqualTo( 1 );
+
+        progress.mojoStop( event, 42L );
+
+        assertThat( proxy.getActiveMojos() ).isEqualTo( 0 );
+        assertThat( proxy.getPhaseTimes() ).containsEntry( "compile", 42L );
+    }
+
+    @Test
+    public void shouldUnregister()
+        throws Exception
+    {
+        metrics.register();
+        metrics.unregister();
+
+        assertThat( server.isRegistered( new ObjectName( BuildTimeProfilerMetrics.OBJECT_NAME ) ) ).isFalse();
+    }
+
+    @Test
+    public void shouldReplaceLeftOverRegistration()
+        throws Exception
+    {
+        new BuildTimeProfilerMetrics( new BuildProgress(), server ).register();
+        metrics.register();
+        progress.eventProcessed();
+
+        ObjectName name = new ObjectName( BuildTimeProfilerMetrics.OBJECT_NAME );
+        assertThat( server.getAttribute( name, "EventsProcessed" ) ).isEqualTo( 1L );
+    }
+
+    private ExecutionEvent createMojoEvent()
+    {
+        MavenProject project = mock( MavenProject.class );
+        when( project.getGroupId() ).thenReturn( "groupId" );
+        when( project.getArtifactId() ).thenReturn( "artifactId" );
+
+        MojoExecution execution = mock( MojoExecution.class );
+        when( execution.getGoal() ).thenReturn( "compile" );
+        when( execution.getLifecyclePhase() ).thenReturn( "compile" );
+
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getProject() ).thenReturn( project );
+        when( event.getMojoExecution() ).thenReturn( execution );
+        return event;
+    }
+}
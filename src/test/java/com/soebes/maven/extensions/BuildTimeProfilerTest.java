@@ -0,0 +1,165 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.management.ObjectName;
+
+import org.apache.maven.eventspy.EventSpy.Context;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.Test;
+
+public class BuildTimeProfilerTest
+{
+    private BuildTimeProfiler createProfiler( String... properties )
+        throws Exception
+    {
+        Properties userProperties = new Properties();
+        for ( int i = 0; i < properties.length; i += 2 )
+        {
+            userProperties.setProperty( properties[i], properties[i + 1] );
+        }
+        final Map<String, Object> data = new HashMap<>();
+        data.put( "multiModuleProjectDirectory", Files.createTempDirectory( "mbtp" ).toString() );
+        data.put( "systemProperties", new Properties() );
+        data.put( "userProperties", userProperties );
+        BuildTimeProfiler profiler = new BuildTimeProfiler();
+        profiler.init( new Context()
+        {
+            public Map<String, Object> getData()
+            {
+                return data;
+            }
+        } );
+        return profiler;
+    }
+
+    private ExecutionEvent createEvent( ExecutionEvent.Type type, MavenSession session, MavenProject project )
+    {
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getType() ).thenReturn( type );
+        when( event.getSession() ).thenReturn( session );
+        when( event.getProject() ).thenReturn( project );
+        return event;
+    }
+
+    @Test
+    public void shouldTrackProgressForJmxWithoutHttpServer()
+        throws Exception
+    {
+        BuildTimeProfiler profiler = createProfiler( "mbtp.jmx", "true" );
+        MavenSession session = mock( MavenSession.class );
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        MavenExecutionResult result = mock( MavenExecutionResult.class );
+        when( session.getProjects() ).thenReturn( Collections.<MavenProject>emptyList() );
+        when( session.getRequest() ).thenReturn( request );
+        when( session.getResult() ).thenReturn( result );
+        MavenProject project = new MavenProject();
+        project.setGroupId( "g" );
+        project.setArtifactId( "a" );
+        project.setVersion( "1" );
+
+        try
+        {
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionStarted, session, null ) );
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.ProjectStarted, session, project ) );
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.ProjectSucceeded, session, project ) );
+
+            ObjectName name = new ObjectName( BuildTimeProfilerMetrics.OBJECT_NAME );
+            assertThat( ManagementFactory.getPlatformMBeanServer().getAttribute( name, "CompletedProjects" ) )
+                .isEqualTo( 1 );
+        }
+        finally
+        {
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionEnded, session, null ) );
+            profiler.close();
+        }
+    }
+
+    @Test
+    public void shouldCompleteASkippedProjectWithoutASpan()
+        throws Exception
+    {
+        File stream = File.createTempFile( "mbtp", ".log" );
+        stream.deleteOnExit();
+        BuildTimeProfiler profiler =
+            createProfiler( "mbtp.jmx", "true", "mbtp.stream", "true", "mbtp.stream.file", stream.getPath() );
+        MavenSession session = mock( MavenSession.class );
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        MavenExecutionResult result = mock( MavenExecutionResult.class );
+        when( session.getProjects() ).thenReturn( Collections.<MavenProject>emptyList() );
+        when( session.getRequest() ).thenReturn( request );
+        when( session.getResult() ).thenReturn( result );
+        MavenProject project = new MavenProject();
+        project.setGroupId( "g" );
+        project.setArtifactId( "skipped" );
+        project.setVersion( "1" );
+
+        try
+        {
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionStarted, session, null ) );
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.ProjectSkipped, session, project ) );
+
+            ObjectName name = new ObjectName( BuildTimeProfilerMetrics.OBJECT_NAME );
+            assertThat( ManagementFactory.getPlatformMBeanServer().getAttribute( name, "CompletedProjects" ) )
+                .isEqualTo( 1 );
+            assertThat( new String( Files.readAllBytes( stream.toPath() ), StandardCharsets.UTF_8 ) )
+                .contains( "(g:skipped:1) ProjectSkipped" );
+        }
+        finally
+        {
+            profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionEnded, session, null ) );
+            profiler.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepTheDefaultsForAnUnknownCollector()
+        throws Exception
+    {
+        BuildTimeProfiler profiler = createProfiler( "mbtp.collectors", "goal,resources" );
+        MavenSession session = mock( MavenSession.class );
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        MavenExecutionResult result = mock( MavenExecutionResult.class );
+        when( session.getProjects() ).thenReturn( Collections.<MavenProject>emptyList() );
+        when( session.getRequest() ).thenReturn( request );
+        when( session.getResult() ).thenReturn( result );
+
+        profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionStarted, session, null ) );
+        profiler.executionEventHandler( createEvent( ExecutionEvent.Type.SessionEnded, session, null ) );
+        profiler.close();
+    }
+}
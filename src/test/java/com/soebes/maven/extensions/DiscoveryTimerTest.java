@@ -0,0 +1,151 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryEvent.EventType;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DiscoveryTimerTest
+{
+    private static final File POM_FILE = new File( "module/pom.xml" );
+
+    private DiscoveryTimer timer;
+
+    private RequestTrace modelTrace;
+
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        timer = new DiscoveryTimer();
+
+        ModelBuildingRequest request = new DefaultModelBuildingRequest().setPomFile( POM_FILE );
+        modelTrace = RequestTrace.newChild( null, "projectBuildingRequest" ).newChild( request );
+    }
+
+    private RepositoryEvent createEvent( EventType type, Artifact artifact, RequestTrace trace )
+    {
+        return new RepositoryEvent.Builder( mock( RepositorySystemSession.class ), type ) //
+            .setArtifact( artifact ).setTrace( trace ).build();
+    }
+
+    @Test
+    public void shouldFindThePomFileWhichIsRead()
+    {
+        RequestTrace trace = modelTrace.newChild( new ArtifactRequest() );
+
+        assertThat( timer.getRequestingPom( trace ) ).isEqualTo( POM_FILE.getAbsolutePath() );
+    }
+
+    @Test
+    public void shouldIgnoreTraceWithoutModelBuilding()
+    {
+        RequestTrace trace = RequestTrace.newChild( null, new ArtifactRequest() );
+
+        assertThat( timer.getRequestingPom( trace ) ).isNull();
+    }
+
+    @Test
+    public void shouldIgnoreArtifactDescriptorReading()
+    {
+        RequestTrace trace = modelTrace.newChild( new ArtifactDescriptorRequest() ).newChild( new ArtifactRequest() );
+
+        assertThat( timer.getRequestingPom( trace ) ).isNull();
+    }
+
+    @Test
+    public void shouldRecordParentResolutionForPom()
+    {
+        Artifact parent = new DefaultArtifact( "groupId", "parent", "pom", "1.0" );
+        RequestTrace trace = modelTrace.newChild( new ArtifactRequest() );
+
+        timer.discoveryStart();
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVING, parent, trace ) );
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVED, parent, trace ) );
+        timer.discoveryStop();
+
+        assertThat( timer.getResolutionsForPom( POM_FILE.getAbsolutePath() ) ).hasSize( 1 ).containsKey( "groupId:parent:1.0" );
+    }
+
+    @Test
+    public void shouldIgnoreNonPomArtifacts()
+    {
+        Artifact jar = new DefaultArtifact( "groupId", "extension", "jar", "1.0" );
+        RequestTrace trace = modelTrace.newChild( new ArtifactRequest() );
+
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVING, jar, trace ) );
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVED, jar, trace ) );
+
+        assertThat( timer.getResolutionsForPom( POM_FILE.getAbsolutePath() ) ).isNull();
+    }
+
+    @Test
+    public void shouldIgnoreEndEventsWithoutStart()
+    {
+        Artifact parent = new DefaultArtifact( "groupId", "parent", "pom", "1.0" );
+        RequestTrace trace = modelTrace.newChild( new ArtifactRequest() );
+
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVED, parent, trace ) );
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_DOWNLOADED, parent, trace ) );
+
+        assertThat( timer.getResolutionsForPom( POM_FILE.getAbsolutePath() ) ).isNull();
+    }
+
+    @Test
+    public void shouldTakeTheImportsFromTheResolvedPoms()
+        throws IOException
+    {
+        File pomFile = File.createTempFile( "parent", ".pom" );
+        pomFile.deleteOnExit();
+        String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>groupId</groupId>"
+            + "<artifactId>parent</artifactId><version>1.0</version><packaging>pom</packaging>"
+            + "<dependencyManagement><dependencies><dependency><groupId>groupId</groupId><artifactId>bom</artifactId>"
+            + "<version>2.0</version><type>pom</type><scope>import</scope></dependency></dependencies>"
+            + "</dependencyManagement></project>";
+        Files.write( pomFile.toPath(), pom.getBytes( StandardCharsets.UTF_8 ) );
+        Artifact parent = new DefaultArtifact( "groupId", "parent", "pom", "1.0" ).setFile( pomFile );
+        RequestTrace trace = modelTrace.newChild( new ArtifactRequest() );
+
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVING, parent, trace ) );
+        timer.repositoryEvent( createEvent( EventType.ARTIFACT_RESOLVED, parent, trace ) );
+
+        // The import is declared in a parent from the repository, not in a project of the reactor.
+        assertThat( timer.getImportedPoms( Collections.<MavenProject>emptyList() ) ).containsOnly( "groupId:bom" );
+    }
+}
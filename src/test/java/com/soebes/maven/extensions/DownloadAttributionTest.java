@@ -0,0 +1,102 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.DependencyResolutionRequest;
+import org.apache.maven.project.DefaultDependencyResolutionRequest;
+import org.eclipse.aether.RequestTrace;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class DownloadAttributionTest
+{
+    private static final String PROJECT = "groupId:dist:jar:1.0";
+
+    private SpanTree tree;
+
+    private DownloadAttribution attribution;
+
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        tree = new SpanTree();
+        attribution = new DownloadAttribution( tree );
+        tree.start( SpanKind.SESSION, "session" );
+    }
+
+    private void download( String artifact, long bytes, RequestTrace trace )
+    {
+        attribution.downloadStarted( tree.start( SpanKind.DOWNLOAD, artifact ), trace );
+        tree.setBytes( tree.find( SpanKind.DOWNLOAD, artifact ), bytes );
+        tree.stop( SpanKind.DOWNLOAD, artifact );
+    }
+
+    @Test
+    public void shouldAttributeDownloadsToTheRunningMojo()
+    {
+        ProjectMojo copy = new ProjectMojo( new ProjectKey( "groupId", "dist", "1.0" ),
+                                            new MojoKey( "org.apache.maven.plugins", "maven-dependency-plugin",
+                                                         "2.10", "copy", "copy-libs", "package" ) );
+        tree.start( SpanKind.PROJECT, PROJECT );
+        download( "g:before:1.0:jar", 10L,
+                  RequestTrace.newChild( null, new DefaultDependencyResolutionRequest() ).newChild( "collect" ) );
+        tree.start( SpanKind.MOJO, copy );
+        download( "g:first:1.0:jar", 300L, null );
+        download( "g:second:1.0:jar", 100L, null );
+        tree.stop( SpanKind.MOJO, copy );
+        tree.stop( SpanKind.PROJECT, PROJECT );
+
+        Map<String, Map<String, long[]>> result = attribution.getDownloadsPerProjectAndMojo();
+
+        assertThat( result ).containsOnlyKeys( PROJECT );
+        Map<String, long[]> mojos = result.get( PROJECT );
+        assertThat( mojos ).containsOnlyKeys( "maven-dependency-plugin:copy (copy-libs)",
+                                              DownloadAttribution.DEPENDENCY_RESOLUTION );
+        assertThat( mojos.get( "maven-dependency-plugin:copy (copy-libs)" )[0] ).isEqualTo( 400L );
+        assertThat( mojos.get( "maven-dependency-plugin:copy (copy-libs)" )[2] ).isEqualTo( 2L );
+        assertThat( mojos.get( DownloadAttribution.DEPENDENCY_RESOLUTION )[0] ).isEqualTo( 10L );
+    }
+
+    @Test
+    public void shouldAttributeDownloadsOutsideOfProjects()
+    {
+        download( "g:extension:1.0:jar", 5L, null );
+
+        assertThat( attribution.getDownloadsPerProjectAndMojo().get( DownloadAttribution.NO_PROJECT ) ).containsOnlyKeys( DownloadAttribution.OTHER );
+    }
+
+    @Test
+    public void shouldRecognizeTheResolutionContext()
+    {
+        DependencyResolutionRequest request = new DefaultDependencyResolutionRequest();
+
+        assertThat( DownloadAttribution.getResolutionContext( RequestTrace.newChild( null, new Plugin() ) ) ).isEqualTo( DownloadAttribution.PLUGIN_RESOLUTION );
+        assertThat( DownloadAttribution.getResolutionContext( RequestTrace.newChild( null, request ) ) ).isEqualTo( DownloadAttribution.DEPENDENCY_RESOLUTION );
+        assertThat( DownloadAttribution.getResolutionContext( null ) ).isEqualTo( DownloadAttribution.OTHER );
+    }
+}
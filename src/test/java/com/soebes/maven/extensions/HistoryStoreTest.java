@@ -0,0 +1,125 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class HistoryStoreTest
+{
+    private File directory;
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "history" ).toFile();
+    }
+
+    private BuildRecord createRecord( long timestamp, long moduleTime )
+    {
+        BuildRecord record = new BuildRecord( timestamp, "abc123", "agent-1", "success", moduleTime * 2 );
+        record.addPhase( "compile", moduleTime );
+        record.addPlugin( "org.apache.maven.plugins:maven-compiler-plugin:compile", "3.8.0", moduleTime );
+        record.addProject( "g:core", "1.0", timestamp, moduleTime );
+        return record;
+    }
+
+    @Test
+    public void shouldReadTheRecordsByTheirIndex()
+        throws IOException
+    {
+        HistoryStore store = new HistoryStore( directory, new File( "/work/project" ) );
+        for ( int build = 0; build < 100; build++ )
+        {
+            store.append( createRecord( 1000L * build, build ) );
+        }
+
+        assertThat( store.size() ).isEqualTo( 100 );
+        List<BuildRecord> last = store.readLast( 3 );
+        assertThat( last ).hasSize( 3 );
+        assertThat( last.get( 0 ).getProjectTime( "g:core" ) ).isEqualTo( 97 );
+        assertThat( last.get( 2 ).getCommit() ).isEqualTo( "abc123" );
+        assertThat( last.get( 2 ).getPhases() ).containsEntry( "compile", 99L );
+        assertThat( last.get( 2 ).getProjectVersion( "g:core" ) ).isEqualTo( "1.0" );
+        assertThat( last.get( 2 ).getPluginVersion( "org.apache.maven.plugins:maven-compiler-plugin:compile" ) )
+            .isEqualTo( "3.8.0" );
+        assertThat( store.find( 42500 ) ).isEqualTo( 43 );
+        assertThat( store.find( 0 ) ).isEqualTo( 0 );
+        assertThat( store.find( Long.MAX_VALUE ) ).isEqualTo( 100 );
+    }
+
+    @Test
+    public void shouldKeepTheProjectRootsApart()
+        throws IOException
+    {
+        new HistoryStore( directory, new File( "/work/a" ) ).append( createRecord( 1, 1 ) );
+
+        assertThat( new HistoryStore( directory, new File( "/work/b" ) ).size() ).isEqualTo( 0 );
+        assertThat( new HistoryStore( directory, new File( "/work/a" ) ).size() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldWriteAndParseUnknownValues()
+    {
+        BuildRecord record = new BuildRecord( 1, null, null, "failure", 10 );
+
+        BuildRecord parsed = BuildRecord.parse( Arrays.asList( record.write().split( "\n" ) ) );
+
+        assertThat( parsed.getCommit() ).isNull();
+        assertThat( parsed.getHost() ).isNull();
+        assertThat( parsed.getResult() ).isEqualTo( "failure" );
+    }
+
+    @Test
+    public void shouldReadTheCommitOfTheBranch()
+        throws IOException
+    {
+        File git = new File( directory, ".git" );
+        new File( git, "refs/heads" ).mkdirs();
+        Files.write( new File( git, "HEAD" ).toPath(), "ref: refs/heads/main\n".getBytes( StandardCharsets.UTF_8 ) );
+        Files.write( new File( git, "packed-refs" ).toPath(),
+                     "# pack-refs\n0123abcd refs/heads/main\n".getBytes( StandardCharsets.UTF_8 ) );
+        File module = new File( directory, "module" );
+        module.mkdirs();
+
+        assertThat( GitCommit.read( module ) ).isEqualTo( "0123abcd" );
+    }
+
+    @Test
+    public void shouldCalculateMedianAndPercentiles()
+    {
+        long[] values = { 10, 50, 20, 40, 30, 100 };
+
+        assertThat( HistoryTrend.percentile( values, 50 ) ).isEqualTo( 30 );
+        assertThat( HistoryTrend.percentile( values, 95 ) ).isEqualTo( 100 );
+        assertThat( HistoryTrend.movingMedian( values, 3 ) ).containsExactly( 10, 10, 20, 40, 30, 40 );
+        assertThat( HistoryTrend.trend( 110, 100 ) ).isEqualTo( "+10%" );
+    }
+}
@@ -0,0 +1,65 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class HotSpotReportTest
+{
+    private ProjectMojo surefire( String module )
+    {
+        return new ProjectMojo( new ProjectKey( "g", module, "1" ),
+                                new MojoKey( "org.apache.maven.plugins", "maven-surefire-plugin", "2.22.0", "test",
+                                             "default-test", "test" ) );
+    }
+
+    @Test
+    public void shouldSumUpPluginsAndPhasesOverAllProjects()
+    {
+        SpanTree tree = new SpanTree();
+        tree.start( SpanKind.SESSION, "session" );
+        for ( String module : new String[] { "a", "b", "c" } )
+        {
+            tree.start( SpanKind.MOJO, surefire( module ) );
+            tree.stop( SpanKind.MOJO, surefire( module ) );
+        }
+        HotSpotReport report = new HotSpotReport( tree, 2 );
+
+        assertThat( report.getSlowestExecutions().getEntries() ).hasSize( 2 );
+        List<TopN.Entry<String>> plugins = report.getSlowestPlugins().getEntries();
+        assertThat( plugins ).hasSize( 1 );
+        assertThat( plugins.get( 0 ).getKey() ).isEqualTo( "org.apache.maven.plugins:maven-surefire-plugin:2.22.0:test" );
+        assertThat( report.getSlowestPhases().getEntries().get( 0 ).getKey() ).isEqualTo( "test" );
+    }
+
+    @Test
+    public void shouldCalculateTheShareOfTheTotal()
+    {
+        assertThat( HotSpotReport.percentage( 25, 200 ) ).isEqualTo( 12.5 );
+        assertThat( HotSpotReport.percentage( 0, 0 ) ).isEqualTo( 0.0 );
+    }
+}
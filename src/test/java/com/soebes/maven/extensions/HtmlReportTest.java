@@ -0,0 +1,94 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class HtmlReportTest
+{
+    private SpanTree createTree()
+    {
+        SpanTree tree = new SpanTree();
+        tree.start( SpanKind.SESSION, "session" );
+        ProjectKey project = new ProjectKey( "g", "a</script>", "1" );
+        ProjectMojo compile =
+            new ProjectMojo( project, new MojoKey( "p", "compiler", "1", "compile", "default-compile", "compile" ) );
+        tree.start( SpanKind.PROJECT, project.getId() );
+        tree.start( SpanKind.MOJO, compile );
+        tree.stop( SpanKind.MOJO, compile );
+        tree.stop( SpanKind.PROJECT, project.getId() );
+        return tree;
+    }
+
+    @Test
+    public void shouldEmbedTheSpansAsColumns()
+        throws IOException
+    {
+        StringWriter data = new StringWriter();
+        new HtmlReport( createTree() ).writeData( data );
+
+        assertThat( data.toString() ).contains( "\"threads\":1" )
+                                     .contains( "\"kind\":[1,2]" )
+                                     .contains( "\"name\":[0,1]" )
+                                     .contains( "\"project\":[0,0]" )
+                                     .contains( "\"names\":[\"g:a</script>:1\","
+                                         + "\"p:compiler:1:compile (default-compile)\"" );
+    }
+
+    @Test
+    public void shouldWriteASelfContainedFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "buildtime-profiler", ".html" );
+        file.deleteOnExit();
+        new HtmlReport( createTree() ).write( file );
+        String html = new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+
+        assertThat( html ).startsWith( "<!DOCTYPE html>" ).doesNotContain( HtmlReport.DATA )
+                          .contains( "var DATA = {" ).contains( "g:a<\\/script>:1" ).doesNotContain( "src=" );
+    }
+
+    @Test
+    public void shouldEscapeTheEndOfATagAcrossWrites()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        Writer writer = new HtmlReport.ScriptWriter( out );
+        writer.write( "\"a</b\",\"c<" );
+        writer.write( "/script>\"" );
+        writer.write( '<' );
+        writer.write( '/' );
+        writer.flush();
+
+        assertThat( out.toString() ).isEqualTo( "\"a<\\/b\",\"c<\\/script>\"<\\/" );
+    }
+}
@@ -0,0 +1,81 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class JsonSummaryTest
+{
+    @Test
+    public void shouldWriteEachSectionOfTheSummary()
+        throws IOException
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( "g" );
+        project.setArtifactId( "a" );
+        project.setVersion( "1" );
+        project.setName( "A \"quoted\" name" );
+
+        SpanTree tree = new SpanTree();
+        tree.start( SpanKind.SESSION, "session" );
+        ProjectMojo compile = new ProjectMojo( new ProjectKey( "g", "a", "1" ),
+                                               new MojoKey( "p", "compiler", "1", "compile", "default-compile",
+                                                            "compile" ) );
+        tree.start( SpanKind.PROJECT, project.getId() );
+        tree.start( SpanKind.MOJO, compile );
+        tree.stop( SpanKind.MOJO, compile );
+        tree.stop( SpanKind.PROJECT, project.getId() );
+        int download = tree.start( SpanKind.DOWNLOAD, "g:b:1:jar" );
+        tree.setRepository( download, "central" );
+        tree.setBytes( download, 4096 );
+        tree.stop( SpanKind.DOWNLOAD, "g:b:1:jar" );
+
+        StringWriter result = new StringWriter();
+        new JsonSummary( tree, 42 ).write( result, Collections.singletonList( project ),
+                                           Arrays.asList( "compile", "test" ) );
+        String json = result.toString();
+
+        assertThat( json ).startsWith( "{\"schemaVersion\":1," )
+                          .contains( "\"discovery\":{\"time\":42}" )
+                          .contains( "{\"id\":\"g:a:1\",\"name\":\"A \\\"quoted\\\" name\",\"time\":" )
+                          .contains( "\"phases\":[{\"phase\":\"compile\",\"time\":0}]}]" )
+                          .contains( "\"phases\":[{\"phase\":\"compile\",\"time\":0},{\"phase\":\"test\",\"time\":0}]" )
+                          .contains( "{\"phase\":\"compile\",\"mojos\":[{\"project\":\"g:a:1\","
+                              + "\"mojo\":\"p:compiler:1:compile (default-compile)\",\"time\":0}]}" )
+                          .contains( "\"plugins\":[{\"plugin\":\"p:compiler:1:compile\",\"executions\":1," )
+                          .contains( "\"goals\":[]" )
+                          .contains( "\"download\":{\"count\":1,\"bytes\":4096,\"time\":0,\"items\":[{\"id\":"
+                              + "\"g:b:1:jar\",\"repository\":\"central\",\"time\":0,\"bytes\":4096,"
+                              + "\"failed\":false}]}" )
+                          .contains( "\"metadata\":{\"install\":{\"count\":0," )
+                          .endsWith( "\"fork\":{\"time\":0,\"projects\":[]}}" );
+    }
+}
@@ -0,0 +1,69 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.testng.annotations.Test;
+
+public class JsonWriterTest
+{
+    @Test
+    public void shouldSeparateValuesAndMembers()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter( out );
+
+        json.beginObject();
+        json.name( "a" ).value( 1L );
+        json.name( "b" ).beginArray().value( "x" ).value( true ).nullValue().endArray();
+        json.name( "c" ).beginObject().endObject();
+        json.name( "d" ).value( 1.5 );
+        json.endObject();
+
+        assertThat( out.toString() ).isEqualTo( "{\"a\":1,\"b\":[\"x\",true,null],\"c\":{},\"d\":1.5}" );
+    }
+
+    @Test
+    public void shouldEscapeStrings()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+
+        new JsonWriter( out ).value( "a\"b\\c\nd\u0001" );
+
+        assertThat( out.toString() ).isEqualTo( "\"a\\\"b\\\\c\\nd\\u0001\"" );
+    }
+
+    @Test
+    public void shouldWriteNullForNotANumber()
+        throws IOException
+    {
+        StringWriter out = new StringWriter();
+
+        new JsonWriter( out ).beginArray().value( Double.NaN ).endArray();
+
+        assertThat( out.toString() ).isEqualTo( "[null]" );
+    }
+}
@@ -20,10 +20,16 @@ package com.soebes.maven.extensions;
  */
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.maven.lifecycle.DefaultLifecycles;
+import org.apache.maven.lifecycle.Lifecycle;
+
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -49,4 +55,29 @@ public class LifeCycleOrderingTest
         snippet.orderLifeCycleOnPreparedOrder( givenPhases );
         assertThat( givenPhases ).containsExactly( "clean", "initialize", "compile", "test", "deploy" );
     }
+
+    @Test
+    public void shouldOrderCustomLifecyclesAfterThePredefinedPhases()
+    {
+        DefaultLifecycles lifecycles = mock( DefaultLifecycles.class );
+        Lifecycle release = new Lifecycle( "release", Arrays.asList( "prepare-release", "perform-release" ),
+                                           Collections.<String, String>emptyMap() );
+        when( lifecycles.getLifeCycles() ).thenReturn( Collections.singletonList( release ) );
+        snippet.addLifecycles( lifecycles );
+        List<String> givenPhases = Arrays.asList( "perform-release", "install", "prepare-release", "clean" );
+
+        snippet.orderLifeCycleOnPreparedOrder( givenPhases );
+        assertThat( givenPhases ).containsExactly( "clean", "install", "prepare-release", "perform-release" );
+    }
+
+    @Test
+    public void shouldOrderUnknownPhasesByTheirFirstOccurrence()
+    {
+        snippet.rank( "zzz-second" );
+        snippet.rank( "aaa-third" );
+        List<String> givenPhases = Arrays.asList( "aaa-third", "deploy", "zzz-second" );
+
+        snippet.orderLifeCycleOnPreparedOrder( givenPhases );
+        assertThat( givenPhases ).containsExactly( "deploy", "zzz-second", "aaa-third" );
+    }
 }
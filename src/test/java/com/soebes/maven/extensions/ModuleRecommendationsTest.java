@@ -0,0 +1,91 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.ModuleRecommendations.Recommendation;
+
+public class ModuleRecommendationsTest
+{
+    @Test
+    public void shouldRecommendToSplitTheBottleneckAndToMergeTheTinyChain()
+    {
+        // core (200 ms) with the dependents a, b, c and an independent chain t1 -> t2 -> t3 of tiny modules.
+        String[] modules = { "core", "a", "b", "c", "t1", "t2", "t3" };
+        long[] durations = { 200, 20, 20, 20, 30, 30, 30 };
+        int[][] upstream = { {}, { 0 }, { 0 }, { 0 }, {}, { 4 }, { 5 } };
+        SchedulerSimulation reactor = new SchedulerSimulation( modules, durations, upstream );
+        List<ModuleTime> moduleTimes =
+            Arrays.asList( new ModuleTime( "core", 200, 0, 0 ), new ModuleTime( "a", 20, 0, 0 ),
+                           new ModuleTime( "b", 20, 0, 0 ), new ModuleTime( "c", 20, 0, 0 ),
+                           new ModuleTime( "t1", 30, 0, 20 ), new ModuleTime( "t2", 30, 0, 20 ),
+                           new ModuleTime( "t3", 30, 0, 20 ) );
+
+        List<Recommendation> recommendations =
+            new ModuleRecommendations( reactor, moduleTimes ).getRecommendations();
+
+        assertThat( recommendations ).hasSize( 2 );
+        assertThat( recommendations.get( 0 ).getDescription() ).startsWith( "Split core" );
+        // The critical path drops from 220 ms to 120 ms.
+        assertThat( recommendations.get( 0 ).getSaving() ).isEqualTo( 100 );
+        assertThat( recommendations.get( 1 ).getDescription() ).startsWith( "Merge [t1, t2, t3]" );
+        assertThat( recommendations.get( 1 ).getSaving() ).isEqualTo( 40 );
+    }
+
+    @Test
+    public void shouldNotRecommendAnythingForABalancedReactor()
+    {
+        String[] modules = { "a", "b" };
+        long[] durations = { 100, 100 };
+        int[][] upstream = { {}, {} };
+        SchedulerSimulation reactor = new SchedulerSimulation( modules, durations, upstream );
+        List<ModuleTime> moduleTimes =
+            Arrays.asList( new ModuleTime( "a", 100, 0, 10 ), new ModuleTime( "b", 100, 0, 10 ) );
+
+        assertThat( new ModuleRecommendations( reactor, moduleTimes ).getRecommendations() ).isEmpty();
+    }
+
+    @Test
+    public void shouldMergeTheTinyChainBelowACommonParent()
+    {
+        // parent -> t1 -> t2 -> t3, every module also depends on the parent and on the tiny bom.
+        String[] modules = { "parent", "bom", "t1", "t2", "t3", "app" };
+        long[] durations = { 10, 10, 30, 30, 30, 300 };
+        int[][] upstream = { {}, { 0 }, { 0, 1 }, { 0, 1, 2 }, { 0, 1, 3 }, { 0, 1, 4 } };
+        SchedulerSimulation reactor = new SchedulerSimulation( modules, durations, upstream );
+        List<ModuleTime> moduleTimes =
+            Arrays.asList( new ModuleTime( "parent", 10, 0, 10 ), new ModuleTime( "bom", 10, 0, 10 ),
+                           new ModuleTime( "t1", 30, 0, 20 ), new ModuleTime( "t2", 30, 0, 20 ),
+                           new ModuleTime( "t3", 30, 0, 20 ), new ModuleTime( "app", 300, 0, 20 ) );
+
+        List<Recommendation> recommendations =
+            new ModuleRecommendations( reactor, moduleTimes ).getRecommendations();
+
+        assertThat( recommendations ).hasSize( 1 );
+        assertThat( recommendations.get( 0 ).getDescription() ).startsWith( "Merge [t1, t2, t3]" );
+        assertThat( recommendations.get( 0 ).getSaving() ).isEqualTo( 40 );
+    }
+}
@@ -0,0 +1,127 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class NoOpMojoDetectorTest
+{
+    private File target;
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        target = Files.createTempDirectory( "target" ).toFile();
+        target.deleteOnExit();
+    }
+
+    private ExecutionEvent createEvent( String goal )
+    {
+        Build build = new Build();
+        build.setDirectory( target.getPath() );
+        MavenProject project = mock( MavenProject.class );
+        when( project.getId() ).thenReturn( "g:a:jar:1" );
+        when( project.getBuild() ).thenReturn( build );
+        MojoExecution mojo = mock( MojoExecution.class );
+        when( mojo.getGroupId() ).thenReturn( "org.apache.maven.plugins" );
+        when( mojo.getArtifactId() ).thenReturn( "maven-resources-plugin" );
+        when( mojo.getGoal() ).thenReturn( goal );
+        when( mojo.getExecutionId() ).thenReturn( "default-" + goal );
+
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getProject() ).thenReturn( project );
+        when( event.getMojoExecution() ).thenReturn( mojo );
+        return event;
+    }
+
+    @Test
+    public void shouldFlagExecutionsWithoutChanges()
+        throws IOException
+    {
+        NoOpMojoDetector detector = new NoOpMojoDetector();
+        ExecutionEvent resources = createEvent( "resources" );
+
+        detector.mojoStart( resources );
+        detector.mojoSucceeded( resources, 120 );
+        detector.mojoStart( resources );
+        File file = new File( target, "classes/app.properties" );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(), new byte[] { 1 } );
+        detector.mojoSucceeded( resources, 80 );
+
+        assertThat( detector.getPluginStatistics( "org.apache.maven.plugins:maven-resources-plugin:resources" ) )
+            .containsExactly( 2, 1, 120 );
+    }
+
+    @Test
+    public void shouldChangeTheFingerprintWithTheSizeOfAFile()
+        throws IOException
+    {
+        File file = new File( target, "a.txt" );
+        Files.write( file.toPath(), new byte[] { 1 } );
+        long before = NoOpMojoDetector.fingerprint( target );
+        long modified = file.lastModified();
+
+        Files.write( file.toPath(), new byte[] { 1, 2 } );
+        file.setLastModified( modified );
+
+        assertThat( NoOpMojoDetector.fingerprint( target ) ).isNotEqualTo( before );
+        assertThat( NoOpMojoDetector.fingerprint( new File( target, "missing" ) ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    public void shouldReuseTheFingerprintAfterTheLastExecutionOfTheProject()
+        throws IOException
+    {
+        NoOpMojoDetector detector = new NoOpMojoDetector();
+        ExecutionEvent resources = createEvent( "resources" );
+        ExecutionEvent testResources = createEvent( "testResources" );
+
+        detector.mojoStart( resources );
+        detector.mojoSucceeded( resources, 10 );
+        // A change between two executions is not mistaken for an execution without changes.
+        Files.write( new File( target, "between.txt" ).toPath(), new byte[] { 1 } );
+        detector.mojoStart( testResources );
+        detector.mojoSucceeded( testResources, 20 );
+
+        assertThat( detector.getPluginStatistics( "org.apache.maven.plugins:maven-resources-plugin:testResources" ) )
+            .containsExactly( 1, 0, 0 );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldFailForAnUnknownExecution()
+    {
+        new NoOpMojoDetector().mojoSucceeded( createEvent( "resources" ), 10 );
+    }
+}
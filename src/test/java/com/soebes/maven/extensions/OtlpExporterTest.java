@@ -0,0 +1,176 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class OtlpExporterTest
+{
+    /**
+     * A stand-in for an OpenTelemetry collector which only records the requests.
+     */
+    private HttpServer collector;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        requests.clear();
+        threads.clear();
+        collector = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        collector.createContext( "/v1/traces", new HttpHandler()
+        {
+            public void handle( HttpExchange exchange )
+                throws IOException
+            {
+                requests.add( read( exchange.getRequestBody() ) );
+                exchange.sendResponseHeaders( 200, -1 );
+                exchange.close();
+            }
+        } );
+        collector.start();
+    }
+
+    @AfterMethod
+    public void afterMethod()
+    {
+        collector.stop( 0 );
+    }
+
+    private URL getEndpoint()
+        throws IOException
+    {
+        return new URL( "http://localhost:" + collector.getAddress().getPort() + "/v1/traces" );
+    }
+
+    @Test
+    public void shouldSendSpansInBatchesToTheCollector()
+        throws IOException
+    {
+        OtlpExporter exporter = new OtlpExporter( null, getEndpoint(), 2 )
+        {
+            @Override
+            public void run()
+            {
+                threads.add( Thread.currentThread().getName() );
+                super.run();
+            }
+        };
+        exporter.start();
+        exporter.export( createSpan( "first", null ) );
+        exporter.export( createSpan( "second", "0000000000000001" ) );
+        exporter.export( createSpan( "third", "0000000000000001" ) );
+        exporter.close();
+
+        assertThat( threads ).containsExactly( "mbtp-otlp" );
+        assertThat( requests ).hasSize( 2 );
+        String all = requests.get( 0 ) + requests.get( 1 );
+        assertThat( all ).contains( "\"name\":\"first\"" ).contains( "\"name\":\"second\"" ).contains( "\"name\":\"third\"" );
+        assertThat( exporter.getDropped() ).isEqualTo( 0 );
+    }
+
+    @Test
+    public void shouldWriteOneRequestPerLineToTheFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "mbtp", ".json" );
+        file.deleteOnExit();
+        OtlpExporter exporter = new OtlpExporter( file, null, 10 );
+        exporter.start();
+        exporter.export( createSpan( "first", null ) );
+        exporter.close();
+
+        List<String> lines = Files.readAllLines( file.toPath(), StandardCharsets.UTF_8 );
+        assertThat( lines ).hasSize( 1 );
+        assertThat( lines.get( 0 ) ).startsWith( "{\"resourceSpans\":[{\"resource\":{\"attributes\":[{\"key\":\"service.name\",\"value\":{\"stringValue\":\"maven\"}}]}" );
+    }
+
+    @Test
+    public void shouldDropSpansAfterClose()
+        throws IOException
+    {
+        OtlpExporter exporter = new OtlpExporter( null, getEndpoint(), 10 );
+        exporter.start();
+        exporter.close();
+        exporter.export( createSpan( "late", null ) );
+
+        assertThat( exporter.getDropped() ).isEqualTo( 1 );
+        assertThat( requests ).isEmpty();
+    }
+
+    @Test
+    public void shouldWriteSpanAsOtlpJson()
+        throws IOException
+    {
+        Span span = new Span( "0123456789abcdef0123456789abcdef", "0123456789abcdef", "fedcba9876543210", "compile",
+                              1000L, 3000L, true, Collections.<String, Object>singletonMap( "maven.transfer.bytes", 42L ) );
+
+        assertThat( OtlpExporter.toJson( Collections.singletonList( span ) ) ).contains( "{\"traceId\":\"0123456789abcdef0123456789abcdef\",\"spanId\":\"0123456789abcdef\",\"parentSpanId\":\"fedcba9876543210\",\"name\":\"compile\",\"kind\":1,\"startTimeUnixNano\":\"1000\",\"endTimeUnixNano\":\"3000\",\"attributes\":[{\"key\":\"maven.transfer.bytes\",\"value\":{\"intValue\":\"42\"}}],\"status\":{\"code\":2}}" );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldFailWithInvalidBatchSize()
+    {
+        new OtlpExporter( null, null, 0 );
+    }
+
+    private Span createSpan( String name, String parentSpanId )
+    {
+        return new Span( OtlpSpanListener.randomId() + OtlpSpanListener.randomId(), OtlpSpanListener.randomId(),
+                         parentSpanId, name, 1L, 2L, false, Collections.<String, Object>emptyMap() );
+    }
+
+    private String read( InputStream in )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ( ( read = in.read( buffer ) ) != -1 )
+        {
+            out.write( buffer, 0, read );
+        }
+        return new String( out.toByteArray(), StandardCharsets.UTF_8 );
+    }
+}
@@ -0,0 +1,82 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class OtlpSpanListenerTest
+{
+    @Test
+    public void shouldExportSpansWithTheirParents()
+    {
+        OtlpExporter exporter = mock( OtlpExporter.class );
+        OtlpSpanListener listener = new OtlpSpanListener( exporter );
+        SpanTree tree = new SpanTree();
+        tree.addListener( listener );
+
+        ProjectMojo mojo = new ProjectMojo( new ProjectKey( "groupId", "first", "1.0" ),
+                                            new MojoKey( "org.apache.maven.plugins", "maven-compiler-plugin", "3.5",
+                                                         "compile", "default-compile", "compile" ) );
+        tree.start( SpanKind.SESSION, "session" );
+        tree.start( SpanKind.PROJECT, "groupId:first:jar:1.0" );
+        tree.start( SpanKind.MOJO, mojo );
+        int download = tree.start( SpanKind.DOWNLOAD, "g:a:1.0:jar" );
+        tree.setRepository( download, "central" );
+        tree.setBytes( download, 42L );
+        tree.stop( SpanKind.DOWNLOAD, "g:a:1.0:jar" );
+        tree.stop( SpanKind.MOJO, mojo, true );
+        tree.stop( SpanKind.PROJECT, "groupId:first:jar:1.0" );
+        tree.stop( SpanKind.SESSION, "session" );
+
+        ArgumentCaptor<Span> captor = ArgumentCaptor.forClass( Span.class );
+        verify( exporter, times( 4 ) ).export( captor.capture() );
+        List<Span> spans = captor.getAllValues();
+        Span transfer = spans.get( 0 );
+        Span mojoSpan = spans.get( 1 );
+        Span project = spans.get( 2 );
+        Span session = spans.get( 3 );
+
+        assertThat( session.getParentSpanId() ).isNull();
+        assertThat( project.getParentSpanId() ).isEqualTo( session.getSpanId() );
+        assertThat( mojoSpan.getParentSpanId() ).isEqualTo( project.getSpanId() );
+        assertThat( transfer.getParentSpanId() ).isEqualTo( mojoSpan.getSpanId() );
+
+        assertThat( transfer.getName() ).isEqualTo( "download g:a:1.0:jar" );
+        assertThat( transfer.getAttributes() ).containsEntry( "maven.repository", "central" )
+                                              .containsEntry( "maven.transfer.bytes", 42L );
+        assertThat( mojoSpan.getName() ).isEqualTo( "maven-compiler-plugin:compile (default-compile)" );
+        assertThat( mojoSpan.getAttributes() ).containsEntry( "maven.lifecycle.phase", "compile" );
+        assertThat( mojoSpan.isError() ).isTrue();
+        assertThat( project.getName() ).isEqualTo( "project groupId:first:jar:1.0" );
+        assertThat( transfer.getTraceId() ).isEqualTo( listener.getTraceId() ).hasSize( 32 );
+        assertThat( transfer.getSpanId() ).hasSize( 16 ).isNotEqualTo( mojoSpan.getSpanId() );
+    }
+}
@@ -0,0 +1,138 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the {@link PhaseRegistry} with the former synchronized list while all threads register phases like the
+ * builder threads of {@code -T 32} do on each mojo start. It is not part of the regular test run, start it via
+ * {@code mvn test -Dtest=PhaseRegistryBenchmark}. The times are written to the TestNG report.
+ */
+public class PhaseRegistryBenchmark
+{
+    private static final int THREADS = 32;
+
+    private static final int CALLS = 200000;
+
+    private static final String[] PHASES = new String[30];
+
+    static
+    {
+        for ( int i = 0; i < PHASES.length; i++ )
+        {
+            PHASES[i] = "phase-" + i;
+        }
+    }
+
+    private interface Collector
+    {
+        void collect( String phase );
+    }
+
+    @Test
+    public void compareUnderContention()
+        throws InterruptedException
+    {
+        final List<String> list = Collections.synchronizedList( new LinkedList<String>() );
+        final PhaseRegistry registry = new PhaseRegistry();
+
+        // Warm up both before measuring.
+        run( listCollector( list ) );
+        run( registryCollector( registry ) );
+
+        long listTime = run( listCollector( list ) );
+        long registryTime = run( registryCollector( registry ) );
+
+        Reporter.log( String.format( "%d threads, %d calls each: synchronized list %8d ms, registry %8d ms", THREADS,
+                                     CALLS, listTime, registryTime ) );
+        // The check-then-act of the list may add a phase twice, only the registry is guaranteed to be exact.
+        assertThat( registry.getPhases() ).hasSize( PHASES.length );
+    }
+
+    private Collector listCollector( final List<String> list )
+    {
+        return new Collector()
+        {
+            public void collect( String phase )
+            {
+                // The former check-then-act of BuildTimeProfiler.
+                if ( !list.contains( phase ) )
+                {
+                    list.add( phase );
+                }
+            }
+        };
+    }
+
+    private Collector registryCollector( final PhaseRegistry registry )
+    {
+        return new Collector()
+        {
+            public void collect( String phase )
+            {
+                registry.add( phase );
+            }
+        };
+    }
+
+    private long run( final Collector collector )
+        throws InterruptedException
+    {
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( THREADS );
+        for ( int thread = 0; thread < THREADS; thread++ )
+        {
+            final int offset = thread;
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int i = 0; i < CALLS; i++ )
+                        {
+                            collector.collect( PHASES[( i + offset ) % PHASES.length] );
+                        }
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return ( System.nanoTime() - begin ) / 1000000L;
+    }
+}
@@ -0,0 +1,78 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.Test;
+
+public class PhaseRegistryTest
+{
+    @Test
+    public void shouldKeepTheOrderOfFirstOccurrence()
+    {
+        PhaseRegistry registry = new PhaseRegistry();
+
+        assertThat( registry.add( "compile" ) ).isTrue();
+        assertThat( registry.add( "test" ) ).isTrue();
+        assertThat( registry.add( "compile" ) ).isFalse();
+
+        assertThat( registry.contains( "test" ) ).isTrue();
+        assertThat( registry.getPhases() ).containsExactly( "compile", "test" );
+    }
+
+    @Test
+    public void shouldAddEachPhaseOnlyOnceFromConcurrentThreads()
+        throws InterruptedException
+    {
+        final PhaseRegistry registry = new PhaseRegistry();
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( 16 );
+        for ( int thread = 0; thread < 16; thread++ )
+        {
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int i = 0; i < 1000; i++ )
+                        {
+                            registry.add( "phase-" + ( i % 50 ) );
+                        }
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        start.countDown();
+        done.await();
+
+        assertThat( registry.getPhases() ).hasSize( 50 ).doesNotHaveDuplicates();
+    }
+}
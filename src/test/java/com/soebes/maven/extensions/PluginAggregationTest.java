@@ -0,0 +1,78 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class PluginAggregationTest
+{
+    @Test
+    public void shouldCalculateTheStatisticsOfTheExecutions()
+    {
+        PluginStatistics statistics = new PluginStatistics();
+        statistics.add( "a", 2 );
+        statistics.add( "b", 4 );
+        statistics.add( "c", 4 );
+        statistics.add( "d", 4 );
+        statistics.add( "e", 5 );
+        statistics.add( "f", 5 );
+        statistics.add( "g", 7 );
+        statistics.add( "h", 9 );
+
+        assertThat( statistics.getCount() ).isEqualTo( 8 );
+        assertThat( statistics.getTotal() ).isEqualTo( 40 );
+        assertThat( statistics.getMean() ).isEqualTo( 5.0, offset( 0.0001 ) );
+        assertThat( statistics.getStandardDeviation() ).isEqualTo( 2.0, offset( 0.0001 ) );
+        assertThat( statistics.getMax() ).isEqualTo( 9 );
+        assertThat( statistics.getSlowestProject() ).isEqualTo( "h" );
+    }
+
+    @Test
+    public void shouldAggregateEachPluginGoalOverAllProjects()
+    {
+        SpanTree tree = new SpanTree();
+        tree.start( SpanKind.SESSION, "session" );
+        for ( String module : new String[] { "a", "b" } )
+        {
+            ProjectKey project = new ProjectKey( "g", module, "1" );
+            ProjectMojo compile = new ProjectMojo( project, new MojoKey( "p", "compiler", "1", "compile",
+                                                                         "default-compile", "compile" ) );
+            ProjectMojo testCompile = new ProjectMojo( project, new MojoKey( "p", "compiler", "1", "testCompile",
+                                                                             "default-testCompile", "test-compile" ) );
+            tree.start( SpanKind.MOJO, compile );
+            tree.stop( SpanKind.MOJO, compile );
+            tree.start( SpanKind.MOJO, testCompile );
+            tree.stop( SpanKind.MOJO, testCompile );
+        }
+
+        Map<String, PluginStatistics> plugins = new PluginAggregation( tree ).getPlugins();
+
+        assertThat( plugins ).containsOnlyKeys( "p:compiler:1:compile", "p:compiler:1:testCompile" );
+        assertThat( plugins.get( "p:compiler:1:compile" ).getCount() ).isEqualTo( 2 );
+    }
+}
@@ -0,0 +1,135 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.soebes.maven.extensions.ProfileDiff.Difference;
+import org.testng.annotations.Test;
+
+public class ProfileDiffTest
+{
+    private List<Difference> diff()
+        throws IOException
+    {
+        return diff( Integer.MAX_VALUE );
+    }
+
+    private List<Difference> diff( int top )
+        throws IOException
+    {
+        BuildRecord before = new BuildRecord( 0, "abc", "agent", "success", 10000 );
+        before.addPlugin( "org.apache.maven.plugins:maven-compiler-plugin:compile", "3.1", 3000 );
+        before.addPlugin( "org.apache.maven.plugins:maven-jar-plugin:jar", "2.6", 500 );
+        before.addProject( "g:core", "1.0", 0, 4000 );
+        before.addProject( "g:legacy", "1.0", 4000, 2000 );
+        BuildRecord after = new BuildRecord( 1, "def", "agent", "success", 9000 );
+        after.addPlugin( "org.apache.maven.plugins:maven-compiler-plugin:compile", "3.8.0", 2000 );
+        after.addPlugin( "org.apache.maven.plugins:maven-jar-plugin:jar", "2.6", 520 );
+        after.addProject( "g:core", "1.1", 0, 4020 );
+        after.addTransfer( "download", 800, 4096 );
+        return ProfileDiff.diff( new StringReader( before.write() ), new StringReader( after.write() ), top );
+    }
+
+    @Test
+    public void shouldRankTheDifferencesByTheirChange()
+        throws IOException
+    {
+        List<Difference> differences = diff();
+
+        assertThat( differences ).hasSize( 6 );
+        assertThat( differences.get( 0 ).getName() ).isEqualTo( "g:legacy" );
+        assertThat( differences.get( 0 ).getAfter() ).isEqualTo( -1 );
+        assertThat( differences.get( 0 ).getChange() ).isEqualTo( -2000 );
+        assertThat( differences.get( 1 ).getChange() ).isEqualTo( -1000 );
+        assertThat( differences.get( 3 ).getDimension() ).isEqualTo( "transfer" );
+        assertThat( differences.get( 3 ).getBefore() ).isEqualTo( -1 );
+    }
+
+    @Test
+    public void shouldOnlyKeepTheLargestChangesOfEachDimension()
+        throws IOException
+    {
+        List<Difference> differences = diff( 1 );
+
+        assertThat( differences ).hasSize( 4 );
+        assertThat( differences.get( 0 ).getName() ).isEqualTo( "g:legacy" );
+        assertThat( differences ).extracting( "name" )
+                                 .containsOnly( "g:legacy", "wall time",
+                                                "org.apache.maven.plugins:maven-compiler-plugin:compile",
+                                                "download" );
+    }
+
+    @Test
+    public void shouldIgnoreSmallChanges()
+        throws IOException
+    {
+        for ( Difference difference : diff() )
+        {
+            assertThat( difference.isSignificant() ).as( difference.getName() )
+                                                    .isEqualTo( Math.abs( difference.getChange() ) > 100 );
+        }
+    }
+
+    @Test
+    public void shouldReportEachDimension()
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProfileDiff.report( diff(), 1, new PrintStream( bytes, true, "UTF-8" ) );
+        String report = new String( bytes.toByteArray(), StandardCharsets.UTF_8 );
+
+        assertThat( report ).contains( "Changes per plugin (* significant):" );
+        assertThat( report ).contains( "    -1000 ms * org.apache.maven.plugins:maven-compiler-plugin:compile"
+            + " [3.1 -> 3.8.0] (3000 ms -> 2000 ms)" );
+        assertThat( report ).doesNotContain( "maven-jar-plugin" );
+        assertThat( report ).contains( "    -2000 ms * g:legacy [1.0 -> none] (2000 ms -> none)" );
+        assertThat( report ).contains( "     +800 ms * download (none -> 800 ms)" );
+    }
+
+    @Test
+    public void shouldMatchTheVersionsOfAnOlderProfile()
+        throws IOException
+    {
+        String before = "B\t0\tabc\tagent\tsuccess\t10000\n"
+            + "G\torg.apache.maven.plugins:maven-compiler-plugin:3.1:compile\t3000\n"
+            + "M\tg:core:jar:1.0\t0\t4000\n";
+        BuildRecord after = new BuildRecord( 1, "def", "agent", "success", 10000 );
+        after.addPlugin( "org.apache.maven.plugins:maven-compiler-plugin:compile", "3.8.0", 2000 );
+        after.addProject( "g:core", "1.1", 0, 4000 );
+
+        List<Difference> differences =
+            ProfileDiff.diff( new StringReader( before ), new StringReader( after.write() ), Integer.MAX_VALUE );
+
+        assertThat( differences ).hasSize( 3 );
+        assertThat( differences.get( 0 ).getName() )
+            .isEqualTo( "org.apache.maven.plugins:maven-compiler-plugin:compile" );
+        assertThat( differences.get( 0 ).getBeforeVersion() ).isEqualTo( "3.1" );
+        assertThat( differences.get( 0 ).getAfterVersion() ).isEqualTo( "3.8.0" );
+        assertThat( differences ).extracting( "name" ).contains( "g:core" );
+    }
+}
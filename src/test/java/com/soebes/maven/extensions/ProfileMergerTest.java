@@ -0,0 +1,98 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class ProfileMergerTest
+{
+    private ProfileMerger createMerger()
+    {
+        BuildRecord first = new BuildRecord( 0, "abc", "agent-1", "success", 0 );
+        first.addProject( "parent", 1000, 100 );
+        first.addProject( "core", 1100, 900 );
+        BuildRecord second = new BuildRecord( 0, "abc", "agent-2", "success", 0 );
+        second.addProject( "parent", 1050, 100 );
+        second.addProject( "web", 1150, 300 );
+        return new ProfileMerger().add( "agent-1", first ).add( "agent-2", second );
+    }
+
+    @Test
+    public void shouldCountSharedModulesOnce()
+    {
+        ProfileMerger merger = createMerger();
+
+        assertThat( merger.getModules() ).containsEntry( "parent", "agent-1" ).containsEntry( "core", "agent-1" )
+                                         .containsEntry( "web", "agent-2" ).hasSize( 3 );
+        assertThat( merger.getDuplicates() ).containsEntry( "parent", 2 ).hasSize( 1 );
+        assertThat( merger.getStart() ).isEqualTo( 1000 );
+        assertThat( merger.getEnd() ).isEqualTo( 2000 );
+        assertThat( merger.getBusyTime( "agent-2" ) ).isEqualTo( 400 );
+    }
+
+    @Test
+    public void shouldReportTheBalanceOfTheAgents()
+    {
+        List<String> report = createMerger().report();
+
+        assertThat( report.get( 0 ) ).isEqualTo( "Merged build of 2 agents: 1000 ms wall time" );
+        // agent-1 finishes after 1000 ms, agent-2 after 450 ms.
+        assertThat( report ).contains( "Balance: slowest agent 1000 ms, mean 725 ms, imbalance 38%" );
+        assertThat( report ).contains( "     100 ms : parent (2 agents)" );
+    }
+
+    @Test
+    public void shouldCreateATrackPerAgent()
+    {
+        List<Span> spans = createMerger().toSpans();
+
+        assertThat( spans ).hasSize( 7 );
+        Span root = spans.get( 0 );
+        assertThat( root.getParentSpanId() ).isNull();
+        assertThat( spans.get( 1 ).getName() ).isEqualTo( "agent agent-1" );
+        assertThat( spans.get( 1 ).getParentSpanId() ).isEqualTo( root.getSpanId() );
+        assertThat( spans.get( 2 ).getName() ).isEqualTo( "parent" );
+        assertThat( spans.get( 2 ).getParentSpanId() ).isEqualTo( spans.get( 1 ).getSpanId() );
+        assertThat( spans.get( 2 ).getStartTime() ).isEqualTo( 1000L * 1000000L );
+    }
+
+    @Test
+    public void shouldReadWrittenProfiles()
+        throws IOException
+    {
+        BuildRecord record = new BuildRecord( 0, null, "ci-7", "success", 10 );
+        record.addProject( "core", 5, 10 );
+        File file = File.createTempFile( "profile", ".txt" );
+        file.deleteOnExit();
+        Files.write( file.toPath(), record.write().getBytes( StandardCharsets.UTF_8 ) );
+
+        ProfileMerger merger = new ProfileMerger().add( file ).add( file );
+
+        assertThat( merger.getAgents() ).containsOnlyKeys( "ci-7", "ci-7#2" );
+    }
+}
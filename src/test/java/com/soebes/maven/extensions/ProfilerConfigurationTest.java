@@ -0,0 +1,143 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+public class ProfilerConfigurationTest
+{
+    private ProfilerConfiguration create( String... properties )
+    {
+        Properties result = new Properties();
+        for ( int i = 0; i < properties.length; i += 2 )
+        {
+            result.setProperty( properties[i], properties[i + 1] );
+        }
+        return new ProfilerConfiguration( result, new File( "base" ) );
+    }
+
+    @Test
+    public void shouldRunTheConsoleAndTheConfiguredReportersByDefault()
+    {
+        ProfilerConfiguration configuration = create( "mbtp.json.file", "summary.json" );
+
+        assertThat( configuration.isConsoleReport() ).isTrue();
+        assertThat( configuration.getJsonFile() ).isEqualTo( new File( "base", "summary.json" ) );
+        assertThat( configuration.getHtmlFile() ).isNull();
+        assertThat( configuration.getOtlpFile() ).isNull();
+        assertThat( configuration.isCollector( "repository" ) ).isTrue();
+    }
+
+    @Test
+    public void shouldOnlyRunTheSelectedReporters()
+    {
+        ProfilerConfiguration configuration =
+            create( "mbtp.reporters", "html, trace", "mbtp.json.file", "summary.json" );
+
+        assertThat( configuration.isConsoleReport() ).isFalse();
+        assertThat( configuration.getJsonFile() ).isNull();
+        assertThat( configuration.getHtmlFile() ).isEqualTo( new File( "base", "target/buildtime-profiler.html" ) );
+        assertThat( configuration.getOtlpFile() ).isEqualTo( new File( "base",
+                                                                       "target/buildtime-profiler-trace.json" ) );
+        assertThat( configuration.getPrometheusFile() ).isNull();
+    }
+
+    @Test
+    public void shouldSelectTheCollectors()
+    {
+        ProfilerConfiguration configuration = create( "mbtp.collectors", "goal" );
+
+        assertThat( configuration.isCollector( "goal" ) ).isTrue();
+        assertThat( configuration.isCollector( "repository" ) ).isFalse();
+        assertThat( configuration.isCollector( "fork" ) ).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreAnUnknownCollector()
+    {
+        ProfilerConfiguration configuration = create( "mbtp.collectors", "goal,resources" );
+
+        assertThat( configuration.isCollector( "goal" ) ).isTrue();
+        assertThat( configuration.isCollector( "fork" ) ).isFalse();
+    }
+
+    @Test
+    public void shouldReadThePropertiesFileOfTheProject()
+        throws IOException
+    {
+        File directory = Files.createTempDirectory( "mbtp" ).toFile();
+        File file = new File( directory, ProfilerConfiguration.PROPERTIES_FILE );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(),
+                     "mbtp.reporters=json\nmbtp.report=compact\n".getBytes( StandardCharsets.ISO_8859_1 ) );
+        Properties userProperties = new Properties();
+        userProperties.setProperty( "mbtp.reporters", "console" );
+        Map<String, Object> data = new HashMap<>();
+        data.put( "multiModuleProjectDirectory", directory.getPath() );
+        data.put( "systemProperties", new Properties() );
+        data.put( "userProperties", userProperties );
+
+        ProfilerConfiguration configuration = ProfilerConfiguration.fromContext( data );
+
+        assertThat( configuration.isCompactReport() ).isTrue();
+        assertThat( configuration.isConsoleReport() ).isTrue();
+        assertThat( configuration.getJsonFile() ).isNull();
+
+        file.delete();
+        file.getParentFile().delete();
+        directory.delete();
+    }
+
+    @Test
+    public void shouldIgnoreAMalformedPropertiesFile()
+        throws IOException
+    {
+        File directory = Files.createTempDirectory( "mbtp" ).toFile();
+        File file = new File( directory, ProfilerConfiguration.PROPERTIES_FILE );
+        file.getParentFile().mkdirs();
+        Files.write( file.toPath(),
+                     "mbtp.reporters=json\nmbtp.report=\\uZZZZ\n".getBytes( StandardCharsets.ISO_8859_1 ) );
+        Properties userProperties = new Properties();
+        userProperties.setProperty( "mbtp.report", "compact" );
+        Map<String, Object> data = new HashMap<>();
+        data.put( "multiModuleProjectDirectory", directory.getPath() );
+        data.put( "userProperties", userProperties );
+
+        ProfilerConfiguration configuration = ProfilerConfiguration.fromContext( data );
+
+        assertThat( configuration.isCompactReport() ).isTrue();
+        assertThat( configuration.isConsoleReport() ).isTrue();
+        assertThat( configuration.getJsonFile() ).isNull();
+
+        file.delete();
+        file.getParentFile().delete();
+        directory.delete();
+    }
+}
@@ -0,0 +1,92 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ProgressHttpServerTest
+{
+    private ProgressHttpServer server;
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        HistoryStore store = new HistoryStore( new File( "target/not-existing" ), new File( "." ) );
+        server = new ProgressHttpServer( new BuildProgress(), new ProjectDurationHistory( store ), 0 );
+        server.start();
+    }
+
+    @AfterMethod
+    public void afterMethod()
+    {
+        server.stop();
+    }
+
+    @Test
+    public void shouldServeProgressAsJson()
+        throws IOException
+    {
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL( "http://localhost:" + server.getPort() + "/" ).openConnection();
+
+        assertThat( connection.getResponseCode() ).isEqualTo( 200 );
+        assertThat( connection.getContentType() ).startsWith( "application/json" );
+        assertThat( read( connection.getInputStream() ) ).startsWith( "{\"elapsed\":0,\"threads\":1," ) //
+                                                         .contains( "\"projects\":{\"total\":0,\"running\":0,\"completed\":0}" ) //
+                                                         .endsWith( "\"estimatedRemaining\":0}" );
+    }
+
+    @Test
+    public void shouldRejectOtherMethods()
+        throws IOException
+    {
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL( "http://localhost:" + server.getPort() + "/" ).openConnection();
+        connection.setRequestMethod( "DELETE" );
+
+        assertThat( connection.getResponseCode() ).isEqualTo( 405 );
+    }
+
+    private String read( InputStream in )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ( ( read = in.read( buffer ) ) != -1 )
+        {
+            out.write( buffer, 0, read );
+        }
+        in.close();
+        return out.toString( "UTF-8" );
+    }
+}
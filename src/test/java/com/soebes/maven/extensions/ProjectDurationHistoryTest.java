@@ -0,0 +1,57 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.testng.annotations.Test;
+
+public class ProjectDurationHistoryTest
+{
+    private BuildRecord createRecord( String result, String version, long projectTime )
+    {
+        BuildRecord record = new BuildRecord( System.currentTimeMillis(), null, null, result, projectTime );
+        record.addProject( "g:a", version, 0, projectTime );
+        return record;
+    }
+
+    @Test
+    public void shouldReadTheDurationsOfTheSuccessfulBuildsFromTheHistory()
+        throws IOException
+    {
+        File directory = Files.createTempDirectory( "history" ).toFile();
+        HistoryStore store = new HistoryStore( directory, new File( "/work/project" ) );
+        store.append( createRecord( "success", "1", 1000 ) );
+        store.append( createRecord( "failure", "2", 100 ) );
+        // An upgrade keeps the duration of the project.
+        store.append( createRecord( "success", "2", 3000 ) );
+
+        ProjectDurationHistory history = new ProjectDurationHistory( store ).load();
+
+        assertThat( history.getDuration( "g:a" ) ).isEqualTo( 2000 );
+        assertThat( history.getDuration( "g:b" ) ).isEqualTo( -1 );
+        assertThat( new ProjectDurationHistory( new HistoryStore( directory, new File( "/work/other" ) ) ).load()
+                        .isEmpty() ).isTrue();
+    }
+}
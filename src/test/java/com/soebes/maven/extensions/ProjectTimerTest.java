@@ -4,10 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.project.MavenProject;
 import org.testng.annotations.Test;
 
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
 public class ProjectTimerTest
 {
     
@@ -56,6 +64,40 @@ public class ProjectTimerTest
         // Intentionally no assertThat(..) cause we expect to get an IllegalArgumentException
     }
 
+    @Test
+    public void shouldMeasureQueueWaitAndGapsOfModules()
+        throws InterruptedException
+    {
+        SpanTree tree = new SpanTree();
+        ProjectTimer t = new ProjectTimer( tree, SpanKind.PROJECT );
+        ExecutionEvent api = createEvent( "api" );
+        ExecutionEvent impl = createEvent( "impl" );
+        MavenProject apiProject = api.getProject();
+        MavenProject implProject = impl.getProject();
+        ProjectDependencyGraph graph = mock( ProjectDependencyGraph.class );
+        when( graph.getUpstreamProjects( apiProject, false ) ).thenReturn( Collections.<MavenProject>emptyList() );
+        when( graph.getUpstreamProjects( implProject, false ) ).thenReturn( Arrays.asList( apiProject ) );
+
+        tree.start( SpanKind.SESSION, "session" );
+        t.projectStart( api );
+        tree.start( SpanKind.MOJO, "compile" );
+        Thread.sleep( 20L );
+        tree.stop( SpanKind.MOJO, "compile" );
+        t.projectStop( api );
+        Thread.sleep( 30L );
+        t.projectStart( impl );
+        Thread.sleep( 20L );
+        t.projectStop( impl );
+
+        List<ModuleTime> modules = t.getModuleTimes( Arrays.asList( apiProject, implProject ), graph );
+
+        assertThat( modules ).hasSize( 2 );
+        assertThat( modules.get( 0 ).getProjectId() ).isEqualTo( "api" );
+        assertThat( modules.get( 0 ).getGapTime() ).isLessThan( 10L );
+        assertThat( modules.get( 1 ).getQueueWait() ).isGreaterThanOrEqualTo( 25L );
+        assertThat( modules.get( 1 ).getGapTime() ).isGreaterThanOrEqualTo( 20L );
+    }
+
     private ExecutionEvent createEvent( String id )
     {
         MavenProject project = mock( MavenProject.class );
@@ -0,0 +1,139 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class PrometheusExporterTest
+{
+    private File file;
+
+    private PrometheusExporter exporter;
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        File directory = Files.createTempDirectory( "mbtp" ).toFile();
+        directory.deleteOnExit();
+        file = new File( directory, "maven.prom" );
+        file.deleteOnExit();
+        exporter = new PrometheusExporter( file, 2 );
+    }
+
+    private String readFile()
+        throws IOException
+    {
+        return new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void shouldWriteBuildDurationAndPhases()
+        throws IOException
+    {
+        exporter.phase( "compile", 1500L );
+        exporter.phase( "test", 250L );
+
+        exporter.export( "groupId:first", "success", 2000L );
+
+        assertThat( readFile() ).contains( "# TYPE maven_build_duration_seconds gauge\n" ) //
+                                .contains( "# TYPE maven_build_phase_seconds gauge\n" ) //
+                                .contains( "maven_build_info{project=\"groupId:first\",result=\"success\"} 1\n" ) //
+                                .contains( "maven_build_duration_seconds{project=\"groupId:first\"} 2.000\n" ) //
+                                .contains( "maven_build_phase_seconds{project=\"groupId:first\",phase=\"compile\"} 1.500\n" ) //
+                                .contains( "maven_build_phase_seconds{project=\"groupId:first\",phase=\"test\"} 0.250\n" );
+        assertThat( file.getParentFile().list() ).containsExactly( "maven.prom" );
+    }
+
+    @Test
+    public void shouldSumUpPluginsBeyondTheLimitAsOther()
+    {
+        exporter.mojo( "maven-compiler-plugin", "compile", 3000L );
+        exporter.mojo( "maven-compiler-plugin", "compile", 1000L );
+        exporter.mojo( "maven-surefire-plugin", "test", 2000L );
+        exporter.mojo( "maven-jar-plugin", "jar", 100L );
+        exporter.mojo( "maven-install-plugin", "install", 200L );
+
+        String result = exporter.format( "p", "success", 0L );
+
+        assertThat( result ).contains( "maven_build_plugin_seconds{project=\"p\",plugin=\"maven-compiler-plugin\",goal=\"compile\"} 4.000\n" ) //
+                            .contains( "maven_build_plugin_seconds{project=\"p\",plugin=\"maven-surefire-plugin\",goal=\"test\"} 2.000\n" ) //
+                            .contains( "maven_build_plugin_seconds{project=\"p\",plugin=\"other\",goal=\"other\"} 0.300\n" ) //
+                            .doesNotContain( "maven-jar-plugin" );
+    }
+
+    @Test
+    public void shouldCountModulesInHistogramBuckets()
+    {
+        exporter.module( "a", 400L );
+        exporter.module( "b", 4000L );
+        exporter.module( "c", 4000000L );
+
+        String result = exporter.format( "p", "success", 0L );
+
+        assertThat( result ).contains( "# TYPE maven_build_module_duration_seconds histogram\n" ) //
+                            .contains( "maven_build_module_duration_seconds_bucket{project=\"p\",le=\"0.5\"} 1\n" ) //
+                            .contains( "maven_build_module_duration_seconds_bucket{project=\"p\",le=\"5.0\"} 2\n" ) //
+                            .contains( "maven_build_module_duration_seconds_bucket{project=\"p\",le=\"1800.0\"} 2\n" ) //
+                            .contains( "maven_build_module_duration_seconds_bucket{project=\"p\",le=\"+Inf\"} 3\n" ) //
+                            .contains( "maven_build_module_duration_seconds_sum{project=\"p\"} 4004.400\n" ) //
+                            .contains( "maven_build_module_duration_seconds_count{project=\"p\"} 3\n" ) //
+                            .contains( "maven_build_module_seconds{project=\"p\",module=\"c\"} 4000.000\n" ) //
+                            .contains( "maven_build_module_seconds{project=\"p\",module=\"other\"} 0.400\n" );
+    }
+
+    @Test
+    public void shouldSumUpTransfersPerDirectionAndRepository()
+    {
+        exporter.transfer( "download", "central", 1000L );
+        exporter.transfer( "download", "central", 500L );
+        exporter.transfer( "download", "snapshots", 10L );
+        exporter.transfer( "download", "mirror", 100L );
+        exporter.transfer( "install", "local", 2000L );
+
+        String result = exporter.format( "p", "success", 0L );
+
+        assertThat( result ).contains( "maven_build_transfer_artifacts{project=\"p\",direction=\"download\",repository=\"central\"} 2\n" ) //
+                            .contains( "maven_build_transfer_bytes{project=\"p\",direction=\"download\",repository=\"central\"} 1500\n" ) //
+                            .contains( "maven_build_transfer_bytes{project=\"p\",direction=\"download\",repository=\"other\"} 110\n" ) //
+                            .contains( "maven_build_transfer_artifacts{project=\"p\",direction=\"download\",repository=\"other\"} 2\n" ) //
+                            .contains( "maven_build_transfer_bytes{project=\"p\",direction=\"install\",repository=\"local\"} 2000\n" );
+    }
+
+    @Test
+    public void shouldEscapeLabelValues()
+    {
+        assertThat( PrometheusExporter.escape( "a\"b\\c\nd" ) ).isEqualTo( "a\\\"b\\\\c\\nd" );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldFailWithoutLabelValues()
+    {
+        new PrometheusExporter( file, 0 );
+    }
+}
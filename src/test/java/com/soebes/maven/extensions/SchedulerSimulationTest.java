@@ -0,0 +1,69 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.SchedulerSimulation.Policy;
+
+public class SchedulerSimulationTest
+{
+    /**
+     * parent (10) -> a (100) -> b (100) -> c (100) and parent -> x (50), y (50), z (50), all leaves.
+     */
+    private SchedulerSimulation createReactor()
+    {
+        String[] modules = { "parent", "x", "y", "z", "a", "b", "c" };
+        long[] durations = { 10, 50, 50, 50, 100, 100, 100 };
+        int[][] upstream = { {}, { 0 }, { 0 }, { 0 }, { 0 }, { 4 }, { 5 } };
+        return new SchedulerSimulation( modules, durations, upstream );
+    }
+
+    @Test
+    public void shouldSumUpAllModulesForASingleThread()
+    {
+        SchedulerSimulation simulation = createReactor();
+
+        for ( Policy policy : Policy.values() )
+        {
+            assertThat( simulation.simulate( 1, policy ) ).isEqualTo( 460 );
+        }
+    }
+
+    @Test
+    public void shouldPreferTheCriticalPath()
+    {
+        SchedulerSimulation simulation = createReactor();
+
+        assertThat( simulation.getCriticalPath() ).isEqualTo( 310 );
+        // In reactor order x and y block both threads before the chain a, b, c starts.
+        assertThat( simulation.simulate( 2, Policy.REACTOR_ORDER ) ).isEqualTo( 360 );
+        assertThat( simulation.simulate( 2, Policy.CRITICAL_PATH_FIRST ) ).isEqualTo( 310 );
+        assertThat( simulation.simulate( 64, Policy.REACTOR_ORDER ) ).isEqualTo( 310 );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldRejectZeroThreads()
+    {
+        createReactor().simulate( 0, Policy.REACTOR_ORDER );
+    }
+}
@@ -0,0 +1,144 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.soebes.maven.extensions.span.OffHeapSpanStore;
+import com.soebes.maven.extensions.span.SpanKind;
+import com.soebes.maven.extensions.span.SpanTree;
+
+public class SpanExportTest
+{
+    private SpanTree createTree( int downloads )
+    {
+        return createTree( new SpanTree(), downloads );
+    }
+
+    private SpanTree createTree( SpanTree tree, int downloads )
+    {
+        tree.start( SpanKind.SESSION, "session" );
+        ProjectMojo compile = new ProjectMojo( new ProjectKey( "g", "a", "1" ),
+                                               new MojoKey( "p", "compiler", "1", "compile", "default,compile",
+                                                            "compile" ) );
+        tree.start( SpanKind.PROJECT, "g:a:jar:1" );
+        tree.start( SpanKind.MOJO, compile );
+        for ( int i = 0; i < downloads; i++ )
+        {
+            int download = tree.start( SpanKind.DOWNLOAD, "g:b:" + i + ":jar" );
+            tree.setRepository( download, "central" );
+            tree.setBytes( download, i );
+            tree.stop( SpanKind.DOWNLOAD, "g:b:" + i + ":jar" );
+        }
+        tree.stop( SpanKind.MOJO, compile, true );
+        tree.stop( SpanKind.PROJECT, "g:a:jar:1" );
+        tree.stop( SpanKind.SESSION, "session" );
+        return tree;
+    }
+
+    @Test
+    public void shouldWriteARecordPerSpanAsCsv()
+        throws IOException
+    {
+        StringWriter csv = new StringWriter();
+        new SpanExport( createTree( 1 ) ).writeCsv( csv );
+        String[] lines = csv.toString().split( "\r\n" );
+
+        assertThat( lines ).hasSize( 5 );
+        assertThat( lines[0] ).isEqualTo( "kind,project,plugin,goal,executionId,phase,name,thread,start,end,bytes,"
+            + "repository,failed" );
+        assertThat( lines[1] ).startsWith( "SESSION,,,,,,session," );
+        assertThat( lines[2] ).startsWith( "PROJECT,g:a:jar:1,,,,,g:a:jar:1," );
+        assertThat( lines[3] ).startsWith( "MOJO,g:a:1,p:compiler:1,compile,\"default,compile\",compile,," )
+                              .endsWith( ",0,,1" );
+        assertThat( lines[4] ).startsWith( "DOWNLOAD,g:a:jar:1,,,,,g:b:0:jar," ).endsWith( ",0,central,0" );
+    }
+
+    @Test
+    public void shouldReadTheColumnarFormat()
+        throws IOException
+    {
+        SpanTree tree = createTree( SpanExport.ROW_GROUP_SIZE + 10 );
+        SpanExport export = new SpanExport( tree );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        export.writeColumnar( bytes );
+
+        List<Object[]> records = SpanExport.readColumnar( new ByteArrayInputStream( bytes.toByteArray() ) );
+
+        assertThat( records ).hasSize( tree.getSpanCount() );
+        for ( int span = 0; span < tree.getSpanCount(); span += 997 )
+        {
+            assertThat( records.get( span ) ).isEqualTo( export.getRecord( span ) );
+        }
+        assertThat( records.get( tree.getSpanCount() - 1 ) ).isEqualTo( export.getRecord( tree.getSpanCount() - 1 ) );
+    }
+
+    @Test
+    public void shouldReportTheSpansOfAMappedStoreWhichHaveBeenReadBack()
+        throws IOException
+    {
+        File file = File.createTempFile( "spans", ".bin" );
+        file.deleteOnExit();
+        OffHeapSpanStore.getKeyFile( file ).deleteOnExit();
+        SpanTree tree =
+            new SpanTree( OffHeapSpanStore.mapped( SpanTree.COLUMNS, file, new SpanKeyCodec() ) );
+        createTree( tree, 3 );
+        ProjectGoal goal = new ProjectGoal( new ProjectKey( "g", "a", "1" ),
+                                            new GoalKey( "p", "dependency", "1", "tree", null ) );
+        tree.start( SpanKind.GOAL, goal );
+        tree.stop( SpanKind.GOAL, goal );
+        SpanExport export = new SpanExport( tree );
+        List<Object[]> records = new ArrayList<>();
+        for ( int span = 0; span < tree.getSpanCount(); span++ )
+        {
+            records.add( export.getRecord( span ) );
+        }
+        Map<String, Long> timePerPhase = new MojoTimer( tree ).getTimePerPhase();
+        tree.close();
+
+        SpanTree read = SpanTree.read( file, new SpanKeyCodec() );
+        try
+        {
+            assertThat( read.getKey( read.getSpans( SpanKind.GOAL )[0] ) ).isEqualTo( goal );
+            SpanExport readExport = new SpanExport( read );
+            assertThat( read.getSpanCount() ).isEqualTo( records.size() );
+            for ( int span = 0; span < read.getSpanCount(); span++ )
+            {
+                assertThat( readExport.getRecord( span ) ).isEqualTo( records.get( span ) );
+            }
+            assertThat( new MojoTimer( read ).getTimePerPhase() ).isEqualTo( timePerPhase );
+        }
+        finally
+        {
+            read.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class StreamingReporterTest
+{
+    private File file;
+
+    private StreamingReporter reporter;
+
+    @BeforeMethod
+    public void beforeMethod()
+        throws IOException
+    {
+        file = File.createTempFile( "mbtp", ".log" );
+        file.deleteOnExit();
+        reporter = new StreamingReporter( file );
+        reporter.sessionStart();
+    }
+
+    private String readFile()
+        throws IOException
+    {
+        return new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void shouldWriteProjectSummaryWhenProjectHasFinished()
+        throws IOException
+    {
+        MavenProject project = createProject( "first" );
+
+        reporter.mojoStop( createMojoEvent( project, "compile", "compile" ), 100L );
+        reporter.mojoStop( createMojoEvent( project, "test", "test" ), 200L );
+
+        assertThat( readFile() ).doesNotContain( "first" );
+
+        reporter.projectStop( createProjectEvent( project, ExecutionEvent.Type.ProjectSucceeded ), 350L );
+
+        assertThat( readFile() ).contains( "     350 ms : first (groupId:first:1.0) ProjectSucceeded" ) //
+                                .contains( "         100 ms : compile" ) //
+                                .contains( "             200 ms : org.apache.maven.plugins:maven-test-plugin:1.0:test (default-test)" );
+    }
+
+    @Test
+    public void shouldAggregatePhaseTimesOverProjects()
+    {
+        MavenProject first = createProject( "first" );
+        MavenProject second = createProject( "second" );
+
+        reporter.mojoStop( createMojoEvent( first, "compile", "compile" ), 100L );
+        reporter.mojoStop( createMojoEvent( second, "compile", "compile" ), 50L );
+        reporter.projectStop( createProjectEvent( first, ExecutionEvent.Type.ProjectSucceeded ), 100L );
+        reporter.projectStop( createProjectEvent( second, ExecutionEvent.Type.ProjectFailed ), 50L );
+
+        assertThat( reporter.getTimeForPhaseInMillis( "compile" ) ).isEqualTo( 150L );
+        assertThat( reporter.getTimeForPhaseInMillis( "test" ) ).isEqualTo( 0L );
+        assertThat( reporter.getSummary( new ProjectKey( "groupId", "second", "1.0" ) ).getResult() ).isEqualTo( "ProjectFailed" );
+    }
+
+    @Test
+    public void shouldAppendPhaseSummaryAtTheEnd()
+        throws IOException
+    {
+        MavenProject project = createProject( "first" );
+        reporter.mojoStop( createMojoEvent( project, "compile", "compile" ), 100L );
+        reporter.projectStop( createProjectEvent( project, ExecutionEvent.Type.ProjectSucceeded ), 100L );
+
+        reporter.sessionStop( Arrays.asList( "compile" ) );
+
+        assertThat( readFile() ).contains( "Lifecycle Phase summary:" ).contains( "     100 ms : compile" );
+    }
+
+    private MavenProject createProject( String artifactId )
+    {
+        MavenProject project = mock( MavenProject.class );
+        when( project.getGroupId() ).thenReturn( "groupId" );
+        when( project.getArtifactId() ).thenReturn( artifactId );
+        when( project.getVersion() ).thenReturn( "1.0" );
+        when( project.getName() ).thenReturn( artifactId );
+        return project;
+    }
+
+    private ExecutionEvent createProjectEvent( MavenProject project, ExecutionEvent.Type type )
+    {
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getProject() ).thenReturn( project );
+        when( event.getType() ).thenReturn( type );
+        return event;
+    }
+
+    private ExecutionEvent createMojoEvent( MavenProject project, String phase, String goal )
+    {
+        MojoExecution execution = mock( MojoExecution.class );
+        when( execution.getGroupId() ).thenReturn( "org.apache.maven.plugins" );
+        when( execution.getArtifactId() ).thenReturn( "maven-" + goal + "-plugin" );
+        when( execution.getVersion() ).thenReturn( "1.0" );
+        when( execution.getGoal() ).thenReturn( goal );
+        when( execution.getExecutionId() ).thenReturn( "default-" + goal );
+        when( execution.getLifecyclePhase() ).thenReturn( phase );
+
+        ExecutionEvent event = mock( ExecutionEvent.class );
+        when( event.getMojoExecution() ).thenReturn( execution );
+        when( event.getProject() ).thenReturn( project );
+        return event;
+    }
+}
@@ -0,0 +1,62 @@
+package com.soebes.maven.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class TopNTest
+{
+    @Test
+    public void shouldKeepTheLargestEntriesInDescendingOrder()
+    {
+        TopN<String> top = new TopN<>( 3 );
+        long[] values = { 5, 1, 9, 3, 7, 2, 8 };
+        for ( long value : values )
+        {
+            top.add( "v" + value, value );
+        }
+
+        List<TopN.Entry<String>> entries = top.getEntries();
+        assertThat( entries ).hasSize( 3 );
+        assertThat( entries.get( 0 ).getKey() ).isEqualTo( "v9" );
+        assertThat( entries.get( 1 ).getKey() ).isEqualTo( "v8" );
+        assertThat( entries.get( 2 ).getKey() ).isEqualTo( "v7" );
+        assertThat( top.getTotal() ).isEqualTo( 35 );
+    }
+
+    @Test
+    public void shouldReturnAllEntriesIfThereAreFewer()
+    {
+        TopN<String> top = new TopN<>( 10 );
+        top.add( "a", 1 );
+
+        assertThat( top.getEntries() ).hasSize( 1 );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldRejectAnEmptySelection()
+    {
+        new TopN<String>( 0 );
+    }
+}
@@ -0,0 +1,61 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+public class LongIntMapTest
+{
+    @Test
+    public void shouldKeepAllEntriesWhileGrowing()
+    {
+        LongIntMap map = new LongIntMap();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            map.put( ( (long) ( i % 12 ) << 32 ) | i, i );
+        }
+
+        assertThat( map.size() ).isEqualTo( 10000 );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertThat( map.get( ( (long) ( i % 12 ) << 32 ) | i ) ).isEqualTo( i );
+        }
+        assertThat( map.get( 10000 ) ).isEqualTo( LongIntMap.NO_VALUE );
+    }
+
+    @Test
+    public void shouldReplaceTheValueOfAnExistingKey()
+    {
+        LongIntMap map = new LongIntMap();
+        map.put( 42, 1 );
+        map.put( 42, 2 );
+
+        assertThat( map.size() ).isEqualTo( 1 );
+        assertThat( map.get( 42 ) ).isEqualTo( 2 );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void shouldRejectTheEmptyMarker()
+    {
+        new LongIntMap().put( Long.MIN_VALUE, 1 );
+    }
+}
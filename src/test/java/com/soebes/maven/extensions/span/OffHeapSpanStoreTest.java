@@ -0,0 +1,147 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.testng.annotations.Test;
+
+public class OffHeapSpanStoreTest
+{
+    @Test
+    public void shouldKeepTheRecordsOfADirectStoreWhileGrowing()
+        throws IOException
+    {
+        OffHeapSpanStore store = OffHeapSpanStore.direct( 3 );
+        for ( int i = 0; i < 5000; i++ )
+        {
+            int record = store.append();
+            store.set( record, 2, i * 10L );
+        }
+
+        assertThat( store.size() ).isEqualTo( 5000 );
+        assertThat( store.get( 0, 2 ) ).isEqualTo( 0 );
+        assertThat( store.get( 4999, 2 ) ).isEqualTo( 49990 );
+        assertThat( store.get( 4999, 1 ) ).isEqualTo( 0 );
+        store.close();
+    }
+
+    @Test( expectedExceptions = IndexOutOfBoundsException.class )
+    public void shouldRejectUnknownRecords()
+        throws IOException
+    {
+        OffHeapSpanStore.direct( 3 ).get( 0, 0 );
+    }
+
+    @Test
+    public void shouldWriteReadableRecordsToTheMappedFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "spans", ".bin" );
+        file.deleteOnExit();
+        OffHeapSpanStore.getKeyFile( file ).deleteOnExit();
+        SpanTree tree = new SpanTree( OffHeapSpanStore.mapped( SpanTree.COLUMNS, file ) );
+        tree.start( SpanKind.SESSION, "session" );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            int download = tree.start( SpanKind.DOWNLOAD, "artifact-" + i );
+            tree.setBytes( download, i );
+            tree.stop( SpanKind.DOWNLOAD, "artifact-" + i );
+        }
+
+        assertThat( tree.getBytes( tree.find( SpanKind.DOWNLOAD, "artifact-1999" ) ) ).isEqualTo( 1999 );
+
+        // Read the file without closing the store, as it would be after a crash.
+        try ( RandomAccessFile input = new RandomAccessFile( file, "r" ) )
+        {
+            ByteBuffer buffer = input.getChannel().map( FileChannel.MapMode.READ_ONLY, 0, input.length() );
+            assertThat( buffer.getInt( 0 ) ).isEqualTo( OffHeapSpanStore.MAGIC );
+            assertThat( buffer.getInt( 4 ) ).isEqualTo( OffHeapSpanStore.VERSION );
+            assertThat( buffer.getInt( 8 ) ).isEqualTo( SpanTree.COLUMNS );
+            assertThat( buffer.getInt( 12 ) ).isEqualTo( 2001 );
+        }
+        tree.close();
+    }
+
+    @Test
+    public void shouldReadTheSpansOfTheMappedFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "spans", ".bin" );
+        file.deleteOnExit();
+        OffHeapSpanStore.getKeyFile( file ).deleteOnExit();
+        SpanTree tree = new SpanTree( OffHeapSpanStore.mapped( SpanTree.COLUMNS, file ) );
+        tree.start( SpanKind.SESSION, "session" );
+        tree.start( SpanKind.PROJECT, "project" );
+        tree.start( SpanKind.MOJO, "compile" );
+        int download = tree.start( SpanKind.DOWNLOAD, "artifact" );
+        tree.setBytes( download, 1234 );
+        tree.setRepository( download, "central" );
+        tree.stop( SpanKind.DOWNLOAD, "artifact" );
+        tree.stop( SpanKind.MOJO, "compile", true );
+        long start = tree.getStartTime( download );
+        long end = tree.getEndTime( download );
+        // The keys are written in blocks, the last one when the store is closed.
+        tree.close();
+
+        SpanTree read = SpanTree.read( file );
+        try
+        {
+            assertThat( read.getSpanCount() ).isEqualTo( 4 );
+            assertThat( read.getSession() ).isEqualTo( 0 );
+            int span = read.find( SpanKind.DOWNLOAD, "artifact" );
+            assertThat( span ).isEqualTo( download );
+            assertThat( read.getKey( span ) ).isEqualTo( "artifact" );
+            assertThat( read.getRepository( span ) ).isEqualTo( "central" );
+            assertThat( read.getBytes( span ) ).isEqualTo( 1234 );
+            assertThat( read.getStartTime( span ) ).isEqualTo( start );
+            assertThat( read.getEndTime( span ) ).isEqualTo( end );
+            int mojo = read.getParent( span );
+            assertThat( read.getKey( mojo ) ).isEqualTo( "compile" );
+            assertThat( read.isFailed( mojo ) ).isTrue();
+            assertThat( read.getSpans( SpanKind.PROJECT ) ).containsExactly( 1 );
+            assertThat( read.isOpen( 1 ) ).isTrue();
+            assertThat( read.getEndTime( 1 ) ).isGreaterThanOrEqualTo( read.getStartTime( 1 ) );
+        }
+        finally
+        {
+            read.close();
+        }
+    }
+
+    @Test( expectedExceptions = IOException.class )
+    public void shouldRejectFilesWhichAreNoStore()
+        throws IOException
+    {
+        File file = File.createTempFile( "spans", ".bin" );
+        file.deleteOnExit();
+        try ( RandomAccessFile output = new RandomAccessFile( file, "rw" ) )
+        {
+            output.write( new byte[OffHeapSpanStore.HEADER_SIZE] );
+        }
+        SpanTree.read( file );
+    }
+}
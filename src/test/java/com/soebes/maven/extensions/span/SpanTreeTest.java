@@ -0,0 +1,275 @@
+package com.soebes.maven.extensions.span;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SpanTreeTest
+{
+    private SpanTree tree;
+
+    @BeforeMethod
+    public void beforeMethod()
+    {
+        tree = new SpanTree();
+    }
+
+    @Test
+    public void shouldNestSpansIntoTheExecutionOfTheThread()
+    {
+        int session = tree.start( SpanKind.SESSION, "session" );
+        int project = tree.start( SpanKind.PROJECT, "project" );
+        int mojo = tree.start( SpanKind.MOJO, "mojo" );
+        int download = tree.start( SpanKind.DOWNLOAD, "artifact" );
+        tree.stop( SpanKind.DOWNLOAD, "artifact" );
+        tree.stop( SpanKind.MOJO, "mojo" );
+        int install = tree.start( SpanKind.INSTALL, "artifact" );
+
+        assertThat( tree.getSession() ).isEqualTo( session );
+        assertThat( tree.getParent( session ) ).isEqualTo( SpanTree.NO_SPAN );
+        assertThat( tree.getParent( project ) ).isEqualTo( session );
+        assertThat( tree.getParent( mojo ) ).isEqualTo( project );
+        assertThat( tree.getParent( download ) ).isEqualTo( mojo );
+        assertThat( tree.getParent( install ) ).isEqualTo( project );
+        assertThat( tree.getAncestor( download, SpanKind.PROJECT ) ).isEqualTo( project );
+        assertThat( tree.getAncestor( download, SpanKind.FORK ) ).isEqualTo( SpanTree.NO_SPAN );
+    }
+
+    @Test
+    public void shouldMakeProjectsChildrenOfTheSessionOnAnyThread()
+        throws InterruptedException
+    {
+        final int session = tree.start( SpanKind.SESSION, "session" );
+        tree.start( SpanKind.MOJO, "mojo" );
+        final int[] spans = new int[2];
+        final CountDownLatch done = new CountDownLatch( 1 );
+        new Thread()
+        {
+            @Override
+            public void run()
+            {
+                spans[0] = tree.start( SpanKind.PROJECT, "project" );
+                spans[1] = tree.start( SpanKind.MOJO, "other" );
+                done.countDown();
+            }
+        }.start();
+        done.await();
+
+        assertThat( tree.getParent( spans[0] ) ).isEqualTo( session );
+        assertThat( tree.getParent( spans[1] ) ).isEqualTo( spans[0] );
+    }
+
+    @Test
+    public void shouldMeasureTheElapsedTime()
+        throws InterruptedException
+    {
+        int span = tree.start( SpanKind.PROJECT, "project" );
+        assertThat( tree.isOpen( span ) ).isTrue();
+        assertThat( tree.getElapsedTime( span ) ).isEqualTo( 0L );
+
+        Thread.sleep( 10L );
+
+        assertThat( tree.stop( SpanKind.PROJECT, "project", true ) ).isEqualTo( span );
+        assertThat( tree.isOpen( span ) ).isFalse();
+        assertThat( tree.isFailed( span ) ).isTrue();
+        assertThat( tree.getElapsedTime( span ) ).isGreaterThanOrEqualTo( 10L );
+        assertThat( tree.getEndTime( span ) - tree.getStartTime( span ) ).isGreaterThanOrEqualTo( 10000000L );
+    }
+
+    @Test
+    public void shouldNotFindUnknownSpans()
+    {
+        tree.start( SpanKind.PROJECT, "project" );
+
+        assertThat( tree.stop( SpanKind.MOJO, "project" ) ).isEqualTo( SpanTree.NO_SPAN );
+        assertThat( tree.find( SpanKind.PROJECT, "other" ) ).isEqualTo( SpanTree.NO_SPAN );
+    }
+
+    @Test
+    public void shouldGrowBeyondTheInitialCapacity()
+    {
+        for ( int i = 0; i < 5000; i++ )
+        {
+            tree.start( SpanKind.DOWNLOAD, "artifact" + i );
+            tree.setBytes( tree.stop( SpanKind.DOWNLOAD, "artifact" + i ), i );
+        }
+
+        assertThat( tree.getSpanCount() ).isEqualTo( 5000 );
+        assertThat( tree.getSpans( SpanKind.DOWNLOAD ) ).hasSize( 5000 );
+        assertThat( tree.getBytes( tree.find( SpanKind.DOWNLOAD, "artifact4999" ) ) ).isEqualTo( 4999L );
+        assertThat( tree.getSpans( SpanKind.DEPLOY ) ).isEmpty();
+    }
+
+    @Test
+    public void shouldNotifyListenersAboutEndedSpans()
+    {
+        final List<Integer> ended = new ArrayList<>();
+        tree.addListener( new SpanListener()
+        {
+            public void spanEnded( SpanTree spanTree, int span )
+            {
+                ended.add( span );
+            }
+        } );
+        int first = tree.start( SpanKind.MOJO, "first" );
+        int second = tree.start( SpanKind.MOJO, "second" );
+        tree.stop( SpanKind.MOJO, "second" );
+        tree.stop( SpanKind.MOJO, "first" );
+
+        assertThat( ended ).containsExactly( second, first );
+    }
+
+    @Test
+    public void shouldStopASpanOnlyOnce()
+    {
+        final List<Integer> ended = new ArrayList<>();
+        tree.addListener( new SpanListener()
+        {
+            public void spanEnded( SpanTree spanTree, int span )
+            {
+                ended.add( span );
+            }
+        } );
+        int mojo = tree.start( SpanKind.MOJO, "mojo" );
+        tree.stop( SpanKind.MOJO, "mojo" );
+        long end = tree.getEndTime( mojo );
+
+        assertThat( tree.stop( SpanKind.MOJO, "mojo", true ) ).isEqualTo( mojo );
+        assertThat( tree.getEndTime( mojo ) ).isEqualTo( end );
+        assertThat( tree.isFailed( mojo ) ).isFalse();
+        assertThat( ended ).containsExactly( mojo );
+    }
+
+    @Test
+    public void shouldKeepASpanPerRepository()
+    {
+        int central = tree.start( SpanKind.METADATA_DOWNLOAD, "g:a/maven-metadata.xml", "central" );
+        int snapshots = tree.start( SpanKind.METADATA_DOWNLOAD, "g:a/maven-metadata.xml", "snapshots" );
+
+        assertThat( tree.stop( SpanKind.METADATA_DOWNLOAD, "g:a/maven-metadata.xml", "central", false ) )
+            .isEqualTo( central );
+        assertThat( tree.stop( SpanKind.METADATA_DOWNLOAD, "g:a/maven-metadata.xml", "snapshots", false ) )
+            .isEqualTo( snapshots );
+        assertThat( tree.getRepository( central ) ).isEqualTo( "central" );
+        assertThat( tree.getRepository( snapshots ) ).isEqualTo( "snapshots" );
+        assertThat( tree.find( SpanKind.METADATA_DOWNLOAD, "g:a/maven-metadata.xml", "other" ) )
+            .isEqualTo( SpanTree.NO_SPAN );
+    }
+
+    @Test
+    public void shouldStoreEachDistinctKeyOnlyOnce()
+    {
+        tree.start( SpanKind.SESSION, "session" );
+        int download = tree.start( SpanKind.DOWNLOAD, "artifact" );
+        tree.setRepository( download, "central" );
+        int install = tree.start( SpanKind.INSTALL, "artifact" );
+        tree.setRepository( install, "central" );
+
+        assertThat( tree.getKeyCount() ).isEqualTo( 3 );
+        assertThat( tree.find( SpanKind.DOWNLOAD, "artifact" ) ).isEqualTo( download );
+        assertThat( tree.find( SpanKind.INSTALL, "artifact" ) ).isEqualTo( install );
+        assertThat( tree.getRepository( install ) ).isEqualTo( "central" );
+        assertThat( tree.getDetail( install ) ).isNull();
+        assertThat( tree.getThreadId( install ) ).isEqualTo( Thread.currentThread().getId() );
+    }
+
+    @Test( expectedExceptions = IllegalStateException.class )
+    public void shouldNotReplaceTheStoreAfterSpansHaveBeenRecorded()
+    {
+        tree.start( SpanKind.SESSION, "session" );
+
+        tree.setStore( new HeapSpanStore( SpanTree.COLUMNS ) );
+    }
+
+    @Test
+    public void shouldRecordSpansOfParallelThreads()
+        throws InterruptedException
+    {
+        final int threads = 8;
+        final int spansPerThread = 5000;
+        final int session = tree.start( SpanKind.SESSION, "session" );
+        final CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> workers = new ArrayList<>();
+        for ( int t = 0; t < threads; t++ )
+        {
+            final String thread = "thread-" + t;
+            Thread worker = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                    int project = tree.start( SpanKind.PROJECT, thread );
+                    for ( int i = 0; i < spansPerThread; i++ )
+                    {
+                        String mojo = thread + "-mojo-" + i;
+                        tree.start( SpanKind.MOJO, mojo );
+                        int download = tree.start( SpanKind.DOWNLOAD, mojo );
+                        tree.setBytes( download, i );
+                        tree.stop( SpanKind.DOWNLOAD, mojo );
+                        tree.stop( SpanKind.MOJO, mojo );
+                    }
+                    tree.stop( SpanKind.PROJECT, thread );
+                    if ( tree.getParent( project ) != session )
+                    {
+                        throw new IllegalStateException( "Wrong parent of " + thread );
+                    }
+                }
+            };
+            worker.start();
+            workers.add( worker );
+        }
+        start.countDown();
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+
+        assertThat( tree.getSpanCount() ).isEqualTo( 1 + threads * ( 1 + 2 * spansPerThread ) );
+        int[] mojos = tree.getSpans( SpanKind.MOJO );
+        assertThat( mojos ).hasSize( threads * spansPerThread );
+        for ( int i = 1; i < mojos.length; i++ )
+        {
+            assertThat( mojos[i] ).isGreaterThan( mojos[i - 1] );
+        }
+        for ( int t = 0; t < threads; t++ )
+        {
+            String mojo = "thread-" + t + "-mojo-" + ( spansPerThread - 1 );
+            int download = tree.find( SpanKind.DOWNLOAD, mojo );
+            assertThat( tree.getBytes( download ) ).isEqualTo( spansPerThread - 1 );
+            assertThat( tree.getParent( download ) ).isEqualTo( tree.find( SpanKind.MOJO, mojo ) );
+            assertThat( tree.isOpen( download ) ).isFalse();
+        }
+    }
+}